@@ -0,0 +1,93 @@
+import java.awt.Rectangle;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Déplacement des balles avec détection de collision (BallStepper.move) sur une
+ * disposition de blocs fixe. Les blocs ne sont jamais détruits : chaque appel
+ * mesure le même travail, quelle que soit la durée du benchmark.
+ *
+ * Dispositions disponibles : "level1" à "level3" (les niveaux du jeu) et
+ * "bricks" suivi d'un nombre de blocs ("bricks1000", "bricks100000"), une grille
+ * régulière où chaque balle démarre dans un espace libre entre les blocs.
+ */
+public class CollisionFixture implements LongSupplier {
+
+    // Disposition synthétique : un bloc de 40x20 en haut à gauche de chaque cellule de 100x70
+    private static final int CELL_WIDTH = 100;
+    private static final int CELL_HEIGHT = 70;
+    private static final int BRICK_WIDTH = 40;
+    private static final int BRICK_HEIGHT = 20;
+
+    private final BlockField blocks;
+    private final BlockGrid grid;
+    private final BallSet balls = new BallSet(50, 45);
+    private final BallStepper stepper = new BallStepper();
+    private final Rectangle paddle;
+    private final int width;
+
+    /**
+     * Prépare la disposition et les balles
+     * @param layout Nom de la disposition
+     * @param ballCount Nombre de balles
+     */
+    public CollisionFixture(String layout, int ballCount) {
+        Random random = new Random(42);
+        if (layout.startsWith("level")) {
+            int levelNumber = Integer.parseInt(layout.substring("level".length()));
+            blocks = new Level(LevelPack.getDefault(), levelNumber, new GameRandom(42).forLevel(levelNumber)).getBlocks();
+            grid = new BlockGrid(blocks, Level.GRID_ORIGIN_X, Level.GRID_ORIGIN_Y, Level.CELL_WIDTH, Level.CELL_HEIGHT);
+            width = GameWorld.DEFAULT_WIDTH;
+            paddle = new Rectangle(175, 480, 200, 40);
+            for (int i = 0; i < ballCount; i++) {
+                balls.add(random.nextInt(width - 50), 200 + random.nextInt(230), randomSpeed(random), randomSpeed(random));
+            }
+        } else if (layout.startsWith("bricks")) {
+            int brickCount = Integer.parseInt(layout.substring("bricks".length()));
+            int columns = (int) Math.ceil(Math.sqrt(brickCount));
+            int rows = (brickCount + columns - 1) / columns;
+            blocks = new BlockField(brickCount);
+            for (int i = 0; i < brickCount; i++) {
+                blocks.add((i % columns) * CELL_WIDTH, (i / columns) * CELL_HEIGHT, BRICK_WIDTH, BRICK_HEIGHT,
+                        i % 4, 1, false);
+            }
+            grid = new BlockGrid(blocks, 0, 0, CELL_WIDTH, CELL_HEIGHT);
+            width = columns * CELL_WIDTH;
+            paddle = new Rectangle(0, rows * CELL_HEIGHT + 100, width, 40);
+            for (int i = 0; i < ballCount; i++) {
+                int cell = random.nextInt(brickCount);
+                balls.add((cell % columns) * CELL_WIDTH + 45, (cell / columns) * CELL_HEIGHT + 22,
+                        randomSpeed(random), randomSpeed(random));
+            }
+        } else {
+            throw new IllegalArgumentException("Disposition inconnue: " + layout);
+        }
+    }
+
+    /**
+     * Tire une vitesse entre -5 et 5, jamais nulle
+     * @param random Générateur
+     * @return int La vitesse
+     */
+    private static int randomSpeed(Random random) {
+        int speed = 1 + random.nextInt(5);
+        return random.nextBoolean() ? speed : -speed;
+    }
+
+    /**
+     * Déplace toutes les balles d'un pas
+     * @return long Le nombre de blocs touchés par la première balle, à consommer par le benchmark
+     */
+    @Override
+    public long getAsLong() {
+        stepper.move(balls, blocks, grid, paddle, width);
+
+        // Les balles qui sortent par le bas repartent vers le haut
+        for (int i = 0; i < balls.size(); i++) {
+            if (balls.getMovY(i) > 0 && balls.getY(i) > paddle.y + paddle.height) {
+                balls.setVelocity(i, balls.getMovX(i), -balls.getMovY(i));
+            }
+        }
+        return stepper.getHitCount(0);
+    }
+}
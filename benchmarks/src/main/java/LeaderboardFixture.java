@@ -0,0 +1,50 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Rang d'un score dans un classement (Leaderboard) rempli de parties tirées au
+ * hasard, dans un fichier temporaire. Le temps mesuré doit croître comme
+ * log(nombre de parties).
+ */
+public class LeaderboardFixture implements LongSupplier {
+
+    private static final int LEVELS = 20;
+    private static final int MAX_SCORE = 1_000_000;
+
+    private final Leaderboard leaderboard;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final int[] top = new int[10];
+
+    /**
+     * Remplit un classement
+     * @param entries Nombre de parties du classement
+     */
+    public LeaderboardFixture(int entries) {
+        try {
+            File file = File.createTempFile("leaderboard-", ".dat");
+            file.deleteOnExit();
+            leaderboard = new Leaderboard(file);
+            for (int i = 0; i < entries; i++) {
+                leaderboard.add("Joueur " + (i % 1000), random.nextInt(MAX_SCORE),
+                        1 + random.nextInt(LEVELS), random.nextLong(), i);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cherche le rang d'un score dans le classement général et dans celui d'un
+     * niveau, puis les dix meilleures parties de ce niveau
+     * @return long Somme des rangs et des parties trouvées
+     */
+    @Override
+    public long getAsLong() {
+        int score = random.nextInt(MAX_SCORE);
+        int level = 1 + random.nextInt(LEVELS);
+        return leaderboard.getRank(score) + leaderboard.getRank(level, score) + leaderboard.getTop(level, top);
+    }
+}
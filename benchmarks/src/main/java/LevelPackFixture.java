@@ -0,0 +1,62 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.function.LongSupplier;
+
+/**
+ * Ouverture d'un pack de niveaux (LevelPack.open) puis chargement d'un de ses
+ * niveaux, sur des packs de tailles différentes. Le pack est projeté en mémoire :
+ * le temps mesuré ne doit pas dépendre du nombre de niveaux.
+ */
+public class LevelPackFixture implements LongSupplier {
+
+    private final File file;
+    private final int levelCount;
+    private int next;
+
+    /**
+     * Compile un pack de niveaux dans un fichier temporaire
+     * @param levelCount Nombre de niveaux du pack
+     */
+    public LevelPackFixture(int levelCount) {
+        this.levelCount = levelCount;
+        StringBuilder source = new StringBuilder();
+        for (int level = 0; level < levelCount; level++) {
+            source.append("level Niveau ").append(level + 1).append('\n');
+            for (int row = 0; row < 4; row++) {
+                for (int column = 0; column < 8; column++) {
+                    source.append((column + row + level) % 3 == 0 ? "." : "BGYR".charAt(row) + "2").append(' ');
+                }
+                source.append('\n');
+            }
+            source.append("end\n");
+        }
+        try {
+            file = File.createTempFile("pack-", ".bbl");
+            file.deleteOnExit();
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(LevelCompiler.compile(new StringReader(source.toString())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ouvre le pack et charge le niveau suivant
+     * @return long Le nombre de blocs du niveau chargé
+     */
+    @Override
+    public long getAsLong() {
+        try {
+            LevelPack pack = LevelPack.open(file);
+            next = (next + 7919) % levelCount; // Parcourir tout le pack, pas seulement le début
+            return new Level(pack, next + 1, new GameRandom(next)).getBlocks().size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
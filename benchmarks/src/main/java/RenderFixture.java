@@ -0,0 +1,53 @@
+import java.awt.Canvas;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.function.LongSupplier;
+
+/**
+ * Dessin d'une image complète du jeu dans une BufferedImage hors écran, avec le
+ * GameRenderer utilisé par paintComponent() et par l'affichage actif. Le panneau
+ * lui-même n'est pas créé : il demande une fenêtre, indisponible en mode headless.
+ */
+public class RenderFixture implements LongSupplier {
+
+    private final GameWorld world;
+    private final GameRenderer renderer;
+    private final Canvas component = new Canvas();
+    private final BufferedImage frame;
+    private final Graphics2D graphics;
+    private int count;
+
+    /**
+     * Prépare une partie en cours et l'image de destination
+     * @param ballCount Nombre de balles en jeu
+     */
+    public RenderFixture(int ballCount) {
+        GameStats stats = new GameStats();
+        stats.setSeed(42);
+        world = new GameWorld(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, stats);
+        world.setChaosBalls(ballCount);
+        renderer = new GameRenderer(world);
+        world.getPowerUps().spawn(100, 200, PowerUp.TYPE_EXTRA_LIFE);
+
+        // Lancer les balles et les laisser s'éloigner de la raquette
+        world.step(GameWorld.INPUT_LAUNCH);
+        for (int i = 0; i < 20; i++) {
+            world.step(0);
+        }
+
+        frame = new BufferedImage(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = frame.createGraphics();
+    }
+
+    /**
+     * Dessine une image
+     * @return long Un pixel de l'image, à consommer par le benchmark
+     */
+    @Override
+    public long getAsLong() {
+        // Varier l'interpolation comme entre deux pas de simulation
+        double alpha = (count++ & 7) / 8.0;
+        renderer.render(graphics, component, frame.getWidth(), frame.getHeight(), alpha, false);
+        return frame.getRGB(0, 0);
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.function.LongSupplier;
+
+/**
+ * Partie complète jouée par une raquette automatique : soit elle suit la première
+ * balle ("follow"), soit elle est menée par le pilote du mode démo ("autopilot",
+ * avec la prévision de la trajectoire de la balle : l'écart entre les deux donne
+ * le coût de la prévision). Chaque appel avance la simulation d'un pas
+ * (GameWorld.step), comme le fait la boucle de jeu ; une nouvelle partie commence
+ * quand la précédente se termine.
+ *
+ * Les classes du jeu sont dans le paquetage par défaut, que les benchmarks JMH
+ * (obligatoirement dans un paquetage nommé) ne peuvent pas importer : elles sont
+ * appelées à travers cette classe, créée par réflexion.
+ */
+public class TickFixture implements LongSupplier {
+
+    // Graine fixe : chaque exécution du benchmark joue les mêmes parties
+    private static final long SEED = 42;
+
+    private final GameWorld world;
+    // Pilote du mode démo (null : la raquette suit la première balle)
+    private final Autopilot autopilot;
+    private int tick;
+
+    /**
+     * Prépare une partie
+     * @param player Joueur automatique : "follow" ou "autopilot"
+     */
+    public TickFixture(String player) {
+        if (player.equals("autopilot")) {
+            autopilot = new Autopilot();
+        } else if (player.equals("follow")) {
+            autopilot = null;
+        } else {
+            throw new IllegalArgumentException("Joueur inconnu: " + player);
+        }
+        GameStats stats = new GameStats();
+        stats.setSeed(SEED);
+        world = new GameWorld(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, stats);
+    }
+
+    /**
+     * Calcule les entrées du joueur et avance la partie d'un pas
+     * @return long Le score, à consommer par le benchmark
+     */
+    @Override
+    public long getAsLong() {
+        if (world.isFinished()) {
+            world.newGame(SEED);
+        }
+        world.step(autopilot != null ? autopilot.nextInputs(world) : followBall());
+        return world.getStats().getScore();
+    }
+
+    /**
+     * Entrées d'une raquette qui suit la première balle
+     * @return int Les entrées (GameWorld.INPUT_*)
+     */
+    private int followBall() {
+        // Suivre la balle, avec un décalage qui varie pour changer les angles de rebond
+        BallSet balls = world.getBalls();
+        Block paddle = world.getPaddle();
+        int aim = (int) balls.getX(0) + balls.getWidth()/2 - (paddle.x + paddle.width/2)
+                + ((tick++ / 997) % 9 - 4) * 15;
+        int inputs = GameWorld.INPUT_LAUNCH;
+        if (aim > 10) {
+            inputs |= GameWorld.INPUT_RIGHT;
+        } else if (aim < -10) {
+            inputs |= GameWorld.INPUT_LEFT;
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Coût du déplacement des balles avec détection de collision contre les blocs,
+ * sur les niveaux du jeu (32 blocs) et sur des grilles de 1k à 100k blocs, en ns/pas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({"level1", "level2", "level3", "bricks1000", "bricks10000", "bricks100000"})
+    public String layout;
+
+    @Param({"1", "1000"})
+    public int balls;
+
+    private LongSupplier collision;
+
+    @Setup
+    public void setUp() {
+        collision = Fixtures.create("CollisionFixture", layout, balls);
+    }
+
+    @Benchmark
+    public long moveBalls() {
+        return collision.getAsLong();
+    }
+}
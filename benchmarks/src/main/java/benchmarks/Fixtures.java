@@ -0,0 +1,35 @@
+package benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.util.function.LongSupplier;
+
+/**
+ * Crée les scénarios de mesure. Le jeu est dans le paquetage par défaut, que JMH
+ * n'accepte pas pour les benchmarks et qu'un paquetage nommé ne peut pas importer :
+ * chaque scénario est une classe du paquetage par défaut (module benchmarks)
+ * qui implémente LongSupplier, instanciée ici par réflexion.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Instancie un scénario
+     * @param className Nom de la classe du scénario
+     * @param args Arguments de son constructeur
+     * @return LongSupplier Le scénario ; chaque appel exécute une opération mesurée
+     */
+    static LongSupplier create(String className, Object... args) {
+        try {
+            for (Constructor<?> constructor : Class.forName(className).getConstructors()) {
+                if (constructor.getParameterCount() == args.length) {
+                    return (LongSupplier) constructor.newInstance(args);
+                }
+            }
+            throw new IllegalArgumentException("Aucun constructeur à " + args.length + " paramètres pour " + className);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible de créer le scénario " + className, e);
+        }
+    }
+}
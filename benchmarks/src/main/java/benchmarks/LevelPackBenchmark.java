@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ouverture d'un pack de niveaux et chargement d'un niveau, sur des packs de
+ * 10 à 100 000 niveaux, en µs/chargement (le temps doit rester le même)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelPackBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int levels;
+
+    private LongSupplier pack;
+
+    @Setup
+    public void setUp() {
+        pack = Fixtures.create("LevelPackFixture", levels);
+    }
+
+    @Benchmark
+    public long openLevel() {
+        return pack.getAsLong();
+    }
+}
@@ -0,0 +1,374 @@
+/**
+ * Pilote automatique de la raquette, pour le mode démo de l'écran d'accueil.
+ *
+ * À chaque pas, le pilote prévoit où la balle la plus proche croisera la ligne
+ * de la raquette : sa trajectoire est lancée en avant, segment par segment, avec
+ * les mêmes rebonds que le moteur (murs et blocs, par SweptCollision et l'index
+ * spatial des blocs). Les blocs que la balle touchera en chemin sont notés, et
+ * comptés comme détruits dès qu'ils ont reçu assez de coups.
+ *
+ * La raquette renvoie la balle avec une vitesse horizontale de offset / 10
+ * (écart entre le centre de la balle et celui de la raquette) : pour chacune des
+ * dix vitesses possibles, le pilote lance aussi la trajectoire du rebond jusqu'au
+ * premier bloc touché et compte les blocs restants autour de lui. Il place la
+ * raquette pour le rebond qui vise le groupe de blocs le plus dense, parmi ceux
+ * qu'elle peut atteindre avant la balle.
+ *
+ * Une prévision coûte une dizaine de lancers de quelques dizaines de segments,
+ * sans allocation : elle est refaite à chaque pas.
+ */
+public class Autopilot {
+
+    // Durée maximale d'une trajectoire prévue
+    private static final int MAX_TRACE_TICKS = 4 * GameLoop.TICKS_PER_SECOND;
+    // Nombre de pas parcourus par segment de trajectoire (hors rebond)
+    private static final int SEGMENT_TICKS = 16;
+    // Nombre maximum de segments et de rebonds d'une trajectoire
+    private static final int MAX_TRACE_STEPS = 256;
+    // Nombre maximum de coups notés pendant une prévision
+    private static final int MAX_PREDICTED_HITS = 64;
+
+    // Vitesse horizontale maximale après un rebond sur la raquette (BallStepper)
+    private static final int MAX_BOUNCE_SPEED = 5;
+    // Zone autour de la cible où la raquette ne bouge plus (évite d'osciller)
+    private static final int DEAD_ZONE = GameWorld.PADDLE_SPEED / 2 + 1;
+    // Marge sur les bords de la raquette : la balle doit la toucher franchement
+    private static final int EDGE_MARGIN = 5;
+    // Voisinage d'un bloc pour mesurer la densité d'un groupe de blocs
+    private static final int CLUSTER_WIDTH = 3 * Level.CELL_WIDTH;
+    private static final int CLUSTER_HEIGHT = 3 * Level.CELL_HEIGHT;
+    // Attente avant de lancer la balle, pour que le lancement se voie
+    private static final int LAUNCH_DELAY = GameLoop.TICKS_PER_SECOND;
+
+    // Identifiants des obstacles autres que les blocs
+    private static final int WALL_LEFT = -2;
+    private static final int WALL_RIGHT = -3;
+    private static final int WALL_TOP = -4;
+    private static final int PADDLE_LINE = -5;
+
+    private final SweptCollision sweep = new SweptCollision();
+    private int[] candidates = new int[256];
+
+    // Blocs touchés pendant la prévision en cours (un indice par coup)
+    private final int[] predictedHits = new int[MAX_PREDICTED_HITS];
+    private int predictedHitCount;
+
+    // Fin de la dernière trajectoire lancée
+    private double traceX;
+    private double traceY;
+    private int traceMovY;
+    private double traceTicks;
+    private int traceBlock;
+
+    private int waitingTicks;
+    // Centre visé pour la raquette au dernier pas (-1 : aucune prévision)
+    private int targetCenter = -1;
+
+    /**
+     * Calcule les entrées du pas suivant
+     * @param world Le moteur de jeu
+     * @return int Les entrées (GameWorld.INPUT_*)
+     */
+    public int nextInputs(GameWorld world) {
+        if (world.isFinished()) {
+            return 0;
+        }
+        if (!world.isBallLaunched()) {
+            targetCenter = -1;
+            if (++waitingTicks < LAUNCH_DELAY) {
+                return 0;
+            }
+            waitingTicks = 0;
+            return GameWorld.INPUT_LAUNCH;
+        }
+
+        Block paddle = world.getPaddle();
+        int center = paddle.x + paddle.width / 2;
+        targetCenter = predict(world);
+        if (targetCenter < 0) {
+            return 0;
+        }
+        if (targetCenter > center + DEAD_ZONE) {
+            return GameWorld.INPUT_RIGHT;
+        }
+        if (targetCenter < center - DEAD_ZONE) {
+            return GameWorld.INPUT_LEFT;
+        }
+        return 0;
+    }
+
+    /**
+     * Retourne le centre visé pour la raquette par la dernière prévision
+     * @return int La position x du centre visé, -1 si aucune balle n'est suivie
+     */
+    public int getTargetCenter() {
+        return targetCenter;
+    }
+
+    /**
+     * Prévoit le point de passage de la balle suivie et choisit la position de la raquette
+     * @param world Le moteur de jeu
+     * @return int Le centre visé pour la raquette, -1 si aucune balle n'arrive
+     */
+    private int predict(GameWorld world) {
+        BallSet balls = world.getBalls();
+        Block paddle = world.getPaddle();
+        int ball = chooseBall(balls, paddle);
+        if (ball < 0) {
+            return -1;
+        }
+
+        // Trajectoire de la balle jusqu'à la ligne de la raquette
+        predictedHitCount = 0;
+        if (!trace(world, balls.getX(ball), balls.getY(ball), balls.getMovX(ball), balls.getMovY(ball), false)) {
+            return -1;
+        }
+        int ballWidth = balls.getWidth();
+        int ballCenter = (int) Math.round(traceX) + ballWidth / 2;
+        double interceptX = traceX;
+        double interceptY = traceY;
+        int speedY = Math.abs(traceMovY);
+        double ticks = traceTicks;
+        int hitsBefore = predictedHitCount;
+
+        // Sans meilleur choix, la raquette se place sous la balle
+        int center = paddle.x + paddle.width / 2;
+        int halfWidth = paddle.width / 2;
+        int reach = (int) (ticks * GameWorld.PADDLE_SPEED);
+        int best = clampCenter(ballCenter, paddle.width, world.getWidth());
+        int bestDensity = -1;
+        int bestTravel = Integer.MAX_VALUE;
+
+        for (int movX = -MAX_BOUNCE_SPEED; movX <= MAX_BOUNCE_SPEED; movX++) {
+            if (movX == 0) {
+                continue;
+            }
+            // Écart qui donne cette vitesse (milieu de sa plage : offset / 10 == movX ;
+            // les écarts de -9 à 9 donnent tous 1). Contre un mur, la raquette
+            // s'arrête avant : c'est l'écart réellement atteint qui compte.
+            int offset = movX == 1 ? 0 : movX * 10 + (movX > 0 ? 5 : -5);
+            int candidate = clampCenter(ballCenter - offset, paddle.width, world.getWidth());
+            offset = ballCenter - candidate;
+            if (Math.abs(offset) > halfWidth - EDGE_MARGIN) {
+                continue;
+            }
+            int travel = Math.abs(candidate - center);
+            if (travel > reach) {
+                continue;
+            }
+
+            // Trajectoire du rebond jusqu'au premier bloc touché
+            predictedHitCount = hitsBefore;
+            int density = 0;
+            if (trace(world, interceptX, interceptY, bounce(offset), -speedY, true) && traceBlock >= 0) {
+                density = density(world, traceBlock);
+            }
+            if (density > bestDensity || (density == bestDensity && travel < bestTravel)) {
+                best = candidate;
+                bestDensity = density;
+                bestTravel = travel;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Choisit la balle qui arrivera la première sur la ligne de la raquette
+     * (estimation sans les blocs : descente directe, ou montée puis descente)
+     * @param balls Les balles
+     * @param paddle La raquette
+     * @return int L'indice de la balle, -1 si aucune balle ne peut plus être renvoyée
+     */
+    private static int chooseBall(BallSet balls, Block paddle) {
+        int chosen = -1;
+        double earliest = Double.MAX_VALUE;
+        int limit = paddle.y - balls.getHeight();
+        for (int i = 0; i < balls.size(); i++) {
+            int movY = balls.getMovY(i);
+            double y = balls.getY(i);
+            // Balle immobile, ou déjà passée sous la raquette : perdue
+            if (movY == 0 || (movY > 0 && y > limit + paddle.height)) {
+                continue;
+            }
+            double distance = movY > 0 ? limit - y : y + limit;
+            double time = distance / Math.abs(movY);
+            if (time < earliest) {
+                earliest = time;
+                chosen = i;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Lance une trajectoire de balle avec les rebonds du moteur sur les murs et les
+     * blocs, jusqu'à la ligne de la raquette ou jusqu'au premier bloc touché. La
+     * fin de la trajectoire est rangée dans traceX, traceY, traceMovY, traceTicks
+     * et traceBlock.
+     * @param world Le moteur de jeu
+     * @param x Position x de départ de la balle
+     * @param y Position y de départ de la balle
+     * @param movX Vitesse horizontale (pixels par pas)
+     * @param movY Vitesse verticale (pixels par pas)
+     * @param stopAtBlock true pour s'arrêter au premier bloc touché
+     * @return boolean true si la trajectoire atteint la ligne de la raquette (ou un
+     *         bloc, avec stopAtBlock) avant MAX_TRACE_TICKS ; traceBlock est l'indice
+     *         du bloc touché, ou négatif si la balle revient sans toucher de bloc
+     */
+    private boolean trace(GameWorld world, double x, double y, int movX, int movY, boolean stopAtBlock) {
+        BlockField blocks = world.getBlocks();
+        BlockGrid grid = world.getGrid();
+        BallSet balls = world.getBalls();
+        int ballWidth = balls.getWidth();
+        int ballHeight = balls.getHeight();
+        int width = world.getWidth();
+        int paddleY = world.getPaddle().y;
+        double ticks = 0;
+        traceBlock = -1;
+
+        for (int step = 0; step < MAX_TRACE_STEPS && ticks < MAX_TRACE_TICKS; step++) {
+            double span = Math.min(SEGMENT_TICKS, MAX_TRACE_TICKS - ticks);
+            double dx = movX * span;
+            double dy = movY * span;
+            sweep.clear(1.0);
+
+            // Bords de l'aire de jeu, et ligne de la raquette en bas
+            if (dx < 0) {
+                sweep.testPlane(x, dx, 0, true, WALL_LEFT);
+            } else if (dx > 0) {
+                sweep.testPlane(x + ballWidth, dx, width, true, WALL_RIGHT);
+            }
+            if (dy < 0) {
+                sweep.testPlane(y, dy, 0, false, WALL_TOP);
+            } else if (dy > 0) {
+                sweep.testPlane(y + ballHeight, dy, paddleY, false, PADDLE_LINE);
+            }
+
+            // Blocs restants dans le rectangle balayé par le segment
+            int sweptX = (int) Math.floor(Math.min(x, x + dx));
+            int sweptY = (int) Math.floor(Math.min(y, y + dy));
+            int sweptWidth = (int) Math.ceil(Math.max(x, x + dx) + ballWidth) - sweptX;
+            int sweptHeight = (int) Math.ceil(Math.max(y, y + dy) + ballHeight) - sweptY;
+            int count = query(grid, sweptX, sweptY, sweptWidth, sweptHeight);
+            for (int k = 0; k < count; k++) {
+                int block = candidates[k];
+                if (isAlive(blocks, block)) {
+                    sweep.test(x, y, ballWidth, ballHeight, dx, dy,
+                            blocks.getX(block), blocks.getY(block), blocks.getWidth(block), blocks.getHeight(block), block);
+                }
+            }
+
+            double time = sweep.getTime();
+            x += dx * time;
+            y += dy * time;
+            ticks += span * time;
+            if (!sweep.hasHit()) {
+                continue;
+            }
+
+            // Réfléchir la vitesse comme BallStepper
+            if (sweep.getNormalX() != 0) {
+                movX = Math.abs(movX) * sweep.getNormalX();
+            }
+            if (sweep.getNormalY() != 0) {
+                movY = Math.abs(movY) * sweep.getNormalY();
+            }
+
+            int target = sweep.getTarget();
+            if (target == PADDLE_LINE || (target >= 0 && stopAtBlock)) {
+                traceX = x;
+                traceY = y;
+                traceMovY = movY;
+                traceTicks = ticks;
+                traceBlock = target;
+                return true;
+            }
+            if (target >= 0 && predictedHitCount < MAX_PREDICTED_HITS) {
+                predictedHits[predictedHitCount++] = target;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie si un bloc sera encore là quand la balle l'atteindra, compte tenu
+     * des coups prévus sur la trajectoire
+     * @param blocks Les blocs
+     * @param block Indice du bloc
+     * @return boolean true si le bloc n'est pas détruit et n'a pas reçu assez de coups prévus
+     */
+    private boolean isAlive(BlockField blocks, int block) {
+        if (blocks.isDestroyed(block)) {
+            return false;
+        }
+        int hits = 0;
+        for (int i = 0; i < predictedHitCount; i++) {
+            if (predictedHits[i] == block) {
+                hits++;
+            }
+        }
+        return hits < blocks.getHitPoints(block);
+    }
+
+    /**
+     * Cherche les blocs d'un rectangle dans candidates, agrandi s'il est trop petit
+     * @param grid Grille des blocs
+     * @param x Abscisse du rectangle
+     * @param y Ordonnée du rectangle
+     * @param width Largeur du rectangle
+     * @param height Hauteur du rectangle
+     * @return int Le nombre de blocs trouvés
+     */
+    private int query(BlockGrid grid, int x, int y, int width, int height) {
+        int count;
+        while ((count = grid.query(x, y, width, height, candidates)) > candidates.length) {
+            candidates = new int[count];
+        }
+        return count;
+    }
+
+    /**
+     * Mesure la densité du groupe de blocs autour d'un bloc
+     * @param world Le moteur de jeu
+     * @param block Indice du bloc
+     * @return int Le nombre de coups nécessaires pour détruire les blocs du voisinage
+     */
+    private int density(GameWorld world, int block) {
+        BlockField blocks = world.getBlocks();
+        int centerX = blocks.getX(block) + blocks.getWidth(block) / 2;
+        int centerY = blocks.getY(block) + blocks.getHeight(block) / 2;
+        int count = query(world.getGrid(), centerX - CLUSTER_WIDTH / 2, centerY - CLUSTER_HEIGHT / 2,
+                CLUSTER_WIDTH, CLUSTER_HEIGHT);
+        int density = 0;
+        for (int k = 0; k < count; k++) {
+            if (isAlive(blocks, candidates[k])) {
+                density += blocks.getHitPoints(candidates[k]);
+            }
+        }
+        return density;
+    }
+
+    /**
+     * Calcule la vitesse horizontale d'une balle renvoyée par la raquette, comme BallStepper
+     * @param offset Écart entre le centre de la balle et celui de la raquette
+     * @return int La vitesse horizontale après le rebond
+     */
+    private static int bounce(int offset) {
+        int movX = offset / 10;
+        if (movX > -1 && movX < 1) {
+            movX = (movX >= 0) ? 1 : -1;
+        }
+        return Math.max(-MAX_BOUNCE_SPEED, Math.min(MAX_BOUNCE_SPEED, movX));
+    }
+
+    /**
+     * Borne la position du centre de la raquette à l'aire de jeu
+     * @param center Centre voulu
+     * @param paddleWidth Largeur de la raquette
+     * @param width Largeur de l'aire de jeu
+     * @return int Le centre atteignable le plus proche
+     */
+    private static int clampCenter(int center, int paddleWidth, int width) {
+        return Math.max(paddleWidth / 2, Math.min(width - paddleWidth / 2, center));
+    }
+}
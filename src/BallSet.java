@@ -0,0 +1,255 @@
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Ensemble des balles en jeu, rangées dans des tableaux de types primitifs
+ * (une colonne par propriété) plutôt qu'en objets séparés. Toutes les balles
+ * ont la même taille. Parcourir des milliers de balles reste ainsi rapide et
+ * les phases de collision peuvent se partager les indices entre plusieurs threads.
+ */
+public class BallSet {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int ballWidth;
+    private final int ballHeight;
+
+    // Position exacte, vitesse et position au pas précédent (interpolation)
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private int[] movX = new int[INITIAL_CAPACITY];
+    private int[] movY = new int[INITIAL_CAPACITY];
+    private int[] prevX = new int[INITIAL_CAPACITY];
+    private int[] prevY = new int[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * Constructeur de la classe BallSet
+     * @param ballWidth Largeur d'une balle
+     * @param ballHeight Hauteur d'une balle
+     */
+    public BallSet(int ballWidth, int ballHeight) {
+        this.ballWidth = ballWidth;
+        this.ballHeight = ballHeight;
+    }
+
+    /**
+     * Ajoute une balle
+     * @param x Position x
+     * @param y Position y
+     * @param movX Vitesse horizontale
+     * @param movY Vitesse verticale
+     * @return int L'indice de la balle
+     */
+    public int add(double x, double y, int movX, int movY) {
+        if (count == this.x.length) {
+            grow(count * 2);
+        }
+        this.x[count] = x;
+        this.y[count] = y;
+        this.movX[count] = movX;
+        this.movY[count] = movY;
+        this.prevX[count] = (int) Math.round(x);
+        this.prevY[count] = (int) Math.round(y);
+        return count++;
+    }
+
+    /**
+     * Agrandit les tableaux
+     * @param capacity Nouvelle capacité
+     */
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        movX = Arrays.copyOf(movX, capacity);
+        movY = Arrays.copyOf(movY, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+    }
+
+    /**
+     * Retire toutes les balles
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Retire les balles passées sous une ordonnée, en gardant l'ordre des autres
+     * @param limit Ordonnée limite
+     * @return int Le nombre de balles retirées
+     */
+    public int removeBelow(int limit) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (y[i] > limit) {
+                continue;
+            }
+            if (kept != i) {
+                x[kept] = x[i];
+                y[kept] = y[i];
+                movX[kept] = movX[i];
+                movY[kept] = movY[i];
+                prevX[kept] = prevX[i];
+                prevY[kept] = prevY[i];
+            }
+            kept++;
+        }
+        int removed = count - kept;
+        count = kept;
+        return removed;
+    }
+
+    /**
+     * Mémorise la position de toutes les balles avant un pas de simulation
+     */
+    public void savePositions() {
+        for (int i = 0; i < count; i++) {
+            prevX[i] = (int) Math.round(x[i]);
+            prevY[i] = (int) Math.round(y[i]);
+        }
+    }
+
+    /**
+     * Déplace une balle
+     * @param i Indice de la balle
+     * @param x Position x
+     * @param y Position y
+     */
+    public void setPosition(int i, double x, double y) {
+        this.x[i] = x;
+        this.y[i] = y;
+    }
+
+    /**
+     * Change la vitesse d'une balle
+     * @param i Indice de la balle
+     * @param movX Vitesse horizontale
+     * @param movY Vitesse verticale
+     */
+    public void setVelocity(int i, int movX, int movY) {
+        this.movX[i] = movX;
+        this.movY[i] = movY;
+    }
+
+    /**
+     * Calcule le rectangle qui englobe toutes les balles à leur position affichée
+     * @param alpha Facteur d'interpolation entre le pas précédent et le pas courant
+     * @param out Rectangle qui reçoit le résultat (vide s'il n'y a aucune balle)
+     */
+    public void getDrawBounds(double alpha, Rectangle out) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int drawX = getDrawX(i, alpha);
+            int drawY = getDrawY(i, alpha);
+            minX = Math.min(minX, drawX);
+            minY = Math.min(minY, drawY);
+            maxX = Math.max(maxX, drawX + ballWidth);
+            maxY = Math.max(maxY, drawY + ballHeight);
+        }
+        if (minX <= maxX) {
+            out.setBounds(minX, minY, maxX - minX, maxY - minY);
+        } else {
+            out.setBounds(0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Retourne le nombre de balles
+     * @return int Le nombre de balles
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Retourne la largeur d'une balle
+     * @return int La largeur
+     */
+    public int getWidth() {
+        return ballWidth;
+    }
+
+    /**
+     * Retourne la hauteur d'une balle
+     * @return int La hauteur
+     */
+    public int getHeight() {
+        return ballHeight;
+    }
+
+    /**
+     * Retourne la position x exacte d'une balle
+     * @param i Indice de la balle
+     * @return double La position x
+     */
+    public double getX(int i) {
+        return x[i];
+    }
+
+    /**
+     * Retourne la position y exacte d'une balle
+     * @param i Indice de la balle
+     * @return double La position y
+     */
+    public double getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Retourne la vitesse horizontale d'une balle
+     * @param i Indice de la balle
+     * @return int La vitesse horizontale
+     */
+    public int getMovX(int i) {
+        return movX[i];
+    }
+
+    /**
+     * Retourne la vitesse verticale d'une balle
+     * @param i Indice de la balle
+     * @return int La vitesse verticale
+     */
+    public int getMovY(int i) {
+        return movY[i];
+    }
+
+    /**
+     * Retourne la position x d'une balle au pas précédent
+     * @param i Indice de la balle
+     * @return int La position x, arrondie
+     */
+    public int getPrevX(int i) {
+        return prevX[i];
+    }
+
+    /**
+     * Retourne la position y d'une balle au pas précédent
+     * @param i Indice de la balle
+     * @return int La position y, arrondie
+     */
+    public int getPrevY(int i) {
+        return prevY[i];
+    }
+
+    /**
+     * Retourne la position x interpolée entre le pas précédent et le pas courant
+     * @param i Indice de la balle
+     * @param alpha Facteur d'interpolation
+     * @return int La position x à afficher
+     */
+    public int getDrawX(int i, double alpha) {
+        return (int) Math.round(prevX[i] + (x[i] - prevX[i]) * alpha);
+    }
+
+    /**
+     * Retourne la position y interpolée entre le pas précédent et le pas courant
+     * @param i Indice de la balle
+     * @param alpha Facteur d'interpolation
+     * @return int La position y à afficher
+     */
+    public int getDrawY(int i, double alpha) {
+        return (int) Math.round(prevY[i] + (y[i] - prevY[i]) * alpha);
+    }
+}
@@ -0,0 +1,276 @@
+import java.awt.Rectangle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Déplace toutes les balles d'un pas avec détection de collision continue.
+ *
+ * Le déplacement se fait sans modifier les blocs : chaque balle rebondit sur les
+ * blocs tels qu'ils étaient au début du pas et note les blocs touchés. Les balles
+ * sont donc indépendantes et, quand elles sont nombreuses, sont réparties par
+ * paquets entre les threads du ForkJoinPool commun. Les coups notés sont ensuite
+ * appliqués par GameWorld sur un seul thread, dans l'ordre des balles : le score,
+ * les blocs détruits et les power-ups ne dépendent pas du nombre de threads.
+ */
+public class BallStepper {
+
+    // Nombre maximum de contacts résolus pour une balle pendant un pas
+    public static final int MAX_CONTACTS_PER_STEP = 8;
+
+    // En dessous de ce nombre de balles, le déplacement se fait sur le thread appelant
+    private static final int PARALLEL_THRESHOLD = 256;
+    // Nombre de balles traitées par une tâche du ForkJoinPool
+    private static final int CHUNK_SIZE = 64;
+
+    // Identifiants des obstacles autres que les blocs (les blocs utilisent leur indice)
+    private static final int WALL_LEFT = -2;
+    private static final int WALL_RIGHT = -3;
+    private static final int WALL_TOP = -4;
+    private static final int PADDLE = -5;
+
+    /**
+     * Mémoire de travail d'un thread pendant le déplacement des balles
+     */
+    private static class Scratch {
+        final SweptCollision sweep = new SweptCollision();
+        // Agrandi quand une recherche trouve plus de blocs qu'il ne peut en contenir
+        int[] candidates = new int[256];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Déplace un paquet de balles, en le coupant en deux tant qu'il est trop gros
+     */
+    private class MoveTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        MoveTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                moveRange(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MoveTask(from, middle), new MoveTask(middle, to));
+            }
+        }
+    }
+
+    // Blocs touchés par chaque balle pendant le pas, dans l'ordre des contacts :
+    // les coups de la balle b sont dans hits[b * MAX_CONTACTS_PER_STEP ..]
+    private int[] hits = new int[0];
+    private int[] hitCounts = new int[0];
+    // Nombre de blocs testés par chaque balle pendant le pas (mesures du moteur)
+    private int[] testCounts = new int[0];
+
+    // État partagé par les tâches pendant un appel à move() (lecture seule)
+    private BallSet balls;
+    private BlockField blocks;
+    private BlockGrid grid;
+    private Rectangle paddle;
+    private int width;
+
+    /**
+     * Déplace toutes les balles d'un pas et note les blocs qu'elles touchent
+     * @param balls Les balles
+     * @param blocks Les blocs du niveau (non modifiés)
+     * @param grid L'index spatial des blocs (non modifié)
+     * @param paddle La raquette
+     * @param width Largeur de l'aire de jeu
+     */
+    public void move(BallSet balls, BlockField blocks, BlockGrid grid, Rectangle paddle, int width) {
+        int count = balls.size();
+        if (hitCounts.length < count) {
+            hitCounts = new int[Math.max(count, hitCounts.length * 2)];
+            hits = new int[hitCounts.length * MAX_CONTACTS_PER_STEP];
+            testCounts = new int[hitCounts.length];
+        }
+
+        this.balls = balls;
+        this.blocks = blocks;
+        this.grid = grid;
+        this.paddle = paddle;
+        this.width = width;
+
+        if (count < PARALLEL_THRESHOLD) {
+            moveRange(0, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(new MoveTask(0, count));
+        }
+    }
+
+    /**
+     * Retourne le nombre de blocs touchés par une balle pendant le dernier pas
+     * @param ball Indice de la balle
+     * @return int Le nombre de coups
+     */
+    public int getHitCount(int ball) {
+        return hitCounts[ball];
+    }
+
+    /**
+     * Retourne un bloc touché par une balle pendant le dernier pas
+     * @param ball Indice de la balle
+     * @param contact Rang du contact (0 = premier bloc touché)
+     * @return int L'indice du bloc
+     */
+    public int getHit(int ball, int contact) {
+        return hits[ball * MAX_CONTACTS_PER_STEP + contact];
+    }
+
+    /**
+     * Retourne le nombre de tests de collision entre une balle et un bloc
+     * pendant le dernier pas, toutes balles confondues
+     * @param ballCount Nombre de balles déplacées pendant le pas
+     * @return long Le nombre de tests
+     */
+    public long getTestCount(int ballCount) {
+        long total = 0;
+        for (int i = 0; i < ballCount; i++) {
+            total += testCounts[i];
+        }
+        return total;
+    }
+
+    /**
+     * Déplace les balles d'un intervalle d'indices
+     * @param from Premier indice (inclus)
+     * @param to Dernier indice (exclu)
+     */
+    private void moveRange(int from, int to) {
+        Scratch scratch = SCRATCH.get();
+        for (int i = from; i < to; i++) {
+            moveBall(i, scratch);
+        }
+    }
+
+    /**
+     * Déplace une balle de sa vitesse sur un pas. Le rectangle de la balle est
+     * balayé le long de son déplacement : le contact le plus précoce (mur, raquette
+     * ou bloc) est résolu en premier, la balle repart de ce point avec sa vitesse
+     * réfléchie selon la normale de la face touchée, et le reste du déplacement
+     * est traité de la même façon.
+     * @param i Indice de la balle
+     * @param scratch Mémoire de travail du thread courant
+     */
+    private void moveBall(int i, Scratch scratch) {
+        SweptCollision sweep = scratch.sweep;
+        double ballX = balls.getX(i);
+        double ballY = balls.getY(i);
+        int movX = balls.getMovX(i);
+        int movY = balls.getMovY(i);
+        int ballWidth = balls.getWidth();
+        int ballHeight = balls.getHeight();
+        int hitCount = 0;
+        int testCount = 0;
+
+        // La raquette s'est déplacée sur la balle : rebond comme pour un contact par le dessus
+        if (movY > 0 && paddle.intersects((int) Math.round(ballX), (int) Math.round(ballY), ballWidth, ballHeight)) {
+            movY = -movY;
+            movX = paddleBounce(ballX, ballWidth, paddle);
+        }
+
+        double remaining = 1.0;
+        for (int contact = 0; contact < MAX_CONTACTS_PER_STEP && remaining > 0; contact++) {
+            double dx = movX * remaining;
+            double dy = movY * remaining;
+            sweep.clear(1.0);
+
+            // Bords de l'aire de jeu (le bas reste ouvert)
+            if (dx < 0) {
+                sweep.testPlane(ballX, dx, 0, true, WALL_LEFT);
+            } else if (dx > 0) {
+                sweep.testPlane(ballX + ballWidth, dx, width, true, WALL_RIGHT);
+            }
+            if (dy < 0) {
+                sweep.testPlane(ballY, dy, 0, false, WALL_TOP);
+            }
+
+            sweep.test(ballX, ballY, ballWidth, ballHeight, dx, dy,
+                    paddle.x, paddle.y, paddle.width, paddle.height, PADDLE);
+
+            // Blocs situés dans le rectangle balayé par la balle pendant ce déplacement
+            int sweptX = (int) Math.floor(Math.min(ballX, ballX + dx));
+            int sweptY = (int) Math.floor(Math.min(ballY, ballY + dy));
+            int sweptWidth = (int) Math.ceil(Math.max(ballX, ballX + dx) + ballWidth) - sweptX;
+            int sweptHeight = (int) Math.ceil(Math.max(ballY, ballY + dy) + ballHeight) - sweptY;
+            int count;
+            while ((count = grid.query(sweptX, sweptY, sweptWidth, sweptHeight, scratch.candidates))
+                    > scratch.candidates.length) {
+                scratch.candidates = new int[count];
+            }
+            int[] candidates = scratch.candidates;
+            testCount += count;
+            for (int k = 0; k < count; k++) {
+                int block = candidates[k];
+                if (!blocks.isDestroyed(block)) {
+                    sweep.test(ballX, ballY, ballWidth, ballHeight, dx, dy,
+                            blocks.getX(block), blocks.getY(block), blocks.getWidth(block), blocks.getHeight(block), block);
+                }
+            }
+
+            // Avancer jusqu'au contact (ou jusqu'au bout du déplacement)
+            double time = sweep.getTime();
+            ballX += dx * time;
+            ballY += dy * time;
+            if (!sweep.hasHit()) {
+                break;
+            }
+            remaining *= 1 - time;
+
+            // Réfléchir la vitesse selon la normale de la face touchée
+            if (sweep.getNormalX() != 0) {
+                movX = Math.abs(movX) * sweep.getNormalX();
+            }
+            if (sweep.getNormalY() != 0) {
+                movY = Math.abs(movY) * sweep.getNormalY();
+            }
+
+            int target = sweep.getTarget();
+            if (target == PADDLE && sweep.getNormalY() < 0) {
+                movX = paddleBounce(ballX, ballWidth, paddle);
+            } else if (target >= 0) {
+                hits[i * MAX_CONTACTS_PER_STEP + hitCount++] = target;
+            }
+        }
+
+        balls.setPosition(i, ballX, ballY);
+        balls.setVelocity(i, movX, movY);
+        hitCounts[i] = hitCount;
+        testCounts[i] = testCount;
+    }
+
+    /**
+     * Calcule la vitesse horizontale d'une balle qui rebondit sur la raquette,
+     * selon l'endroit où elle la touche
+     * @param ballX Position x de la balle
+     * @param ballWidth Largeur de la balle
+     * @param paddle La raquette
+     * @return int La nouvelle vitesse horizontale
+     */
+    private static int paddleBounce(double ballX, int ballWidth, Rectangle paddle) {
+        // Centre de la raquette = rebond droit, côtés = rebond angulé
+        int paddleCenter = paddle.x + paddle.width/2;
+        int ballCenter = (int) Math.round(ballX) + ballWidth/2;
+        int offset = ballCenter - paddleCenter;
+
+        // Modifier la direction horizontale en fonction de l'offset
+        int movX = offset / 10;
+
+        // S'assurer que la balle a toujours une vitesse horizontale minimale
+        if (movX > -1 && movX < 1) {
+            movX = (movX >= 0) ? 1 : -1;
+        }
+
+        // Limiter la vitesse maximale
+        if (movX > 5) movX = 5;
+        if (movX < -5) movX = -5;
+        return movX;
+    }
+}
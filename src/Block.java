@@ -3,7 +3,6 @@ import java.awt.Component;
 import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Rectangle;
-import javax.swing.ImageIcon;
 
 /**
  * Classe qui représente un bloc, la balle ou la raquette
@@ -11,6 +10,8 @@ import javax.swing.ImageIcon;
 public class Block extends Rectangle {
 
 	private Image pic;
+	private String spriteName;
+	private Image scaledPic; // Image déjà à la taille du bloc, pour éviter une mise à l'échelle par image
 	boolean destroyed;
 	private int hitPoints; // Nombre de coups nécessaires pour détruire le bloc
 	private int blockValue; // Valeur en points du bloc
@@ -18,6 +19,7 @@ public class Block extends Rectangle {
 	private Color fallbackColor; // Couleur de secours si l'image ne se charge pas
 
 	int movX, movY;
+	int prevX, prevY; // Position au pas de simulation précédent (interpolation)
 
 	/**
 	 * Constructeur de la classe Block
@@ -28,8 +30,23 @@ public class Block extends Rectangle {
 	 * @param s Nom de l'image du bloc
 	 */
 	Block(int x, int y, int w, int h, String s) {
+		this(x, y, w, h, s, null);
+	}
+
+	/**
+	 * Constructeur de la classe Block
+	 * @param x Position x du bloc
+	 * @param y Position y du bloc
+	 * @param w Largeur du bloc
+	 * @param h Hauteur du bloc
+	 * @param s Nom de l'image du bloc
+	 * @param random Source de hasard de la partie pour le tirage du power-up (null : pas de power-up)
+	 */
+	Block(int x, int y, int w, int h, String s, GameRandom random) {
 		this.x = x;
 		this.y = y;
+		this.prevX = x;
+		this.prevY = y;
 
 		movX = 3;
 		movY = 3;
@@ -54,7 +71,7 @@ public class Block extends Rectangle {
 		}
 
 		// 20% de chance d'avoir un power-up
-		if (Math.random() < 0.2 && !s.equals("ball.png") && !s.equals("paddle.png")) {
+		if (random != null && random.chance(0.2) && !s.equals("ball.png") && !s.equals("paddle.png")) {
 			this.isPowerUp = true;
 		}
 
@@ -70,21 +87,12 @@ public class Block extends Rectangle {
 		else if (s.contains("fast")) this.fallbackColor = new Color(255, 100, 255);
 		else if (s.contains("life")) this.fallbackColor = new Color(255, 215, 0);
 
-		// Essayer de charger l'image de plusieurs façons
-		boolean imageLoaded = false;
-
-		// Utiliser directement ImageIcon qui est plus robuste pour trouver les images
-		ImageIcon icon = new ImageIcon(s);
-		if (icon.getIconWidth() > 0) {
-			pic = icon.getImage();
-			imageLoaded = true;
-			System.out.println("Image chargée avec succès: " + s);
-		} else {
-			System.err.println("Image non trouvée: " + s);
-		}
+		// Image partagée par tous les blocs du même nom (décodée une seule fois)
+		spriteName = s;
+		pic = SpriteCache.get(s);
 
-		if (!imageLoaded) {
-			// Stocker la couleur de secours pour l'utiliser dans la méthode draw
+		if (pic == null) {
+			// La couleur de secours sera utilisée dans la méthode draw
 			System.err.println("Impossible de charger l'image: " + s + " - Utilisation d'une couleur de secours");
 		}
 	}
@@ -95,28 +103,71 @@ public class Block extends Rectangle {
 	 * @param c Component
 	 */
 	public void draw(Graphics g, Component c) {
+		draw(g, c, 1.0);
+	}
+
+	/**
+	 * Dessine le bloc à une position interpolée entre le pas précédent et le pas courant
+	 * @param g Graphics
+	 * @param c Component
+	 * @param alpha Facteur d'interpolation (0 = position précédente, 1 = position courante)
+	 */
+	public void draw(Graphics g, Component c, double alpha) {
 		if (!destroyed) {
+			int drawX = getDrawX(alpha);
+			int drawY = getDrawY(alpha);
+
 			if (pic != null) {
-				// Dessiner l'image si elle est chargée
-				g.drawImage(pic, x, y, width, height, c);
+				// Dessiner l'image si elle est chargée (taille recalculée seulement si le bloc change de taille)
+				if (scaledPic == null || scaledPic.getWidth(null) != width || scaledPic.getHeight(null) != height) {
+					scaledPic = SpriteCache.getScaled(spriteName, width, height);
+				}
+				g.drawImage(scaledPic, drawX, drawY, c);
 			} else {
 				// Utiliser la couleur de secours si l'image n'est pas chargée
 				Color oldColor = g.getColor();
 				g.setColor(fallbackColor);
-				g.fillRect(x, y, width, height);
+				g.fillRect(drawX, drawY, width, height);
 				g.setColor(Color.BLACK);
-				g.drawRect(x, y, width, height);
+				g.drawRect(drawX, drawY, width, height);
 				g.setColor(oldColor);
 			}
 
 			// Si le bloc nécessite plusieurs coups, afficher le nombre de coups restants
 			if (hitPoints > 1 && !isPaddle() && !isBall()) {
-				g.setColor(Color.WHITE);
-				g.drawString(String.valueOf(hitPoints), x + width/2 - 5, y + height/2 + 5);
+				HitPointGlyphs.draw(g, hitPoints, drawX + width/2 - 5, drawY + height/2 + 5);
 			}
 		}
 	}
 
+	/**
+	 * Retourne la position x interpolée entre le pas précédent et le pas courant
+	 * @param alpha Facteur d'interpolation
+	 * @return int La position x à afficher
+	 */
+	public int getDrawX(double alpha) {
+		return (int) Math.round(prevX + (x - prevX) * alpha);
+	}
+
+	/**
+	 * Retourne la position y interpolée entre le pas précédent et le pas courant
+	 * @param alpha Facteur d'interpolation
+	 * @return int La position y à afficher
+	 */
+	public int getDrawY(double alpha) {
+		return (int) Math.round(prevY + (y - prevY) * alpha);
+	}
+
+	/**
+	 * Mémorise la position courante comme position précédente.
+	 * Appelé au début de chaque pas de simulation, ou après un déplacement
+	 * instantané pour éviter une interpolation parasite.
+	 */
+	public void savePosition() {
+		prevX = x;
+		prevY = y;
+	}
+
 	/**
 	 * Diminue le nombre de coups nécessaires pour détruire le bloc
 	 * @return boolean true si le bloc est détruit, false sinon
@@ -1,368 +1,653 @@
-import java.awt.Color;
-import java.awt.Font;
+import java.awt.BorderLayout;
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.HierarchyEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /**
- * Panneau principal du jeu qui gère la logique et l'affichage
+ * Panneau principal du jeu : affiche le GameWorld et lui transmet les entrées du joueur
  */
-public class BlockBreakerPanel extends JPanel implements KeyListener {
+public class BlockBreakerPanel extends JPanel implements KeyListener, GameLoop.Simulation, GameWorld.Listener {
 
-	private ArrayList<Block> blocks;
-	private Block ball;
-	private Block paddle;
-	private ArrayList<PowerUp> powerUps;
-	private Level currentLevel;
-	private GameStats stats;
+	private final GameWorld world;
+	private final GameStats stats;
+	private final HighScoreRepository highScores = HighScoreRepository.getDefault();
 
 	private JFrame mainFrame, startScreen;
 
-	private Thread thread;
-	private boolean paused;
-	private boolean gameStarted;
+	private GameLoop loop;
+	private volatile double renderAlpha = 1.0;
+	private volatile boolean paused;
+
+	// La boucle de jeu dort quand le jeu est caché, en pause ou inactif
+	private volatile boolean shown;
+	private volatile boolean iconified;
+	private volatile boolean idle;
+	private int idleTicks;
+	private final Object loopLock = new Object();
+	// Pas sans entrée, balle sur la raquette, avant que la boucle s'endorme
+	private static final int IDLE_TICKS = 2 * GameLoop.TICKS_PER_SECOND;
+
+	// Options de la partie (ligne de commande), transmises au moteur par reset()
+	// sur la boucle de jeu : graine imposée (null : une nouvelle graine par
+	// partie), pack de niveaux (null : la campagne), mode sans fin et chaos
+	private volatile Long fixedSeed;
+	private volatile LevelPack levelPack;
+	private volatile boolean endless;
+	private volatile int chaosBalls;
+
+	// Touches du joueur, lues à chaque pas de simulation
+	private final InputState input = new InputState();
+
+	// Mode démo : la partie se joue seule quand l'écran de démarrage reste inactif
+	private volatile boolean demo;
+	// Nouvelle partie demandée depuis l'EDT, préparée par la boucle au pas suivant
+	private volatile boolean resetRequested;
+	private final Autopilot autopilot = new Autopilot();
+	private String title;
+	private int demoScore;
+	private int demoStallTicks;
+	// Pas sans point marqué avant de recommencer la démo (balle prise dans une boucle)
+	private static final int DEMO_STALL_TICKS = 30 * GameLoop.TICKS_PER_SECOND;
+
+	private static final int MAX_FRAMES_PER_SECOND = 240;
+
+	// Enregistrement des parties (voir ReplayViewer)
+	private static final String REPLAY_DIRECTORY = "replays";
+	private static final int REPLAY_KEYFRAME_INTERVAL = 5 * GameLoop.TICKS_PER_SECOND;
+	private ReplayRecorder recorder;
+	// Partie à enregistrer avant la nouvelle partie demandée depuis l'EDT (ÉCHAP)
+	private volatile boolean saveRequested;
+	// Les replays terminés sont écrits hors de la boucle de jeu
+	private static final ExecutorService REPLAY_WRITER = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "Enregistrement des replays");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		// Terminer l'écriture des replays en attente avant l'arrêt du programme
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			REPLAY_WRITER.shutdown();
+			try {
+				REPLAY_WRITER.awaitTermination(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, "Arrêt de l'enregistrement des replays"));
+	}
 
-	private static final int BALL_SPEED_NORMAL = 3;
-	private static final int PADDLE_SPEED = 15;
+	// Taille du panneau notée par l'EDT (largeur << 32 | hauteur, -1 : aucune),
+	// appliquée au moteur par la boucle avant l'enregistrement du pas
+	private final AtomicLong pendingBounds = new AtomicLong(-1);
 
-	/**
-	 * Réinitialise le jeu pour une nouvelle partie ou un nouveau niveau
-	 */
-	void reset() {
-		blocks = new ArrayList<Block>();
-		powerUps = new ArrayList<PowerUp>();
-		ball = new Block(300, 435, 50, 45, "ball.png");
-		paddle = new Block(175, 480, 200, 40, "paddle.png");
-
-		// Charger le niveau actuel
-		currentLevel = new Level(stats.getCurrentLevel());
-		blocks = currentLevel.getBlocks();
-
-		// Vérifier si les blocs ont été correctement chargés
-		if (blocks.isEmpty()) {
-			System.out.println("ATTENTION: Aucun bloc n'a été chargé! Création manuelle des blocs...");
-			// Créer manuellement les blocs si le niveau n'a pas fonctionné
-			for (int i = 0; i < 8; i++)
-				blocks.add(new Block((i*60+2), 0, 60, 25, "blue.png"));
-			for (int i = 0; i < 8; i++)
-				blocks.add(new Block((i*60+2), 25, 60, 25, "green.png"));
-			for (int i = 0; i < 8; i++)
-				blocks.add(new Block((i*60+2), 50, 60, 25, "yellow.png"));
-			for (int i = 0; i < 8; i++)
-				blocks.add(new Block((i*60+2), 75, 60, 25, "red.png"));
-		}
-
-		System.out.println("Nombre de blocs chargés: " + blocks.size());
-
-		ball.movX = BALL_SPEED_NORMAL;
-		ball.movY = BALL_SPEED_NORMAL;
+	// Zone du score, des vies et du niveau
+	private static final Rectangle HUD_AREA = new Rectangle(0, 0, 200, 70);
 
-		paused = false;
-		gameStarted = false;
+	private final GameRenderer renderer;
 
-		addKeyListener(this);
-		setFocusable(true);
+	// Durée des pas, du rendu et tests de collision (F3, JMX)
+	private final EngineMetrics metrics = new EngineMetrics();
+
+	// Surface d'affichage actif (null en affichage passif par paintComponent)
+	private final GameCanvas canvas;
+
+	// Zones dessinées à l'image précédente, à effacer à l'image suivante
+	private final Rectangle lastBallArea = new Rectangle();
+	private final Rectangle ballArea = new Rectangle();
+	private final Rectangle lastPaddleArea = new Rectangle();
+	private final Rectangle lastPowerUpArea = new Rectangle();
+	private final Rectangle dirtyArea = new Rectangle();
+	private BlockField lastBlocks;
+	// Blocs touchés depuis l'image précédente, à redessiner une fois leur instantané publié
+	private final BitSet hitBlocks = new BitSet();
+	private long lastScroll = -1;
+	private boolean lastPaused;
+	private boolean lastLaunched;
+
+	/**
+	 * Constructeur du panneau de jeu, en affichage passif
+	 * @param frame Fenêtre principale du jeu
+	 * @param startScreen Écran de démarrage
+	 */
+	BlockBreakerPanel(JFrame frame, JFrame startScreen) {
+		this(frame, startScreen, false);
 	}
 
 	/**
 	 * Constructeur du panneau de jeu
 	 * @param frame Fenêtre principale du jeu
 	 * @param startScreen Écran de démarrage
+	 * @param activeRendering true pour dessiner sur un Canvas avec un thread de rendu dédié,
+	 *                        false pour l'affichage passif par repaint()
 	 */
-	BlockBreakerPanel(JFrame frame, JFrame startScreen) {
+	BlockBreakerPanel(JFrame frame, JFrame startScreen, boolean activeRendering) {
 		this.mainFrame = frame;
 		this.startScreen = startScreen;
 
-		// Initialiser les statistiques
+		// Initialiser les statistiques et le moteur de jeu
 		stats = new GameStats();
-
-		reset();
-
-		thread = new Thread(() -> {
-			while (true) {
-				if (!paused) {
-					update();
+		world = new GameWorld(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, stats);
+		world.setListener(this);
+		recorder = new ReplayRecorder(world, REPLAY_KEYFRAME_INTERVAL);
+		renderer = new GameRenderer(world);
+		renderer.setMetrics(metrics);
+		metrics.register();
+
+		// Un relâchement de touche n'arrive plus quand la fenêtre perd le focus
+		FocusAdapter focusListener = new FocusAdapter() {
+			@Override
+			public void focusLost(FocusEvent e) {
+				input.releaseAll();
+			}
+		};
+
+		// Un clic pendant la démo ramène à l'écran de démarrage
+		MouseAdapter mouseListener = new MouseAdapter() {
+			@Override
+			public void mousePressed(MouseEvent e) {
+				if (demo) {
+					stopDemo();
 				}
-				try {
-					Thread.sleep(10);
-				} catch (InterruptedException err) {
-					err.printStackTrace();
+			}
+		};
+
+		if (activeRendering) {
+			canvas = new GameCanvas(renderer);
+			canvas.addKeyListener(this);
+			canvas.addFocusListener(focusListener);
+			canvas.addMouseListener(mouseListener);
+			setLayout(new BorderLayout());
+			add(canvas, BorderLayout.CENTER);
+		} else {
+			canvas = null;
+		}
+
+		// L'aire de jeu suit la taille du panneau
+		addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentResized(ComponentEvent e) {
+				if (getWidth() > 0 && getHeight() > 0) {
+					pendingBounds.set((long) getWidth() << 32 | getHeight());
 				}
 			}
 		});
-		thread.start();
-	}
 
-	/**
-	 * Dessine tous les éléments du jeu
-	 */
-	public void paintComponent(Graphics g) {
-		super.paintComponent(g);
-
-		// Dessiner l'arrière-plan
-		g.setColor(new Color(0, 0, 30)); // Bleu foncé
-		g.fillRect(0, 0, getWidth(), getHeight());
-
-		// Dessiner les blocs avec information de débogage
-		g.setColor(Color.WHITE);
-		g.setFont(new Font("Arial", Font.PLAIN, 12));
-		g.drawString("Nombre de blocs: " + blocks.size(), 10, 80);
-
-		// Dessiner chaque bloc avec un contour visible
-		for (Block block : blocks) {
-			// Dessiner le bloc normalement
-			block.draw(g, this);
-
-			// Ajouter un contour visible pour le débogage
-			if (!block.destroyed && !block.isPaddle() && !block.isBall()) {
-				g.setColor(Color.WHITE);
-				g.drawRect(block.x, block.y, block.width, block.height);
+		// Endormir la boucle quand la fenêtre est cachée ou réduite
+		addHierarchyListener(e -> {
+			if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+				shown = isShowing();
+				updateLoop();
+			}
+		});
+		frame.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowIconified(WindowEvent e) {
+				iconified = true;
+				updateLoop();
 			}
-		}
 
-		// Dessiner les power-ups
-		powerUps.forEach(powerUp -> {
-			powerUp.draw(g, this);
+			@Override
+			public void windowDeiconified(WindowEvent e) {
+				iconified = false;
+				updateLoop();
+			}
 		});
 
-		// Dessiner la balle et la raquette
-		ball.draw(g, this);
-		paddle.draw(g, this);
+		addKeyListener(this);
+		addFocusListener(focusListener);
+		addMouseListener(mouseListener);
+		setFocusable(true);
 
-		// Afficher le score et les vies
-		g.setColor(Color.WHITE);
-		g.setFont(new Font("Arial", Font.BOLD, 16));
-		g.drawString("Score: " + stats.getScore(), 10, 20);
-		g.drawString("Vies: " + stats.getLives(), 10, 40);
-		g.drawString("Niveau: " + stats.getCurrentLevel(), 10, 60);
+		loop = new GameLoop(this, MAX_FRAMES_PER_SECOND);
+		loop.start();
+		updateLoop();
+	}
 
-		// Afficher un message si le jeu est en pause
-		if (paused) {
-			g.setFont(new Font("Arial", Font.BOLD, 30));
-			g.drawString("PAUSE", getWidth()/2 - 50, getHeight()/2);
-			g.setFont(new Font("Arial", Font.PLAIN, 16));
-			g.drawString("Appuyez sur P pour continuer", getWidth()/2 - 100, getHeight()/2 + 30);
+	/**
+	 * Réveille ou endort la boucle de jeu : elle ne tourne que si le jeu est
+	 * affiché, pas en pause et pas inactif (balle sur la raquette, aucune touche),
+	 * ou si une nouvelle partie attend d'être préparée
+	 */
+	private void updateLoop() {
+		// Appelé par l'EDT et par la boucle : la décision et l'action vont ensemble
+		synchronized (loopLock) {
+			if (resetRequested || (shown && !iconified && !paused && !idle)) {
+				loop.resume();
+			} else {
+				loop.pause();
+			}
 		}
+	}
 
-		// Afficher un message pour démarrer le jeu
-		if (!gameStarted) {
-			g.setFont(new Font("Arial", Font.BOLD, 20));
-			g.drawString("Appuyez sur ESPACE pour lancer la balle", getWidth()/2 - 180, getHeight()/2 + 100);
+	/**
+	 * Réinitialise le jeu pour une nouvelle partie
+	 */
+	void reset() {
+		paused = false;
+		idle = false;
+		idleTicks = 0;
+		demoScore = 0;
+		demoStallTicks = 0;
+		input.clear();
+		if (levelPack != null) {
+			world.setLevelPack(levelPack);
+		}
+		world.setEndless(endless);
+		world.setChaosBalls(chaosBalls);
+		Long fixedSeed = this.fixedSeed;
+		if (fixedSeed != null) {
+			world.newGame(fixedSeed);
+		} else {
+			world.newGame();
 		}
+		recorder = new ReplayRecorder(world, REPLAY_KEYFRAME_INTERVAL);
+		updateLoop();
 	}
 
 	/**
-	 * Met à jour l'état du jeu
+	 * Lance le mode démo : la fenêtre du jeu remplace l'écran de démarrage et le
+	 * pilote automatique joue une nouvelle partie, jusqu'à la première touche ou
+	 * au premier clic (EDT)
 	 */
-	public void update() {
-		// Ne pas mettre à jour si le jeu n'a pas commencé
-		if (!gameStarted) {
-			// La balle reste sur la raquette
-			ball.x = paddle.x + paddle.width/2 - ball.width/2;
-			ball.y = paddle.y - ball.height;
-			repaint();
+	void startDemo() {
+		if (demo) {
 			return;
 		}
+		demo = true;
+		requestReset();
+		title = mainFrame.getTitle();
+		mainFrame.setTitle(title + " - Démo (appuyez sur une touche)");
+		startScreen.setVisible(false);
+		mainFrame.setVisible(true);
+		requestFocusInWindow();
+	}
 
-		// Mettre à jour la position de la balle
-		ball.x += ball.movX;
-
-		// Rebondir sur les bords latéraux
-		if(ball.x > (getWidth() - ball.width) || ball.x < 0)
-			ball.movX *= -1;
+	/**
+	 * Quitte le mode démo et revient à l'écran de démarrage (EDT)
+	 */
+	private void stopDemo() {
+		demo = false;
+		requestReset();
+		mainFrame.setTitle(title);
+		mainFrame.setVisible(false);
+		startScreen.setVisible(true);
+	}
 
-		// Rebondir sur le haut ou sur la raquette
-		if(ball.y < 0)
-			ball.movY *= -1;
+	/**
+	 * Demande une nouvelle partie depuis l'EDT. Le moteur n'est modifié que par
+	 * la boucle de jeu : la partie est recommencée au début du pas suivant, jamais
+	 * pendant un pas en cours.
+	 */
+	private void requestReset() {
+		resetRequested = true;
+		// La boucle endormie (inactivité, pause, fenêtre cachée) doit se réveiller
+		// pour s'en charger ; reset() la rendort si besoin
+		updateLoop();
+	}
 
-		// Rebondir sur la raquette avec un angle différent selon l'endroit où la balle touche
-		if (ball.intersects(paddle)) {
-			ball.movY *= -1;
+	/**
+	 * Impose la graine de toutes les parties : la même graine et les mêmes
+	 * entrées donnent la même partie. La partie est recommencée par la boucle de jeu.
+	 * @param seed La graine
+	 */
+	void setSeed(long seed) {
+		fixedSeed = seed;
+		requestReset();
+	}
 
-			// Calculer l'angle de rebond en fonction de l'endroit où la balle touche la raquette
-			// Centre de la raquette = rebond droit, côtés = rebond angulé
-			int paddleCenter = paddle.x + paddle.width/2;
-			int ballCenter = ball.x + ball.width/2;
-			int offset = ballCenter - paddleCenter;
+	/**
+	 * Change les niveaux de la campagne ; la partie est recommencée par la boucle de jeu
+	 * @param pack Les niveaux
+	 */
+	void setLevelPack(LevelPack pack) {
+		levelPack = pack;
+		requestReset();
+	}
 
-			// Modifier la direction horizontale en fonction de l'offset
-			ball.movX = offset / 10;
+	/**
+	 * Active le mode sans fin ; la partie est recommencée par la boucle de jeu
+	 * @param endless true pour le mode sans fin, false pour la campagne
+	 */
+	void setEndless(boolean endless) {
+		this.endless = endless;
+		requestReset();
+	}
 
-			// S'assurer que la balle a toujours une vitesse horizontale minimale
-			if (ball.movX > -1 && ball.movX < 1) {
-				ball.movX = (ball.movX >= 0) ? 1 : -1;
+	/**
+	 * Termine l'enregistrement de la partie en cours (boucle de jeu) et l'écrit
+	 * en arrière-plan dans le dossier des replays
+	 */
+	private void saveReplay() {
+		ReplayRecorder finished = recorder;
+		if (finished.getRecordedTicks() == 0) {
+			return;
+		}
+		finished.finish(world);
+		String name = "replay-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".bbr";
+		File file = new File(REPLAY_DIRECTORY, name);
+		REPLAY_WRITER.execute(() -> {
+			try {
+				finished.save(file);
+				System.out.println("Partie enregistrée: " + file.getPath());
+			} catch (IOException e) {
+				System.err.println("Erreur lors de l'enregistrement de la partie: " + e.getMessage());
 			}
+		});
+	}
 
-			// Limiter la vitesse maximale
-			if (ball.movX > 5) ball.movX = 5;
-			if (ball.movX < -5) ball.movX = -5;
-		}
+	/**
+	 * Active le mode chaos (un grand nombre de balles à chaque lancement) ; la
+	 * partie est recommencée par la boucle de jeu
+	 * @param count Nombre de balles par lancement (0 pour le jeu normal)
+	 */
+	void setChaosBalls(int count) {
+		chaosBalls = count;
+		requestReset();
+	}
 
-		ball.y += ball.movY;
+	/**
+	 * Avance la simulation d'un pas fixe (appelé par la boucle de jeu)
+	 */
+	@Override
+	public void tick() {
+		long bounds = pendingBounds.getAndSet(-1);
+		if (bounds >= 0) {
+			world.setBounds((int) (bounds >>> 32), (int) bounds);
+		}
+		if (resetRequested) {
+			resetRequested = false;
+			if (saveRequested) {
+				saveRequested = false;
+				saveReplay();
+			}
+			reset();
+		}
+		if (!paused) {
+			// En démo, le pilote automatique joue et la partie n'est pas enregistrée
+			boolean demoTick = demo;
+			int inputs = demoTick ? autopilot.nextInputs(world) : input.sample();
+			if (!demoTick) {
+				recorder.record(world, inputs);
+			}
+			EngineEvents.Tick event = new EngineEvents.Tick();
+			event.begin();
+			long start = System.nanoTime();
+			world.step(inputs);
+			metrics.recordTick(System.nanoTime() - start, world.getCollisionTests());
+			if (event.shouldCommit()) {
+				event.tick = world.getTick();
+				event.balls = world.getBalls().size();
+				event.liveBricks = world.getBlocks().liveCount();
+				event.collisionTests = world.getCollisionTests();
+				event.commit();
+			}
 
-		// Si la balle tombe en bas de l'écran
-		if(ball.y > getHeight()) {
-			stats.loseLife();
+			if (demoTick) {
+				// Plus aucun point depuis longtemps : recommencer une partie
+				if (stats.getScore() != demoScore) {
+					demoScore = stats.getScore();
+					demoStallTicks = 0;
+				} else if (++demoStallTicks >= DEMO_STALL_TICKS) {
+					reset();
+				}
+				return;
+			}
 
-			if (stats.isGameOver()) {
-				// Fin de partie
-				showGameOver();
+			// Balle sur la raquette et aucune touche depuis un moment : s'endormir
+			// jusqu'à la prochaine touche
+			if (inputs == 0 && !world.isBallLaunched()) {
+				if (++idleTicks >= IDLE_TICKS) {
+					idleTicks = 0;
+					idle = true;
+					// Une touche arrivée entre-temps annule la mise en sommeil
+					if (input.isPending()) {
+						idle = false;
+					}
+					updateLoop();
+				}
 			} else {
-				// Réinitialiser la position de la balle et de la raquette
-				ball.x = 300;
-				ball.y = 435;
-				paddle.x = 175;
-				paddle.y = 480;
-				gameStarted = false;
+				idleTicks = 0;
 			}
 		}
+	}
 
-		// Mettre à jour les power-ups et vérifier les collisions
-		Iterator<PowerUp> powerUpIterator = powerUps.iterator();
-		while (powerUpIterator.hasNext()) {
-			PowerUp powerUp = powerUpIterator.next();
-			powerUp.update();
+	/**
+	 * Demande l'affichage d'une image (appelé par la boucle de jeu)
+	 * @param alpha Facteur d'interpolation entre le pas précédent et le pas courant
+	 */
+	@Override
+	public void render(double alpha) {
+		// En pause, la simulation est figée : on affiche l'état courant
+		renderAlpha = paused ? 1.0 : alpha;
+		alpha = renderAlpha;
+
+		// Affichage actif : le thread de rendu dessine l'image complète
+		if (canvas != null) {
+			canvas.requestFrame(alpha, paused);
+			return;
+		}
 
-			// Vérifier si le power-up est collecté par la raquette
-			if (powerUp.intersects(paddle) && !powerUp.isCollected()) {
-				powerUp.collect();
-				applyPowerUp(powerUp.getType());
-				powerUpIterator.remove();
-			}
+		// Les messages et le niveau couvrent tout le panneau : tout redessiner
+		if (paused != lastPaused || world.isBallLaunched() != lastLaunched || world.getBlocks() != lastBlocks) {
+			lastPaused = paused;
+			lastLaunched = world.isBallLaunched();
+			lastBlocks = world.getBlocks();
+			hitBlocks.clear();
+			repaint();
+			return;
+		}
 
-			// Supprimer les power-ups qui sortent de l'écran
-			if (powerUp.y > getHeight()) {
-				powerUpIterator.remove();
+		// Cellules des blocs touchés (l'instantané qui les contient est déjà publié)
+		if (!hitBlocks.isEmpty()) {
+			BlockField blocks = world.getBlocks();
+			for (int block = hitBlocks.nextSetBit(0); block >= 0; block = hitBlocks.nextSetBit(block + 1)) {
+				if (block < blocks.size()) {
+					repaint(blocks.getX(block), blocks.getY(block), blocks.getWidth(block), blocks.getHeight(block));
+				}
 			}
+			hitBlocks.clear();
 		}
 
-		// Vérifier les collisions avec les blocs
-		Iterator<Block> blockIterator = blocks.iterator();
-		while (blockIterator.hasNext()) {
-			Block block = blockIterator.next();
-			if (ball.intersects(block) && !block.destroyed) {
-				// Changer la direction de la balle
-				ball.movY *= -1;
+		// Mode sans fin : redessiner le champ de blocs quand il descend
+		EndlessField field = world.getEndlessField();
+		if (field != null && field.getScroll() != lastScroll) {
+			lastScroll = field.getScroll();
+			repaint(0, 0, getWidth(), EndlessField.DANGER_Y + 1);
+		}
 
-				// Diminuer les points de vie du bloc
-				if (block.hit()) {
-					// Le bloc est détruit
-					stats.addScore(block.getBlockValue());
+		// Sinon, ne redessiner que ce qui bouge : balles, raquette, power-ups et textes
+		world.getBalls().getDrawBounds(alpha, ballArea);
+		repaintSprite(lastBallArea, ballArea.x, ballArea.y, ballArea.width, ballArea.height);
+		Block paddle = world.getPaddle();
+		repaintSprite(lastPaddleArea, paddle.getDrawX(alpha), paddle.getDrawY(alpha), paddle.width, paddle.height);
+
+		// Rectangle englobant tous les power-ups, avant et après leur déplacement
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		PowerUpPool powerUps = world.getPowerUps();
+		for (int i = 0; i < powerUps.size(); i++) {
+			PowerUp powerUp = powerUps.get(i);
+			int y = powerUp.getDrawY(alpha);
+			minX = Math.min(minX, powerUp.x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, powerUp.x + powerUp.width);
+			maxY = Math.max(maxY, y + powerUp.height);
+		}
+		if (!lastPowerUpArea.isEmpty()) {
+			repaint(lastPowerUpArea);
+		}
+		if (minX <= maxX) {
+			lastPowerUpArea.setBounds(minX, minY, maxX - minX, maxY - minY);
+			repaint(lastPowerUpArea);
+		} else {
+			lastPowerUpArea.setBounds(0, 0, 0, 0);
+		}
 
-					// Vérifier si le bloc contient un power-up
-					if (block.hasPowerUp()) {
-						powerUps.add(new PowerUp(block.x + block.width/2, block.y,
-								(int)(Math.random() * 5) + 1)); // Type aléatoire
-					}
+		repaint(HUD_AREA);
+		if (renderer.isMetricsVisible()) {
+			int width = getWidth();
+			repaint(width - MetricsOverlay.WIDTH - MetricsOverlay.MARGIN, MetricsOverlay.MARGIN,
+					MetricsOverlay.WIDTH, MetricsOverlay.HEIGHT);
+		}
+	}
 
-					// Mettre à jour le nombre de blocs restants
-					currentLevel.blockDestroyed();
-
-					// Vérifier si le niveau est terminé
-					if (currentLevel.isCompleted()) {
-						stats.setLevelCompleted(true);
-
-						// Vérifier si c'est le dernier niveau
-						if (stats.getCurrentLevel() >= 3) {
-							// Victoire finale
-							showVictory();
-						} else {
-							// Passer au niveau suivant
-							JOptionPane.showMessageDialog(this,
-									"Niveau " + stats.getCurrentLevel() + " terminé !\n" +
-									"Score actuel : " + stats.getScore() + "\n" +
-									"Passez au niveau suivant !");
-							stats.nextLevel();
-							reset();
-						}
-					}
-				}
-			}
+	/**
+	 * Demande de redessiner l'ancienne et la nouvelle position d'un élément mobile
+	 * @param lastArea Zone dessinée à l'image précédente (mise à jour)
+	 * @param x Nouvelle position x
+	 * @param y Nouvelle position y
+	 * @param width Largeur
+	 * @param height Hauteur
+	 */
+	private void repaintSprite(Rectangle lastArea, int x, int y, int width, int height) {
+		dirtyArea.setBounds(lastArea);
+		lastArea.setBounds(x, y, width, height);
+		dirtyArea.add(lastArea);
+		repaint(dirtyArea);
+	}
+
+	/**
+	 * Dessine tous les éléments du jeu (affichage passif)
+	 */
+	public void paintComponent(Graphics g) {
+		if (canvas == null) {
+			renderer.render(g, this, getWidth(), getHeight(), renderAlpha, paused);
+		} else {
+			super.paintComponent(g);
+		}
+	}
+
+	/**
+	 * Note la cellule d'un bloc touché, redessinée à la prochaine image (appelé par le moteur de jeu)
+	 * @param block Indice du bloc
+	 */
+	@Override
+	public void blockHit(int block) {
+		if (canvas == null) {
+			hitBlocks.set(block);
 		}
+	}
 
-		repaint();
+	/**
+	 * Affiche le message de fin de niveau avant le passage au niveau suivant
+	 * @param level Numéro du niveau terminé
+	 * @param score Score actuel
+	 */
+	@Override
+	public void levelCompleted(int level, int score) {
+		if (demo) {
+			return;
+		}
+		JOptionPane.showMessageDialog(this,
+				"Niveau " + level + " terminé !\n" +
+				"Score actuel : " + score + "\n" +
+				"Passez au niveau suivant !");
 	}
 
 	/**
-	 * Applique l'effet d'un power-up
-	 * @param type Type de power-up
+	 * Enregistre la partie terminée dans les meilleurs scores et le classement
+	 * @return boolean true si c'est un nouveau record
 	 */
-	private void applyPowerUp(int type) {
-		switch (type) {
-			case PowerUp.TYPE_EXPAND_PADDLE:
-				paddle.resizePaddle(1.5);
-				break;
-			case PowerUp.TYPE_SHRINK_PADDLE:
-				paddle.resizePaddle(0.75);
-				break;
-			case PowerUp.TYPE_SLOW_BALL:
-				ball.movX = (ball.movX > 0) ? 2 : -2;
-				ball.movY = (ball.movY > 0) ? 2 : -2;
-				break;
-			case PowerUp.TYPE_FAST_BALL:
-				ball.movX = (ball.movX > 0) ? 5 : -5;
-				ball.movY = (ball.movY > 0) ? 5 : -5;
-				break;
-			case PowerUp.TYPE_EXTRA_LIFE:
-				stats.addLife();
-				break;
+	private boolean submitScore() {
+		return highScores.submit(System.getProperty("user.name", "Joueur"), stats.getScore(),
+				stats.getCurrentLevel(), stats.getSeed());
+	}
+
+	/**
+	 * Retourne le rang de la partie parmi toutes les parties jouées, à afficher
+	 * @return String La ligne du rang, vide s'il n'y a pas de classement
+	 */
+	private String rankText() {
+		Leaderboard leaderboard = highScores.getLeaderboard();
+		if (leaderboard == null) {
+			return "";
 		}
+		return "\nClassement : " + leaderboard.getRank(stats.getScore()) + " sur " + (leaderboard.size() + 1);
 	}
 
 	/**
 	 * Affiche l'écran de fin de partie
 	 */
-	private void showGameOver() {
-		thread = null;
-
-		// Sauvegarder le score
-		if (stats.isNewHighScore()) {
-			stats.saveHighScores();
-			JOptionPane.showMessageDialog(this,
-					"Game Over!\nNouveau record : " + stats.getScore() + " points!");
-		} else {
-			JOptionPane.showMessageDialog(this,
-					"Game Over!\nScore final : " + stats.getScore() + " points");
+	@Override
+	public void gameOver() {
+		// La démo enchaîne les parties, sans score ni replay
+		if (demo) {
+			reset();
+			return;
 		}
+		saveReplay();
 
-		// Réinitialiser les statistiques
-		stats.reset();
+		// Enregistrer le score (le fichier est écrit en arrière-plan)
+		String rank = rankText();
+		String message = submitScore()
+				? "Game Over!\nNouveau record : " + stats.getScore() + " points!" + rank
+				: "Game Over!\nScore final : " + stats.getScore() + " points" + rank;
 
-		// Revenir à l'écran de démarrage
-		mainFrame.setVisible(false);
-		startScreen.setVisible(true);
+		// Préparer une nouvelle partie, puis afficher le score sur l'EDT
+		reset();
+		showEndScreen(message);
 	}
 
 	/**
 	 * Affiche l'écran de victoire
 	 */
-	private void showVictory() {
-		thread = null;
-
-		// Sauvegarder le score
-		if (stats.isNewHighScore()) {
-			stats.saveHighScores();
-			JOptionPane.showMessageDialog(this,
-					"Félicitations! Vous avez terminé le jeu!\n" +
-					"Nouveau record : " + stats.getScore() + " points!");
-		} else {
-			JOptionPane.showMessageDialog(this,
-					"Félicitations! Vous avez terminé le jeu!\n" +
-					"Score final : " + stats.getScore() + " points");
+	@Override
+	public void victory() {
+		if (demo) {
+			reset();
+			return;
 		}
+		saveReplay();
 
-		// Réinitialiser les statistiques
-		stats.reset();
+		// Enregistrer le score (le fichier est écrit en arrière-plan)
+		String rank = rankText();
+		String message = submitScore()
+				? "Félicitations! Vous avez terminé le jeu!\n"
+						+ "Nouveau record : " + stats.getScore() + " points!" + rank
+				: "Félicitations! Vous avez terminé le jeu!\n"
+						+ "Score final : " + stats.getScore() + " points" + rank;
 
-		// Revenir à l'écran de démarrage
-		mainFrame.setVisible(false);
-		startScreen.setVisible(true);
+		// Préparer une nouvelle partie, puis afficher le score sur l'EDT
+		reset();
+		showEndScreen(message);
+	}
+
+	/**
+	 * Affiche le message de fin de partie puis revient à l'écran de démarrage.
+	 * Appelé par la boucle de jeu : la fenêtre est ouverte par l'EDT, sans
+	 * bloquer la simulation.
+	 * @param message Le message à afficher
+	 */
+	private void showEndScreen(String message) {
+		SwingUtilities.invokeLater(() -> {
+			JOptionPane.showMessageDialog(this, message);
+			mainFrame.setVisible(false);
+			startScreen.setVisible(true);
+		});
 	}
 
 	@Override
@@ -372,23 +657,44 @@ public class BlockBreakerPanel extends JPanel implements KeyListener {
 
 	@Override
 	public void keyPressed(KeyEvent e) {
-		// Déplacer la raquette
-		if (e.getKeyCode() == KeyEvent.VK_RIGHT && paddle.x < (getWidth() - paddle.width)) {
-			paddle.x += PADDLE_SPEED;
+		// Toute touche arrête la démo
+		if (demo) {
+			stopDemo();
+			return;
+		}
+
+		// Déplacer la raquette tant que la flèche est enfoncée (les répétitions
+		// automatiques du clavier ne changent rien)
+		if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
+			input.press(GameWorld.INPUT_RIGHT);
 		}
 
-		if (e.getKeyCode() == KeyEvent.VK_LEFT && paddle.x > 0) {
-			paddle.x -= PADDLE_SPEED;
+		if (e.getKeyCode() == KeyEvent.VK_LEFT) {
+			input.press(GameWorld.INPUT_LEFT);
 		}
 
 		// Lancer la balle
-		if (e.getKeyCode() == KeyEvent.VK_SPACE && !gameStarted) {
-			gameStarted = true;
+		if (e.getKeyCode() == KeyEvent.VK_SPACE) {
+			input.tap(GameWorld.INPUT_LAUNCH);
+		}
+
+		// Toute touche réveille la boucle endormie par l'inactivité (après avoir
+		// noté l'entrée, que le prochain pas trouvera)
+		if (idle) {
+			idle = false;
+			updateLoop();
 		}
 
 		// Mettre le jeu en pause
 		if (e.getKeyCode() == KeyEvent.VK_P) {
 			paused = !paused;
+			updateLoop();
+		}
+
+		// Afficher ou cacher les mesures du moteur
+		if (e.getKeyCode() == KeyEvent.VK_F3) {
+			renderer.setMetricsVisible(!renderer.isMetricsVisible());
+			repaint();
 		}
 
 		// Quitter le jeu
@@ -399,16 +705,24 @@ public class BlockBreakerPanel extends JPanel implements KeyListener {
 					JOptionPane.YES_NO_OPTION);
 
 			if (response == JOptionPane.YES_OPTION) {
+				// La boucle termine l'enregistrement avant de recommencer la partie
+				saveRequested = true;
+				requestReset();
 				mainFrame.setVisible(false);
 				startScreen.setVisible(true);
-				stats.reset();
-				reset();
 			}
 		}
 	}
 
 	@Override
 	public void keyReleased(KeyEvent e) {
-		// Non utilisé
+		// Arrêter la raquette
+		if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
+			input.release(GameWorld.INPUT_RIGHT);
+		}
+
+		if (e.getKeyCode() == KeyEvent.VK_LEFT) {
+			input.release(GameWorld.INPUT_LEFT);
+		}
 	}
 }
@@ -0,0 +1,344 @@
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Ensemble des blocs d'un niveau, rangé en tableaux de types primitifs
+ * (une colonne par attribut) plutôt qu'en un objet par bloc.
+ * Les blocs détruits sont marqués dans un BitSet et retirés de la liste
+ * compacte des blocs vivants, qui sert aux parcours de collision et d'affichage.
+ */
+public class BlockField {
+
+    // Types de blocs
+    public static final int TYPE_BLUE = 0;
+    public static final int TYPE_GREEN = 1;
+    public static final int TYPE_YELLOW = 2;
+    public static final int TYPE_RED = 3;
+
+    // Caractéristiques de chaque type, indexées par type
+    public static final String[] SPRITES = { "blue.png", "green.png", "yellow.png", "red.png" };
+    public static final Color[] FALLBACK_COLORS = { Color.BLUE, Color.GREEN, Color.YELLOW, Color.RED };
+    private static final short[] VALUES = { 10, 20, 30, 40 };
+
+    private int size;
+    private int[] x;
+    private int[] y;
+    private short[] width;
+    private short[] height;
+    private short[] hitPoints;
+    private short[] value;
+    private short[] type;
+    private final BitSet destroyed;
+    private final BitSet powerUps;
+
+    // Indices des blocs vivants, dans l'ordre d'ajout
+    private int[] live;
+    // Position de chaque bloc dans live (une entrée plus ancienne du même bloc est périmée)
+    private int[] livePos;
+    private int liveCount;
+    private boolean compactPending;
+
+    /**
+     * Constructeur de la classe BlockField
+     * @param capacity Nombre de blocs prévu (le tableau s'agrandit si nécessaire)
+     */
+    public BlockField(int capacity) {
+        capacity = Math.max(capacity, 8);
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.width = new short[capacity];
+        this.height = new short[capacity];
+        this.hitPoints = new short[capacity];
+        this.value = new short[capacity];
+        this.type = new short[capacity];
+        this.live = new int[capacity];
+        this.livePos = new int[capacity];
+        this.destroyed = new BitSet(capacity);
+        this.powerUps = new BitSet(capacity);
+    }
+
+    /**
+     * Retourne le type de bloc correspondant à un nom d'image
+     * @param spriteName Nom de l'image ("blue.png", "green.png", ...)
+     * @return int Le type de bloc
+     */
+    public static int typeOf(String spriteName) {
+        for (int t = 0; t < SPRITES.length; t++) {
+            if (SPRITES[t].equals(spriteName)) {
+                return t;
+            }
+        }
+        throw new IllegalArgumentException("Type de bloc inconnu: " + spriteName);
+    }
+
+    /**
+     * Ajoute un bloc
+     * @param x Position x du bloc
+     * @param y Position y du bloc
+     * @param w Largeur du bloc
+     * @param h Hauteur du bloc
+     * @param type Type du bloc (TYPE_*)
+     * @param hitPoints Nombre de coups nécessaires pour détruire le bloc
+     * @param powerUp true si le bloc contient un power-up
+     * @return int L'indice du bloc ajouté
+     */
+    public int add(int x, int y, int w, int h, int type, int hitPoints, boolean powerUp) {
+        if (size == this.x.length) {
+            grow();
+        }
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.width[i] = (short) w;
+        this.height[i] = (short) h;
+        this.type[i] = (short) type;
+        this.hitPoints[i] = (short) hitPoints;
+        this.value[i] = VALUES[type];
+        if (powerUp) {
+            powerUps.set(i);
+        }
+        if (liveCount == live.length) {
+            live = Arrays.copyOf(live, live.length * 2);
+        }
+        livePos[i] = liveCount;
+        live[liveCount++] = i;
+        return i;
+    }
+
+    /**
+     * Réutilise l'emplacement d'un bloc détruit pour un nouveau bloc (champ de
+     * blocs de taille fixe, voir EndlessField). Le bloc est ajouté à la fin de la
+     * liste des blocs vivants ; son ancienne entrée n'en est retirée qu'au prochain
+     * compact(), à appeler une fois après une série de réutilisations.
+     * @param i Indice d'un bloc détruit
+     * @param x Position x du bloc
+     * @param y Position y du bloc
+     * @param w Largeur du bloc
+     * @param h Hauteur du bloc
+     * @param type Type du bloc (TYPE_*)
+     * @param hitPoints Nombre de coups nécessaires pour détruire le bloc
+     * @param powerUp true si le bloc contient un power-up
+     */
+    public void set(int i, int x, int y, int w, int h, int type, int hitPoints, boolean powerUp) {
+        if (!destroyed.get(i)) {
+            throw new IllegalStateException("Le bloc " + i + " est encore en jeu");
+        }
+        this.x[i] = x;
+        this.y[i] = y;
+        this.width[i] = (short) w;
+        this.height[i] = (short) h;
+        this.type[i] = (short) type;
+        this.hitPoints[i] = (short) hitPoints;
+        this.value[i] = VALUES[type];
+        destroyed.clear(i);
+        powerUps.set(i, powerUp);
+        // L'entrée du bloc détruit peut être encore dans la liste : la nouvelle
+        // entrée est la seule retenue par compact()
+        if (liveCount == live.length) {
+            live = Arrays.copyOf(live, live.length * 2);
+        }
+        livePos[i] = liveCount;
+        live[liveCount++] = i;
+        compactPending = true;
+    }
+
+    /**
+     * Retire un bloc sans le toucher (aucun point n'est marqué)
+     * @param i Indice du bloc
+     */
+    public void remove(int i) {
+        destroyed.set(i);
+        compactPending = true;
+    }
+
+    /**
+     * Déplace verticalement tous les blocs, y compris les blocs détruits
+     * @param dy Déplacement vers le bas
+     */
+    public void translateY(int dy) {
+        for (int i = 0; i < size; i++) {
+            y[i] += dy;
+        }
+    }
+
+    /**
+     * Agrandit les tableaux pour accueillir plus de blocs
+     */
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        hitPoints = Arrays.copyOf(hitPoints, capacity);
+        value = Arrays.copyOf(value, capacity);
+        type = Arrays.copyOf(type, capacity);
+        live = Arrays.copyOf(live, Math.max(live.length, capacity));
+        livePos = Arrays.copyOf(livePos, capacity);
+    }
+
+    /**
+     * Diminue le nombre de coups nécessaires pour détruire un bloc
+     * @param i Indice du bloc
+     * @return boolean true si le bloc est détruit, false sinon
+     */
+    public boolean hit(int i) {
+        hitPoints[i]--;
+        if (hitPoints[i] <= 0) {
+            destroyed.set(i);
+            compactPending = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retire les blocs détruits de la liste des blocs vivants, en conservant l'ordre.
+     * Appelé une fois par pas de simulation plutôt qu'à chaque destruction.
+     */
+    public void compact() {
+        if (!compactPending) {
+            return;
+        }
+        int kept = 0;
+        for (int k = 0; k < liveCount; k++) {
+            int i = live[k];
+            if (!destroyed.get(i) && livePos[i] == k) {
+                livePos[i] = kept;
+                live[kept++] = i;
+            }
+        }
+        liveCount = kept;
+        compactPending = false;
+    }
+
+    /**
+     * Vérifie si un bloc recouvre un rectangle
+     * @param i Indice du bloc
+     * @param rx Position x du rectangle
+     * @param ry Position y du rectangle
+     * @param rw Largeur du rectangle
+     * @param rh Hauteur du rectangle
+     * @return boolean true si le bloc et le rectangle se recouvrent
+     */
+    public boolean intersects(int i, int rx, int ry, int rw, int rh) {
+        return rx < x[i] + width[i] && x[i] < rx + rw
+                && ry < y[i] + height[i] && y[i] < ry + rh;
+    }
+
+    /**
+     * Retourne le nombre total de blocs (y compris les blocs détruits)
+     * @return int Le nombre de blocs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne le nombre de blocs dans la liste des blocs vivants
+     * @return int Le nombre de blocs vivants
+     */
+    public int liveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Retourne l'indice du k-ième bloc vivant
+     * @param k Position dans la liste des blocs vivants
+     * @return int L'indice du bloc
+     */
+    public int liveIndex(int k) {
+        return live[k];
+    }
+
+    /**
+     * Retourne la position x d'un bloc
+     * @param i Indice du bloc
+     * @return int La position x
+     */
+    public int getX(int i) {
+        return x[i];
+    }
+
+    /**
+     * Retourne la position y d'un bloc
+     * @param i Indice du bloc
+     * @return int La position y
+     */
+    public int getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Retourne la largeur d'un bloc
+     * @param i Indice du bloc
+     * @return int La largeur
+     */
+    public int getWidth(int i) {
+        return width[i];
+    }
+
+    /**
+     * Retourne la hauteur d'un bloc
+     * @param i Indice du bloc
+     * @return int La hauteur
+     */
+    public int getHeight(int i) {
+        return height[i];
+    }
+
+    /**
+     * Retourne le nombre de coups nécessaires pour détruire un bloc
+     * @param i Indice du bloc
+     * @return int Nombre de coups
+     */
+    public int getHitPoints(int i) {
+        return hitPoints[i];
+    }
+
+    /**
+     * Définit le nombre de coups nécessaires pour détruire un bloc
+     * @param i Indice du bloc
+     * @param hitPoints Nombre de coups
+     */
+    public void setHitPoints(int i, int hitPoints) {
+        this.hitPoints[i] = (short) hitPoints;
+    }
+
+    /**
+     * Retourne la valeur en points d'un bloc
+     * @param i Indice du bloc
+     * @return int Valeur en points
+     */
+    public int getValue(int i) {
+        return value[i];
+    }
+
+    /**
+     * Retourne le type d'un bloc
+     * @param i Indice du bloc
+     * @return int Le type (TYPE_*)
+     */
+    public int getType(int i) {
+        return type[i];
+    }
+
+    /**
+     * Vérifie si un bloc est détruit
+     * @param i Indice du bloc
+     * @return boolean true si le bloc est détruit, false sinon
+     */
+    public boolean isDestroyed(int i) {
+        return destroyed.get(i);
+    }
+
+    /**
+     * Vérifie si un bloc contient un power-up
+     * @param i Indice du bloc
+     * @return boolean true si le bloc contient un power-up, false sinon
+     */
+    public boolean hasPowerUp(int i) {
+        return powerUps.get(i);
+    }
+}
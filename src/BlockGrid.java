@@ -0,0 +1,239 @@
+import java.util.Arrays;
+
+/**
+ * Index spatial en grille uniforme pour les blocs d'un niveau.
+ * Chaque cellule contient les indices des blocs qui la recouvrent ; la liste des
+ * cellules touchées par un rectangle se calcule directement à partir de ses
+ * coordonnées, sans parcourir les autres blocs.
+ */
+public class BlockGrid {
+
+    private final int originX;
+    private int originY;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final int columns;
+    private final int rows;
+
+    // Contenu des cellules : les indices de la cellule c sont dans
+    // cellItems[cellStart[c] .. cellStart[c] + cellCount[c]]
+    private final int[] cellStart;
+    private final int[] cellCount;
+    private int[] cellItems;
+
+    /**
+     * Construit la grille pour une liste de blocs
+     * @param blocks Les blocs à indexer
+     * @param originX Abscisse du coin supérieur gauche de la grille
+     * @param originY Ordonnée du coin supérieur gauche de la grille
+     * @param cellWidth Largeur d'une cellule
+     * @param cellHeight Hauteur d'une cellule
+     */
+    public BlockGrid(BlockField blocks, int originX, int originY, int cellWidth, int cellHeight) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+
+        // Dimensionner la grille pour contenir tous les blocs, en gardant
+        // l'alignement des cellules sur l'origine demandée
+        int minX = originX, minY = originY;
+        int maxX = originX + cellWidth;
+        int maxY = originY + cellHeight;
+        for (int i = 0; i < blocks.size(); i++) {
+            minX = Math.min(minX, blocks.getX(i));
+            minY = Math.min(minY, blocks.getY(i));
+            maxX = Math.max(maxX, blocks.getX(i) + blocks.getWidth(i));
+            maxY = Math.max(maxY, blocks.getY(i) + blocks.getHeight(i));
+        }
+        this.originX = originX - Math.floorDiv(originX - minX + cellWidth - 1, cellWidth) * cellWidth;
+        this.originY = originY - Math.floorDiv(originY - minY + cellHeight - 1, cellHeight) * cellHeight;
+        this.columns = (maxX - this.originX + cellWidth - 1) / cellWidth;
+        this.rows = (maxY - this.originY + cellHeight - 1) / cellHeight;
+
+        this.cellStart = new int[columns * rows + 1];
+        this.cellCount = new int[columns * rows];
+        this.cellItems = new int[blocks.size()];
+        rebuild(blocks, this.originY);
+    }
+
+    /**
+     * Construit une grille vide de dimensions fixes, remplie ensuite par rebuild()
+     * (champ de blocs qui défile, voir EndlessField)
+     * @param originX Abscisse du coin supérieur gauche de la grille
+     * @param originY Ordonnée du coin supérieur gauche de la grille
+     * @param cellWidth Largeur d'une cellule
+     * @param cellHeight Hauteur d'une cellule
+     * @param columns Nombre de colonnes
+     * @param rows Nombre de lignes
+     * @param capacity Nombre de blocs prévu
+     */
+    public BlockGrid(int originX, int originY, int cellWidth, int cellHeight, int columns, int rows, int capacity) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellStart = new int[columns * rows + 1];
+        this.cellCount = new int[columns * rows];
+        this.cellItems = new int[capacity];
+    }
+
+    /**
+     * Remplit à nouveau la grille avec les blocs vivants, sans changer ses
+     * dimensions ; les blocs hors de la grille sont rangés dans les cellules du bord
+     * @param blocks Les blocs à indexer
+     * @param originY Nouvelle ordonnée du coin supérieur gauche de la grille
+     */
+    public void rebuild(BlockField blocks, int originY) {
+        this.originY = originY;
+        int cells = columns * rows;
+
+        // Premier passage : compter les blocs par cellule
+        Arrays.fill(cellCount, 0);
+        for (int k = 0; k < blocks.liveCount(); k++) {
+            int i = blocks.liveIndex(k);
+            if (blocks.isDestroyed(i)) {
+                continue;
+            }
+            int c0 = column(blocks.getX(i)), c1 = column(blocks.getX(i) + blocks.getWidth(i) - 1);
+            int r0 = row(blocks.getY(i)), r1 = row(blocks.getY(i) + blocks.getHeight(i) - 1);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellCount[r * columns + c]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            cellStart[cell + 1] = cellStart[cell] + cellCount[cell];
+        }
+        if (cellItems.length < cellStart[cells]) {
+            cellItems = new int[cellStart[cells]];
+        }
+
+        // Second passage : remplir les cellules (cellCount sert de compteur de remplissage)
+        Arrays.fill(cellCount, 0);
+        for (int k = 0; k < blocks.liveCount(); k++) {
+            int i = blocks.liveIndex(k);
+            if (blocks.isDestroyed(i)) {
+                continue;
+            }
+            int c0 = column(blocks.getX(i)), c1 = column(blocks.getX(i) + blocks.getWidth(i) - 1);
+            int r0 = row(blocks.getY(i)), r1 = row(blocks.getY(i) + blocks.getHeight(i) - 1);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int cell = r * columns + c;
+                    cellItems[cellStart[cell] + cellCount[cell]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Déplace verticalement la grille avec les blocs qu'elle contient
+     * @param dy Déplacement vers le bas
+     */
+    public void translateY(int dy) {
+        originY += dy;
+    }
+
+    /**
+     * Retire un bloc de toutes les cellules qu'il recouvre
+     * @param index Indice du bloc
+     * @param blocks Les blocs indexés (pour retrouver les cellules du bloc)
+     */
+    public void remove(int index, BlockField blocks) {
+        int c0 = column(blocks.getX(index)), c1 = column(blocks.getX(index) + blocks.getWidth(index) - 1);
+        int r0 = row(blocks.getY(index)), r1 = row(blocks.getY(index) + blocks.getHeight(index) - 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                int start = cellStart[cell];
+                int end = start + cellCount[cell];
+                for (int k = start; k < end; k++) {
+                    if (cellItems[k] == index) {
+                        // Conserver l'ordre des indices dans la cellule
+                        System.arraycopy(cellItems, k + 1, cellItems, k, end - k - 1);
+                        cellCount[cell]--;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Cherche les blocs dont les cellules recouvrent un rectangle.
+     * Les indices sont renvoyés sans doublon et dans l'ordre croissant.
+     * La recherche ne modifie pas la grille : plusieurs threads peuvent chercher
+     * en même temps tant qu'aucun bloc n'est retiré.
+     * @param x Abscisse du rectangle
+     * @param y Ordonnée du rectangle
+     * @param width Largeur du rectangle
+     * @param height Hauteur du rectangle
+     * @param out Tableau qui reçoit les indices trouvés
+     * @return int Le nombre d'indices écrits dans out ; s'il dépasse out.length,
+     *         out était trop petit et son contenu est incomplet : recommencer avec
+     *         un tableau d'au moins cette taille
+     */
+    public int query(int x, int y, int width, int height, int[] out) {
+        // Tous les blocs sont dans la grille : rien à chercher en dehors
+        if (x + width <= originX || y + height <= originY
+                || x >= originX + columns * cellWidth || y >= originY + rows * cellHeight) {
+            return 0;
+        }
+
+        int c0 = column(x), c1 = column(x + width - 1);
+        int r0 = row(y), r1 = row(y + height - 1);
+
+        int found = 0;
+        // Indices qui n'ont pas tenu dans out (doublons compris : borne supérieure)
+        int overflow = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                int start = cellStart[cell];
+                int end = start + cellCount[cell];
+                for (int k = start; k < end; k++) {
+                    // Insertion triée (quelques éléments) : garde l'ordre d'ajout des blocs
+                    // et ne renvoie qu'une fois un bloc qui recouvre plusieurs cellules
+                    int index = cellItems[k];
+                    int j = found - 1;
+                    while (j >= 0 && out[j] > index) {
+                        j--;
+                    }
+                    if (j >= 0 && out[j] == index) {
+                        continue;
+                    }
+                    if (found == out.length) {
+                        overflow++;
+                        continue;
+                    }
+                    System.arraycopy(out, j + 1, out, j + 2, found - j - 1);
+                    out[j + 1] = index;
+                    found++;
+                }
+            }
+        }
+        return found + overflow;
+    }
+
+    /**
+     * Retourne la colonne contenant une abscisse, bornée à la grille
+     * @param x Abscisse
+     * @return int La colonne
+     */
+    private int column(int x) {
+        int c = Math.floorDiv(x - originX, cellWidth);
+        return Math.max(0, Math.min(columns - 1, c));
+    }
+
+    /**
+     * Retourne la ligne contenant une ordonnée, bornée à la grille
+     * @param y Ordonnée
+     * @return int La ligne
+     */
+    private int row(int y) {
+        int r = Math.floorDiv(y - originY, cellHeight);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.Arrays;
+
+/**
+ * Bloc de rangées tirées au hasard (voir Level.randomLayout) : la disposition
+ * d'un niveau aléatoire, ou un morceau du champ de blocs du mode sans fin.
+ * Les cellules sont rangées par rangée, de haut en bas.
+ */
+public class BrickChunk {
+
+    public static final int COLUMNS = 8;
+    public static final int ROWS = 4;
+
+    // Type d'une cellule vide
+    public static final int EMPTY = -1;
+
+    private long index;
+    private final byte[] types = new byte[COLUMNS * ROWS];
+    private final byte[] hitPoints = new byte[COLUMNS * ROWS];
+    private final boolean[] powerUps = new boolean[COLUMNS * ROWS];
+
+    /**
+     * Vide toutes les cellules avant de tirer un nouveau morceau
+     * @param index Numéro du morceau
+     */
+    public void clear(long index) {
+        this.index = index;
+        Arrays.fill(types, (byte) EMPTY);
+        Arrays.fill(hitPoints, (byte) 0);
+        Arrays.fill(powerUps, false);
+    }
+
+    /**
+     * Place un bloc dans une cellule
+     * @param column Colonne de la cellule
+     * @param row Rangée de la cellule
+     * @param type Type du bloc (BlockField.TYPE_*)
+     * @param hitPoints Nombre de coups nécessaires pour détruire le bloc
+     * @param powerUp true si le bloc contient un power-up
+     */
+    public void set(int column, int row, int type, int hitPoints, boolean powerUp) {
+        int cell = row * COLUMNS + column;
+        types[cell] = (byte) type;
+        this.hitPoints[cell] = (byte) hitPoints;
+        powerUps[cell] = powerUp;
+    }
+
+    /**
+     * Retourne le numéro du morceau
+     * @return long Le numéro
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Retourne le type du bloc d'une cellule
+     * @param column Colonne de la cellule
+     * @param row Rangée de la cellule
+     * @return int Le type (BlockField.TYPE_*), ou EMPTY pour une cellule vide
+     */
+    public int getType(int column, int row) {
+        return types[row * COLUMNS + column];
+    }
+
+    /**
+     * Retourne le nombre de coups nécessaires pour détruire le bloc d'une cellule
+     * @param column Colonne de la cellule
+     * @param row Rangée de la cellule
+     * @return int Les points de vie
+     */
+    public int getHitPoints(int column, int row) {
+        return hitPoints[row * COLUMNS + column];
+    }
+
+    /**
+     * Vérifie si le bloc d'une cellule contient un power-up
+     * @param column Colonne de la cellule
+     * @param row Rangée de la cellule
+     * @return boolean true si le bloc contient un power-up
+     */
+    public boolean hasPowerUp(int column, int row) {
+        return powerUps[row * COLUMNS + column];
+    }
+}
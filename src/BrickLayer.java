@@ -0,0 +1,188 @@
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+/**
+ * Couche statique du décor : fond et blocs du niveau, dessinés une fois dans
+ * une image hors écran. Seule la cellule d'un bloc touché ou détruit est
+ * redessinée ; chaque image affichée se contente de recopier la couche.
+ *
+ * Les blocs sont lus dans l'instantané de la partie (FrameSnapshot) : les
+ * blocs à redessiner sont ceux dont les points de vie ont changé depuis
+ * l'instantané dessiné précédemment.
+ */
+public class BrickLayer {
+
+    private final Color background;
+    private final Image[] sprites = new Image[BlockField.SPRITES.length];
+
+    private BufferedImage image;
+    private boolean fullRedraw = true;
+
+    // Blocs tels qu'ils sont dessinés dans la couche
+    private long drawnLayout = -1;
+    private long drawnScroll = -1;
+    private int drawnCount;
+    private int[] drawnHitPoints = new int[0];
+
+    /**
+     * Constructeur de la classe BrickLayer
+     * @param background Couleur du fond
+     */
+    public BrickLayer(Color background) {
+        this.background = background;
+        for (int type = 0; type < sprites.length; type++) {
+            sprites[type] = SpriteCache.get(BlockField.SPRITES[type]);
+        }
+    }
+
+    /**
+     * Met à jour la couche si nécessaire puis la dessine
+     * @param g Graphics de destination
+     * @param c Composant sur lequel la couche est affichée
+     * @param frame L'instantané de la partie
+     * @param width Largeur de la zone à couvrir
+     * @param height Hauteur de la zone à couvrir
+     */
+    public void paint(Graphics g, Component c, FrameSnapshot frame, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = createImage(c, width, height);
+            fullRedraw = true;
+        }
+
+        // Autres blocs (nouveau niveau, champ sans fin qui descend) : tout redessiner
+        if (fullRedraw || frame.layout != drawnLayout || frame.scroll != drawnScroll
+                || frame.blockCount != drawnCount) {
+            Graphics2D layer = image.createGraphics();
+            try {
+                redrawAll(layer, frame, c);
+            } finally {
+                layer.dispose();
+            }
+            remember(frame);
+            fullRedraw = false;
+        } else {
+            // Ne créer de Graphics sur la couche que s'il y a quelque chose à redessiner
+            Graphics2D layer = null;
+            try {
+                for (int block = 0; block < frame.blockCount; block++) {
+                    if (frame.blockHitPoints[block] != drawnHitPoints[block]) {
+                        if (layer == null) {
+                            layer = image.createGraphics();
+                        }
+                        redrawCell(layer, frame, block, c);
+                        drawnHitPoints[block] = frame.blockHitPoints[block];
+                    }
+                }
+            } finally {
+                if (layer != null) {
+                    layer.dispose();
+                }
+            }
+        }
+
+        g.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * Mémorise les blocs qui viennent d'être dessinés
+     * @param frame L'instantané dessiné
+     */
+    private void remember(FrameSnapshot frame) {
+        drawnLayout = frame.layout;
+        drawnScroll = frame.scroll;
+        drawnCount = frame.blockCount;
+        if (drawnHitPoints.length < drawnCount) {
+            drawnHitPoints = new int[drawnCount];
+        }
+        System.arraycopy(frame.blockHitPoints, 0, drawnHitPoints, 0, drawnCount);
+    }
+
+    /**
+     * Crée une image compatible avec l'écran (ou une image simple sans écran)
+     * @param c Composant d'affichage
+     * @param width Largeur
+     * @param height Hauteur
+     * @return BufferedImage L'image créée
+     */
+    private static BufferedImage createImage(Component c, int width, int height) {
+        GraphicsConfiguration config = c.getGraphicsConfiguration();
+        if (config != null) {
+            return config.createCompatibleImage(width, height);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Redessine le fond et tous les blocs vivants
+     * @param layer Graphics de la couche
+     * @param frame L'instantané de la partie
+     * @param c Composant d'affichage
+     */
+    private void redrawAll(Graphics2D layer, FrameSnapshot frame, Component c) {
+        layer.setColor(background);
+        layer.fillRect(0, 0, image.getWidth(), image.getHeight());
+        for (int block = 0; block < frame.blockCount; block++) {
+            if (frame.blockHitPoints[block] > 0) {
+                drawBlock(layer, frame, block, c);
+            }
+        }
+    }
+
+    /**
+     * Efface la cellule d'un bloc et le redessine s'il est encore vivant
+     * @param layer Graphics de la couche
+     * @param frame L'instantané de la partie
+     * @param block Indice du bloc
+     * @param c Composant d'affichage
+     */
+    private void redrawCell(Graphics2D layer, FrameSnapshot frame, int block, Component c) {
+        layer.setColor(background);
+        layer.fillRect(frame.blockX[block], frame.blockY[block], frame.blockWidth[block], frame.blockHeight[block]);
+        if (frame.blockHitPoints[block] > 0) {
+            drawBlock(layer, frame, block, c);
+        }
+    }
+
+    /**
+     * Dessine un bloc, sans déborder de sa cellule
+     * @param layer Graphics de la couche
+     * @param frame L'instantané de la partie
+     * @param block Indice du bloc
+     * @param c Composant d'affichage
+     */
+    private void drawBlock(Graphics2D layer, FrameSnapshot frame, int block, Component c) {
+        int x = frame.blockX[block];
+        int y = frame.blockY[block];
+        int width = frame.blockWidth[block];
+        int height = frame.blockHeight[block];
+        int type = frame.blockType[block];
+        int hitPoints = frame.blockHitPoints[block];
+
+        if (sprites[type] != null) {
+            // Dessiner l'image si elle est chargée
+            layer.drawImage(sprites[type], x, y, width, height, c);
+        } else {
+            // Utiliser la couleur de secours si l'image n'est pas chargée
+            layer.setColor(BlockField.FALLBACK_COLORS[type]);
+            layer.fillRect(x, y, width, height);
+        }
+
+        // Si le bloc nécessite plusieurs coups, afficher le nombre de coups restants
+        if (hitPoints > 1) {
+            HitPointGlyphs.draw(layer, hitPoints, x + width/2 - 5, y + height/2 + 5);
+        }
+
+        // Ajouter un contour visible pour le débogage
+        layer.setColor(Color.WHITE);
+        layer.drawRect(x, y, width - 1, height - 1);
+    }
+}
@@ -25,6 +25,19 @@ public class ColorBlock extends Rectangle {
      * @param colorName Nom de la couleur ("blue", "green", "yellow", "red", etc.)
      */
     ColorBlock(int x, int y, int w, int h, String colorName) {
+        this(x, y, w, h, colorName, null);
+    }
+
+    /**
+     * Constructeur de la classe ColorBlock
+     * @param x Position x du bloc
+     * @param y Position y du bloc
+     * @param w Largeur du bloc
+     * @param h Hauteur du bloc
+     * @param colorName Nom de la couleur ("blue", "green", "yellow", "red", etc.)
+     * @param random Source de hasard de la partie pour le tirage du power-up (null : pas de power-up)
+     */
+    ColorBlock(int x, int y, int w, int h, String colorName, GameRandom random) {
         this.x = x;
         this.y = y;
         
@@ -62,7 +75,7 @@ public class ColorBlock extends Rectangle {
         }
         
         // 20% de chance d'avoir un power-up
-        if (Math.random() < 0.2 && !colorName.equals("ball.png") && !colorName.equals("paddle.png")) {
+        if (random != null && random.chance(0.2) && !colorName.equals("ball.png") && !colorName.equals("paddle.png")) {
             this.isPowerUp = true;
         }
     }
@@ -94,8 +107,7 @@ public class ColorBlock extends Rectangle {
             
             // Si le bloc nécessite plusieurs coups, afficher le nombre
             if (hitPoints > 1 && !isPaddle() && !isBall()) {
-                g.setColor(Color.WHITE);
-                g.drawString(String.valueOf(hitPoints), x + width/2 - 5, y + height/2 + 5);
+                HitPointGlyphs.draw(g, hitPoints, x + width/2 - 5, y + height/2 + 5);
             }
             
             g.setColor(oldColor);
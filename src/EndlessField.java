@@ -0,0 +1,327 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Champ de blocs du mode sans fin : les rangées descendent lentement et de
+ * nouvelles rangées, tirées au hasard par morceaux de quatre (EndlessGenerator),
+ * entrent par le haut de l'écran. Une rangée qui atteint la ligne de danger
+ * avec des blocs coûte une vie au joueur.
+ *
+ * Les rangées sont rangées dans un tampon circulaire de taille fixe : la rangée
+ * numéro n occupe les emplacements (n % RING_ROWS) * COLUMNS et suivants du
+ * BlockField, libérés par la rangée qui a atteint la ligne de danger. Le nombre
+ * de blocs, la mémoire et le coût d'un pas ne dépendent pas de la durée de la partie.
+ */
+public class EndlessField {
+
+    public static final int COLUMNS = BrickChunk.COLUMNS;
+
+    // Ligne de danger : une rangée qui la dépasse est retirée
+    public static final int DANGER_Y = 400;
+
+    // Rangées en jeu au plus : de la ligne de danger jusqu'au-dessus de l'écran
+    private static final int RING_ROWS = DANGER_Y / Level.CELL_HEIGHT + 2;
+    // Rangées présentes au début de la partie
+    private static final int INITIAL_ROWS = 2 * BrickChunk.ROWS;
+
+    // Vitesse de descente : nombre de pas par pixel, de plus en plus court
+    private static final int START_TICKS_PER_PIXEL = 20;
+    private static final int MIN_TICKS_PER_PIXEL = 6;
+    private static final int ROWS_PER_SPEED_STEP = 16;
+
+    private final GameRandom random;
+    private final BlockField blocks = new BlockField(RING_ROWS * COLUMNS);
+    private final BlockGrid grid;
+    private int[] candidates = new int[16];
+
+    private EndlessGenerator generator;
+    private BrickChunk chunk; // Morceau des rangées en cours d'entrée (null au départ)
+
+    private long nextRow;   // Numéro de la prochaine rangée à faire entrer
+    private long bottomRow; // Numéro de la plus basse rangée en jeu
+    private int topY;       // Ordonnée de la rangée nextRow - 1
+    private int scrollTicks; // Pas écoulés depuis la dernière descente d'un pixel
+    private volatile long scroll; // Pixels parcourus depuis le début de la partie
+
+    /**
+     * Constructeur de la classe EndlessField
+     * @param random Hasard de la partie (seule la graine est utilisée)
+     */
+    public EndlessField(GameRandom random) {
+        this.random = random;
+        for (int i = 0; i < RING_ROWS * COLUMNS; i++) {
+            blocks.add(Level.GRID_ORIGIN_X + (i % COLUMNS) * Level.CELL_WIDTH, 0,
+                    Level.CELL_WIDTH, Level.CELL_HEIGHT, BlockField.TYPE_BLUE, 1, false);
+            blocks.remove(i);
+        }
+        blocks.compact();
+        grid = new BlockGrid(Level.GRID_ORIGIN_X, Level.GRID_ORIGIN_Y, Level.CELL_WIDTH, Level.CELL_HEIGHT,
+                COLUMNS, RING_ROWS, RING_ROWS * COLUMNS);
+    }
+
+    /**
+     * Commence la partie : les premières rangées sont en haut de l'écran
+     */
+    public void start() {
+        restart(0, 0, Level.GRID_ORIGIN_Y + INITIAL_ROWS * Level.CELL_HEIGHT, 0);
+        for (int r = 0; r < INITIAL_ROWS; r++) {
+            pushRow();
+        }
+        grid.rebuild(blocks, topY);
+    }
+
+    /**
+     * Vide le champ et relance la génération à partir d'une rangée
+     * @param firstRow Numéro de la première rangée à faire entrer
+     * @param pixels Pixels parcourus depuis le début de la partie
+     * @param top Ordonnée de la rangée firstRow - 1
+     * @param ticks Pas écoulés depuis la dernière descente
+     */
+    private void restart(long firstRow, long pixels, int top, int ticks) {
+        stop();
+        for (int k = blocks.liveCount() - 1; k >= 0; k--) {
+            blocks.remove(blocks.liveIndex(k));
+        }
+        blocks.compact();
+        chunk = null;
+        nextRow = firstRow;
+        bottomRow = firstRow;
+        topY = top;
+        scrollTicks = ticks;
+        scroll = pixels;
+        generator = new EndlessGenerator(random, firstRow / BrickChunk.ROWS);
+    }
+
+    /**
+     * Arrête le thread de génération (fin de la partie)
+     */
+    public void stop() {
+        if (generator != null) {
+            generator.stop();
+            generator = null;
+        }
+    }
+
+    /**
+     * Fait descendre le champ d'un pas. Appelé à chaque pas de jeu, balle lancée.
+     * @param balls Les balles, repoussées vers le bas si un bloc descend sur elles
+     * @return int Nombre de blocs qui ont atteint la ligne de danger pendant ce pas
+     */
+    public int scroll(BallSet balls) {
+        if (++scrollTicks < getTicksPerPixel()) {
+            return 0;
+        }
+        scrollTicks = 0;
+        blocks.translateY(1);
+        grid.translateY(1);
+        topY++;
+        scroll++;
+
+        // Retirer les rangées arrivées à la ligne de danger, puis faire entrer
+        // les nouvelles rangées par le haut, dans les emplacements libérés
+        int reached = 0;
+        boolean changed = false;
+        while (nextRow > bottomRow && rowY(bottomRow) + Level.CELL_HEIGHT > DANGER_Y) {
+            reached += retireRow();
+            changed = true;
+        }
+        while (topY > Level.GRID_ORIGIN_Y) {
+            pushRow();
+            changed = true;
+        }
+        if (changed) {
+            blocks.compact();
+            grid.rebuild(blocks, topY);
+        }
+
+        pushBalls(balls);
+        return reached;
+    }
+
+    /**
+     * Repousse sous les blocs les balles sur lesquelles le champ vient de descendre
+     * @param balls Les balles
+     */
+    private void pushBalls(BallSet balls) {
+        int width = balls.getWidth();
+        int height = balls.getHeight();
+        for (int b = 0; b < balls.size(); b++) {
+            int x = (int) balls.getX(b);
+            int y = (int) balls.getY(b);
+            int count;
+            while ((count = grid.query(x, y, width, height, candidates)) > candidates.length) {
+                candidates = new int[count];
+            }
+            for (int k = 0; k < count; k++) {
+                int block = candidates[k];
+                if (!blocks.isDestroyed(block) && blocks.intersects(block, x, y, width, height)) {
+                    y = blocks.getY(block) + blocks.getHeight(block);
+                    balls.setPosition(b, balls.getX(b), y);
+                    if (balls.getMovY(b) < 0) {
+                        balls.setVelocity(b, balls.getMovX(b), -balls.getMovY(b));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Fait entrer une rangée au-dessus de la plus haute rangée en jeu
+     */
+    private void pushRow() {
+        long chunkIndex = nextRow / BrickChunk.ROWS;
+        if (chunk == null || chunk.getIndex() != chunkIndex) {
+            if (chunk != null) {
+                generator.release(chunk);
+            }
+            chunk = generator.take(chunkIndex);
+        }
+        // Les rangées d'un morceau entrent de bas en haut
+        int row = BrickChunk.ROWS - 1 - (int) (nextRow % BrickChunk.ROWS);
+        int y = topY - Level.CELL_HEIGHT;
+        int first = slot(nextRow);
+        for (int column = 0; column < COLUMNS; column++) {
+            int type = chunk.getType(column, row);
+            if (type != BrickChunk.EMPTY) {
+                blocks.set(first + column, Level.GRID_ORIGIN_X + column * Level.CELL_WIDTH, y,
+                        Level.CELL_WIDTH, Level.CELL_HEIGHT, type,
+                        chunk.getHitPoints(column, row), chunk.hasPowerUp(column, row));
+            }
+        }
+        topY = y;
+        nextRow++;
+    }
+
+    /**
+     * Retire la plus basse rangée et libère ses emplacements
+     * @return int Nombre de blocs que la rangée contenait encore
+     */
+    private int retireRow() {
+        int reached = 0;
+        int first = slot(bottomRow);
+        for (int column = 0; column < COLUMNS; column++) {
+            if (!blocks.isDestroyed(first + column)) {
+                blocks.remove(first + column);
+                reached++;
+            }
+        }
+        bottomRow++;
+        return reached;
+    }
+
+    /**
+     * Retourne le premier emplacement d'une rangée dans le tampon circulaire
+     * @param row Numéro de la rangée
+     * @return int Indice du bloc de la première colonne
+     */
+    private static int slot(long row) {
+        return (int) (row % RING_ROWS) * COLUMNS;
+    }
+
+    /**
+     * Retourne l'ordonnée d'une rangée en jeu
+     * @param row Numéro de la rangée
+     * @return int L'ordonnée
+     */
+    private int rowY(long row) {
+        return topY + (int) (nextRow - 1 - row) * Level.CELL_HEIGHT;
+    }
+
+    /**
+     * Retourne le nombre de pas pour descendre d'un pixel
+     * @return int Le nombre de pas
+     */
+    private int getTicksPerPixel() {
+        return Math.max(MIN_TICKS_PER_PIXEL, START_TICKS_PER_PIXEL - (int) (nextRow / ROWS_PER_SPEED_STEP));
+    }
+
+    /**
+     * Écrit l'état du champ. Comme pour un niveau, les blocs se retrouvent à
+     * partir de la graine : seuls la position et les points de vie sont écrits.
+     * @param out Destination
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(bottomRow);
+        out.writeLong(nextRow);
+        out.writeLong(scroll);
+        out.writeInt(topY);
+        out.writeInt(scrollTicks);
+        for (long row = bottomRow; row < nextRow; row++) {
+            int first = slot(row);
+            for (int column = 0; column < COLUMNS; column++) {
+                out.writeShort(blocks.isDestroyed(first + column) ? 0 : blocks.getHitPoints(first + column));
+            }
+        }
+    }
+
+    /**
+     * Reprend l'état écrit par writeState
+     * @param in Source
+     * @throws IOException En cas d'erreur de lecture
+     */
+    public void readState(DataInput in) throws IOException {
+        long firstRow = in.readLong();
+        long lastRow = in.readLong();
+        long pixels = in.readLong();
+        int top = in.readInt();
+        int ticks = in.readInt();
+        if (lastRow < firstRow || lastRow - firstRow > RING_ROWS) {
+            throw new IOException("Champ de blocs invalide dans l'état enregistré");
+        }
+
+        // Refaire entrer les rangées depuis la plus basse, puis appliquer les coups reçus
+        restart(firstRow, pixels, top + (int) (lastRow - firstRow) * Level.CELL_HEIGHT, ticks);
+        while (nextRow < lastRow) {
+            pushRow();
+        }
+        for (long row = firstRow; row < lastRow; row++) {
+            int first = slot(row);
+            for (int column = 0; column < COLUMNS; column++) {
+                int hitPoints = in.readShort();
+                if (hitPoints <= 0) {
+                    if (!blocks.isDestroyed(first + column)) {
+                        blocks.remove(first + column);
+                    }
+                } else {
+                    blocks.setHitPoints(first + column, hitPoints);
+                }
+            }
+        }
+        blocks.compact();
+        grid.rebuild(blocks, topY);
+    }
+
+    /**
+     * Retourne les blocs du champ
+     * @return BlockField Les blocs (taille fixe)
+     */
+    public BlockField getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Retourne l'index spatial des blocs du champ
+     * @return BlockGrid L'index
+     */
+    public BlockGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Retourne la distance parcourue par le champ, pour savoir s'il faut le redessiner
+     * @return long Les pixels parcourus depuis le début de la partie
+     */
+    public long getScroll() {
+        return scroll;
+    }
+
+    /**
+     * Retourne l'étape atteinte, affichée comme numéro de niveau
+     * @return int L'étape (à partir de 1)
+     */
+    public int getStage() {
+        return EndlessGenerator.getDifficulty(Math.max(0, nextRow - 1) / BrickChunk.ROWS) + 1;
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Tire les morceaux du champ de blocs du mode sans fin sur un thread à part,
+ * quelques morceaux à l'avance, pour que le thread de simulation n'ait qu'à
+ * les prendre dans une file.
+ *
+ * Les morceaux circulent entre deux files de taille fixe (libres et prêts) :
+ * aucun objet n'est créé pendant la partie. Le contenu d'un morceau ne dépend
+ * que de la graine et de son numéro (GameRandom.forChunk) : si le thread de
+ * génération est en retard, le morceau est tiré sur le thread appelant et la
+ * partie reste identique.
+ */
+public class EndlessGenerator implements Runnable {
+
+    // Nombre de morceaux tirés à l'avance
+    private static final int PREFETCH_CHUNKS = 3;
+
+    private final GameRandom random;
+    private final BlockingQueue<BrickChunk> ready = new ArrayBlockingQueue<>(PREFETCH_CHUNKS);
+    private final BlockingQueue<BrickChunk> free = new ArrayBlockingQueue<>(PREFETCH_CHUNKS + 1);
+    // Morceau tiré sur le thread appelant quand la génération est en retard
+    private final BrickChunk spare = new BrickChunk();
+    private final Thread thread;
+    private long nextIndex; // Prochain morceau à tirer par le thread de génération
+
+    /**
+     * Démarre la génération
+     * @param random Hasard de la partie
+     * @param firstChunk Numéro du premier morceau à tirer
+     */
+    public EndlessGenerator(GameRandom random, long firstChunk) {
+        this.random = random;
+        this.nextIndex = firstChunk;
+        for (int i = 0; i < PREFETCH_CHUNKS + 1; i++) {
+            free.add(new BrickChunk());
+        }
+        thread = new Thread(this, "Génération des rangées");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Boucle du thread de génération : remplit les morceaux libres, dans l'ordre
+     */
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                BrickChunk chunk = free.take();
+                generate(nextIndex++, chunk);
+                ready.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            // Arrêt demandé par stop()
+        }
+    }
+
+    /**
+     * Retourne un morceau. Les morceaux sont demandés dans l'ordre croissant ;
+     * le morceau doit être rendu avec release() quand il n'est plus utilisé.
+     * @param index Numéro du morceau
+     * @return BrickChunk Le morceau
+     */
+    public BrickChunk take(long index) {
+        BrickChunk chunk;
+        while ((chunk = ready.poll()) != null) {
+            if (chunk.getIndex() == index) {
+                return chunk;
+            }
+            // Morceau déjà tiré sur le thread appelant : inutile
+            release(chunk);
+        }
+        // Génération en retard : tirer le morceau ici
+        generate(index, spare);
+        return spare;
+    }
+
+    /**
+     * Rend un morceau pour qu'il soit réutilisé
+     * @param chunk Le morceau
+     */
+    public void release(BrickChunk chunk) {
+        if (chunk != spare) {
+            free.offer(chunk);
+        }
+    }
+
+    /**
+     * Arrête le thread de génération
+     */
+    public void stop() {
+        thread.interrupt();
+    }
+
+    /**
+     * Tire un morceau, avec une difficulté qui augmente tous les deux morceaux
+     * @param index Numéro du morceau
+     * @param out Reçoit le morceau
+     */
+    private void generate(long index, BrickChunk out) {
+        out.clear(index);
+        Level.randomLayout(random.forChunk(index), getDifficulty(index), out);
+    }
+
+    /**
+     * Retourne la difficulté d'un morceau
+     * @param index Numéro du morceau
+     * @return int La difficulté (0 pour les premiers morceaux)
+     */
+    public static int getDifficulty(long index) {
+        return (int) Math.min(index / 2, 50);
+    }
+}
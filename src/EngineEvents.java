@@ -0,0 +1,131 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événements JDK Flight Recorder du moteur, pour mettre en regard les pas de
+ * simulation, les chargements et les écritures avec les pauses du GC et les
+ * entrées-sorties d'un enregistrement JFR.
+ *
+ * Quand l'enregistrement est arrêté (ou l'événement désactivé), un événement
+ * ne coûte qu'un test : les champs ne sont remplis que si shouldCommit() le
+ * demande. Les réglages conseillés sont dans brickbreaker.jfc.
+ */
+public final class EngineEvents {
+
+    private static final String CATEGORY = "Casse-briques";
+
+    private EngineEvents() {
+    }
+
+    /**
+     * Un pas de simulation (BlockBreakerPanel.tick)
+     */
+    @Name("brickbreaker.Tick")
+    @Label("Pas de simulation")
+    @Category({CATEGORY, "Moteur"})
+    @StackTrace(false)
+    public static class Tick extends Event {
+        @Label("Numéro du pas")
+        public long tick;
+
+        @Label("Balles")
+        public int balls;
+
+        @Label("Blocs vivants")
+        public int liveBricks;
+
+        @Label("Tests de collision")
+        @Description("Tests balle-bloc pendant le pas")
+        public long collisionTests;
+    }
+
+    /**
+     * Un coup porté à un bloc par une balle (GameWorld.step). Nombreux en mode
+     * chaos : désactivé par défaut, activé par brickbreaker.jfc.
+     */
+    @Name("brickbreaker.Collision")
+    @Label("Collision balle-bloc")
+    @Category({CATEGORY, "Moteur"})
+    @StackTrace(false)
+    @Enabled(false)
+    public static class Collision extends Event {
+        @Label("Balle")
+        public int ball;
+
+        @Label("Bloc")
+        public int block;
+
+        @Label("Type du bloc")
+        public int blockType;
+
+        @Label("Bloc détruit")
+        public boolean destroyed;
+    }
+
+    /**
+     * La construction d'un niveau (Level)
+     */
+    @Name("brickbreaker.LevelLoad")
+    @Label("Chargement d'un niveau")
+    @Category({CATEGORY, "Chargement"})
+    public static class LevelLoad extends Event {
+        @Label("Niveau")
+        public int level;
+
+        @Label("Nom")
+        public String name;
+
+        @Label("Blocs")
+        public int bricks;
+
+        @Label("Aléatoire")
+        public boolean random;
+    }
+
+    /**
+     * Le décodage d'une image (SpriteCache, pour les blocs, la balle, la raquette et les power-ups)
+     */
+    @Name("brickbreaker.AssetLoad")
+    @Label("Décodage d'une image")
+    @Category({CATEGORY, "Chargement"})
+    public static class AssetLoad extends Event {
+        @Label("Image")
+        public String name;
+
+        @Label("Trouvée")
+        public boolean found;
+
+        @Label("Largeur")
+        public int width;
+
+        @Label("Hauteur")
+        public int height;
+    }
+
+    /**
+     * L'écriture des meilleurs scores (HighScoreRepository, thread de sauvegarde)
+     */
+    @Name("brickbreaker.HighScoreSave")
+    @Label("Sauvegarde des meilleurs scores")
+    @Category({CATEGORY, "Entrées-sorties"})
+    public static class HighScoreSave extends Event {
+        @Label("Fichier")
+        public String path;
+
+        @Label("Scores")
+        public int scores;
+
+        @Label("Taille")
+        @DataAmount
+        public long bytes;
+
+        @Label("Réussie")
+        public boolean succeeded;
+    }
+}
@@ -0,0 +1,163 @@
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Mesures du moteur : durée des pas de simulation, durée du dessin des images,
+ * irrégularité des images et nombre de tests de collision par pas.
+ *
+ * Chaque mesure est un histogramme à coût fixe (Histogram), alimenté par le
+ * thread qui fait le travail mesuré : un enregistrement coûte un appel à
+ * System.nanoTime() et quelques écritures, sans allocation. Les mesures
+ * s'affichent en jeu (F3, voir MetricsOverlay) et sont exportées par JMX sous
+ * le nom OBJECT_NAME, pour diagnostiquer des saccades chez un joueur sans
+ * brancher de profileur.
+ */
+public class EngineMetrics implements EngineMetricsMXBean {
+
+    public static final String OBJECT_NAME = "BrickBreaker:type=EngineMetrics";
+
+    private final Histogram tickNanos = new Histogram();
+    private final Histogram renderNanos = new Histogram();
+    private final Histogram jitterNanos = new Histogram();
+    private final Histogram collisionTests = new Histogram();
+
+    // Début et durée de l'intervalle de l'image précédente (thread de rendu)
+    private long lastFrameStart;
+    private long lastFrameInterval = -1;
+
+    private ObjectName registeredName;
+
+    /**
+     * Enregistre un pas de simulation
+     * @param nanos Durée du pas
+     * @param tests Nombre de tests de collision balle-bloc pendant le pas
+     */
+    public void recordTick(long nanos, long tests) {
+        tickNanos.record(nanos);
+        collisionTests.record(tests);
+    }
+
+    /**
+     * Note le début du dessin d'une image et mesure l'écart avec l'intervalle précédent
+     * @return long L'instant du début, à passer à frameFinished
+     */
+    public long frameStarted() {
+        long now = System.nanoTime();
+        if (lastFrameStart != 0) {
+            long interval = now - lastFrameStart;
+            if (lastFrameInterval >= 0) {
+                jitterNanos.record(Math.abs(interval - lastFrameInterval));
+            }
+            lastFrameInterval = interval;
+        }
+        lastFrameStart = now;
+        return now;
+    }
+
+    /**
+     * Note la fin du dessin d'une image
+     * @param start L'instant renvoyé par frameStarted
+     */
+    public void frameFinished(long start) {
+        renderNanos.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Exporte les mesures par JMX (plateforme MBeanServer)
+     */
+    public synchronized void register() {
+        if (registeredName != null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            // Un seul panneau de jeu exporte ses mesures à la fois
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            registeredName = name;
+        } catch (JMException e) {
+            System.err.println("Erreur lors de l'export JMX des mesures: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retire les mesures de JMX
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            // Déjà retiré (par un autre panneau) : rien à faire
+        }
+        registeredName = null;
+    }
+
+    /**
+     * Retourne l'histogramme de la durée des pas
+     * @return Histogram L'histogramme, en ns
+     */
+    public Histogram getTickHistogram() {
+        return tickNanos;
+    }
+
+    /**
+     * Retourne l'histogramme de la durée du dessin des images
+     * @return Histogram L'histogramme, en ns
+     */
+    public Histogram getRenderHistogram() {
+        return renderNanos;
+    }
+
+    /**
+     * Retourne l'histogramme de l'irrégularité des images
+     * @return Histogram L'histogramme, en ns
+     */
+    public Histogram getJitterHistogram() {
+        return jitterNanos;
+    }
+
+    /**
+     * Retourne l'histogramme du nombre de tests de collision par pas
+     * @return Histogram L'histogramme
+     */
+    public Histogram getCollisionHistogram() {
+        return collisionTests;
+    }
+
+    @Override
+    public MetricSummary getTickNanos() {
+        return MetricSummary.of(tickNanos);
+    }
+
+    @Override
+    public MetricSummary getRenderNanos() {
+        return MetricSummary.of(renderNanos);
+    }
+
+    @Override
+    public MetricSummary getJitterNanos() {
+        return MetricSummary.of(jitterNanos);
+    }
+
+    @Override
+    public MetricSummary getCollisionTests() {
+        return MetricSummary.of(collisionTests);
+    }
+
+    @Override
+    public void reset() {
+        tickNanos.reset();
+        renderNanos.reset();
+        jitterNanos.reset();
+        collisionTests.reset();
+    }
+}
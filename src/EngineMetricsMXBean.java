@@ -0,0 +1,35 @@
+/**
+ * Mesures du moteur exportées par JMX (jconsole, VisualVM, Mission Control).
+ * Les durées sont en nanosecondes.
+ */
+public interface EngineMetricsMXBean {
+
+    /**
+     * Retourne la durée des pas de simulation
+     * @return MetricSummary Le résumé, en ns
+     */
+    MetricSummary getTickNanos();
+
+    /**
+     * Retourne la durée du dessin des images
+     * @return MetricSummary Le résumé, en ns
+     */
+    MetricSummary getRenderNanos();
+
+    /**
+     * Retourne l'irrégularité des images : écart entre deux intervalles d'images successifs
+     * @return MetricSummary Le résumé, en ns
+     */
+    MetricSummary getJitterNanos();
+
+    /**
+     * Retourne le nombre de tests de collision balle-bloc par pas
+     * @return MetricSummary Le résumé
+     */
+    MetricSummary getCollisionTests();
+
+    /**
+     * Remet toutes les mesures à zéro
+     */
+    void reset();
+}
@@ -0,0 +1,258 @@
+import java.util.Arrays;
+
+/**
+ * Image figée de la partie à la fin d'un pas de simulation : tout ce que le
+ * rendu dessine, recopié dans des tableaux de types primitifs.
+ *
+ * Le moteur remplit un instantané (capture) puis le publie par un SnapshotBuffer ;
+ * le thread de rendu le lit ensuite sans verrou, pendant que le moteur continue
+ * dans un autre instantané. Une fois publié, un instantané n'est plus modifié
+ * tant que le rendu peut le lire. Les tableaux ne sont agrandis que lorsqu'une
+ * partie compte plus de balles, de power-ups ou de blocs qu'auparavant : une
+ * capture n'alloue rien le reste du temps.
+ */
+public class FrameSnapshot {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    long tick;
+    int score;
+    int lives;
+    int level;
+    boolean ballLaunched;
+
+    // Balles : position au pas précédent et au pas courant (interpolation)
+    int ballCount;
+    int ballWidth;
+    int ballHeight;
+    int[] ballPrevX = new int[INITIAL_CAPACITY];
+    int[] ballPrevY = new int[INITIAL_CAPACITY];
+    double[] ballX = new double[INITIAL_CAPACITY];
+    double[] ballY = new double[INITIAL_CAPACITY];
+
+    int paddlePrevX;
+    int paddlePrevY;
+    int paddleX;
+    int paddleY;
+    int paddleWidth;
+    int paddleHeight;
+
+    // Power-ups en train de tomber
+    int powerUpCount;
+    int[] powerUpX = new int[INITIAL_CAPACITY];
+    int[] powerUpPrevY = new int[INITIAL_CAPACITY];
+    int[] powerUpY = new int[INITIAL_CAPACITY];
+    int[] powerUpType = new int[INITIAL_CAPACITY];
+
+    // Blocs du niveau (points de vie à 0 : bloc détruit)
+    long layout;
+    long scroll;
+    int blockCount;
+    int[] blockX = new int[INITIAL_CAPACITY];
+    int[] blockY = new int[INITIAL_CAPACITY];
+    int[] blockWidth = new int[INITIAL_CAPACITY];
+    int[] blockHeight = new int[INITIAL_CAPACITY];
+    int[] blockType = new int[INITIAL_CAPACITY];
+    int[] blockHitPoints = new int[INITIAL_CAPACITY];
+
+    /**
+     * Recopie l'état de la partie (thread de simulation)
+     * @param world Le moteur de jeu
+     */
+    void capture(GameWorld world) {
+        tick = world.getTick();
+        GameStats stats = world.getStats();
+        score = stats.getScore();
+        lives = stats.getLives();
+        level = stats.getCurrentLevel();
+        ballLaunched = world.isBallLaunched();
+
+        BallSet balls = world.getBalls();
+        ballCount = balls.size();
+        ballWidth = balls.getWidth();
+        ballHeight = balls.getHeight();
+        ensureBalls(ballCount);
+        for (int i = 0; i < ballCount; i++) {
+            ballPrevX[i] = balls.getPrevX(i);
+            ballPrevY[i] = balls.getPrevY(i);
+            ballX[i] = balls.getX(i);
+            ballY[i] = balls.getY(i);
+        }
+
+        Block paddle = world.getPaddle();
+        paddlePrevX = paddle.prevX;
+        paddlePrevY = paddle.prevY;
+        paddleX = paddle.x;
+        paddleY = paddle.y;
+        paddleWidth = paddle.width;
+        paddleHeight = paddle.height;
+
+        PowerUpPool powerUps = world.getPowerUps();
+        ensurePowerUps(powerUps.size());
+        powerUpCount = 0;
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            if (powerUp.isActive() && !powerUp.isCollected()) {
+                powerUpX[powerUpCount] = powerUp.x;
+                powerUpPrevY[powerUpCount] = powerUp.getPrevY();
+                powerUpY[powerUpCount] = powerUp.y;
+                powerUpType[powerUpCount] = powerUp.getType();
+                powerUpCount++;
+            }
+        }
+
+        layout = world.getLayout();
+        EndlessField field = world.getEndlessField();
+        scroll = field != null ? field.getScroll() : -1;
+        BlockField blocks = world.getBlocks();
+        blockCount = blocks.size();
+        ensureBlocks(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            blockX[i] = blocks.getX(i);
+            blockY[i] = blocks.getY(i);
+            blockWidth[i] = blocks.getWidth(i);
+            blockHeight[i] = blocks.getHeight(i);
+            blockType[i] = blocks.getType(i);
+            blockHitPoints[i] = blocks.isDestroyed(i) ? 0 : blocks.getHitPoints(i);
+        }
+    }
+
+    /**
+     * Recopie un autre instantané (instantanés reconstruits hors du moteur,
+     * par exemple à partir du réseau)
+     * @param other L'instantané à recopier
+     */
+    void copyFrom(FrameSnapshot other) {
+        tick = other.tick;
+        score = other.score;
+        lives = other.lives;
+        level = other.level;
+        ballLaunched = other.ballLaunched;
+
+        ballCount = other.ballCount;
+        ballWidth = other.ballWidth;
+        ballHeight = other.ballHeight;
+        ensureBalls(ballCount);
+        System.arraycopy(other.ballPrevX, 0, ballPrevX, 0, ballCount);
+        System.arraycopy(other.ballPrevY, 0, ballPrevY, 0, ballCount);
+        System.arraycopy(other.ballX, 0, ballX, 0, ballCount);
+        System.arraycopy(other.ballY, 0, ballY, 0, ballCount);
+
+        paddlePrevX = other.paddlePrevX;
+        paddlePrevY = other.paddlePrevY;
+        paddleX = other.paddleX;
+        paddleY = other.paddleY;
+        paddleWidth = other.paddleWidth;
+        paddleHeight = other.paddleHeight;
+
+        powerUpCount = other.powerUpCount;
+        ensurePowerUps(powerUpCount);
+        System.arraycopy(other.powerUpX, 0, powerUpX, 0, powerUpCount);
+        System.arraycopy(other.powerUpPrevY, 0, powerUpPrevY, 0, powerUpCount);
+        System.arraycopy(other.powerUpY, 0, powerUpY, 0, powerUpCount);
+        System.arraycopy(other.powerUpType, 0, powerUpType, 0, powerUpCount);
+
+        layout = other.layout;
+        scroll = other.scroll;
+        blockCount = other.blockCount;
+        ensureBlocks(blockCount);
+        System.arraycopy(other.blockX, 0, blockX, 0, blockCount);
+        System.arraycopy(other.blockY, 0, blockY, 0, blockCount);
+        System.arraycopy(other.blockWidth, 0, blockWidth, 0, blockCount);
+        System.arraycopy(other.blockHeight, 0, blockHeight, 0, blockCount);
+        System.arraycopy(other.blockType, 0, blockType, 0, blockCount);
+        System.arraycopy(other.blockHitPoints, 0, blockHitPoints, 0, blockCount);
+    }
+
+    /**
+     * Agrandit les tableaux des balles si nécessaire, en gardant leur contenu
+     * @param count Nombre de balles à contenir
+     */
+    void ensureBalls(int count) {
+        if (ballPrevX.length < count) {
+            int capacity = Math.max(count, ballPrevX.length * 2);
+            ballPrevX = Arrays.copyOf(ballPrevX, capacity);
+            ballPrevY = Arrays.copyOf(ballPrevY, capacity);
+            ballX = Arrays.copyOf(ballX, capacity);
+            ballY = Arrays.copyOf(ballY, capacity);
+        }
+    }
+
+    /**
+     * Agrandit les tableaux des power-ups si nécessaire, en gardant leur contenu
+     * @param count Nombre de power-ups à contenir
+     */
+    void ensurePowerUps(int count) {
+        if (powerUpX.length < count) {
+            int capacity = Math.max(count, powerUpX.length * 2);
+            powerUpX = Arrays.copyOf(powerUpX, capacity);
+            powerUpPrevY = Arrays.copyOf(powerUpPrevY, capacity);
+            powerUpY = Arrays.copyOf(powerUpY, capacity);
+            powerUpType = Arrays.copyOf(powerUpType, capacity);
+        }
+    }
+
+    /**
+     * Agrandit les tableaux des blocs si nécessaire, en gardant leur contenu
+     * @param count Nombre de blocs à contenir
+     */
+    void ensureBlocks(int count) {
+        if (blockX.length < count) {
+            int capacity = Math.max(count, blockX.length * 2);
+            blockX = Arrays.copyOf(blockX, capacity);
+            blockY = Arrays.copyOf(blockY, capacity);
+            blockWidth = Arrays.copyOf(blockWidth, capacity);
+            blockHeight = Arrays.copyOf(blockHeight, capacity);
+            blockType = Arrays.copyOf(blockType, capacity);
+            blockHitPoints = Arrays.copyOf(blockHitPoints, capacity);
+        }
+    }
+
+    /**
+     * Retourne la position x d'une balle, interpolée entre le pas précédent et le pas courant
+     * @param i Indice de la balle
+     * @param alpha Facteur d'interpolation
+     * @return int La position x à afficher
+     */
+    int getBallDrawX(int i, double alpha) {
+        return (int) Math.round(ballPrevX[i] + (ballX[i] - ballPrevX[i]) * alpha);
+    }
+
+    /**
+     * Retourne la position y d'une balle, interpolée entre le pas précédent et le pas courant
+     * @param i Indice de la balle
+     * @param alpha Facteur d'interpolation
+     * @return int La position y à afficher
+     */
+    int getBallDrawY(int i, double alpha) {
+        return (int) Math.round(ballPrevY[i] + (ballY[i] - ballPrevY[i]) * alpha);
+    }
+
+    /**
+     * Retourne la position x interpolée de la raquette
+     * @param alpha Facteur d'interpolation
+     * @return int La position x à afficher
+     */
+    int getPaddleDrawX(double alpha) {
+        return (int) Math.round(paddlePrevX + (paddleX - paddlePrevX) * alpha);
+    }
+
+    /**
+     * Retourne la position y interpolée de la raquette
+     * @param alpha Facteur d'interpolation
+     * @return int La position y à afficher
+     */
+    int getPaddleDrawY(double alpha) {
+        return (int) Math.round(paddlePrevY + (paddleY - paddlePrevY) * alpha);
+    }
+
+    /**
+     * Retourne la position y interpolée d'un power-up
+     * @param i Indice du power-up dans l'instantané
+     * @param alpha Facteur d'interpolation
+     * @return int La position y à afficher
+     */
+    int getPowerUpDrawY(int i, double alpha) {
+        return (int) Math.round(powerUpPrevY[i] + (powerUpY[i] - powerUpPrevY[i]) * alpha);
+    }
+}
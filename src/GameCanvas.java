@@ -0,0 +1,114 @@
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Surface d'affichage actif : un Canvas avec un BufferStrategy à trois tampons,
+ * dessiné par son propre thread de rendu au lieu de passer par repaint() et l'EDT.
+ * La boucle de jeu demande une image avec requestFrame() ; le thread de rendu
+ * la dessine et l'affiche immédiatement.
+ */
+public class GameCanvas extends Canvas implements Runnable {
+
+    private static final int BUFFERS = 3;
+
+    // Sous X11, les tampons d'affichage sont vidés de façon paresseuse
+    private static final boolean SYNC_DISPLAY =
+            System.getProperty("os.name", "").toLowerCase().contains("linux");
+
+    private final GameRenderer renderer;
+
+    private volatile Thread renderThread;
+    private volatile boolean frameRequested;
+    private volatile double alpha = 1.0;
+    private volatile boolean paused;
+
+    /**
+     * Constructeur de la classe GameCanvas
+     * @param renderer Le dessinateur des images du jeu
+     */
+    public GameCanvas(GameRenderer renderer) {
+        this.renderer = renderer;
+        setBackground(GameRenderer.BACKGROUND);
+        // Le contenu est entièrement dessiné par le thread de rendu
+        setIgnoreRepaint(true);
+    }
+
+    /**
+     * Demande l'affichage d'une image (appelé par la boucle de jeu)
+     * @param alpha Facteur d'interpolation entre le pas précédent et le pas courant
+     * @param paused true si le jeu est en pause
+     */
+    public void requestFrame(double alpha, boolean paused) {
+        this.alpha = alpha;
+        this.paused = paused;
+        frameRequested = true;
+        Thread thread = renderThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        // Le BufferStrategy n'existe qu'une fois le canvas affichable
+        createBufferStrategy(BUFFERS);
+        Thread thread = new Thread(this, "render");
+        thread.setDaemon(true);
+        renderThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        Thread thread = renderThread;
+        renderThread = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void run() {
+        BufferStrategy strategy = getBufferStrategy();
+        while (renderThread == Thread.currentThread()) {
+            if (!frameRequested) {
+                LockSupport.park(this);
+                continue;
+            }
+            frameRequested = false;
+
+            int width = getWidth();
+            int height = getHeight();
+            if (width <= 0 || height <= 0) {
+                continue;
+            }
+
+            try {
+                // Redessiner tant que le contenu des tampons est perdu ou restauré
+                do {
+                    do {
+                        Graphics g = strategy.getDrawGraphics();
+                        try {
+                            renderer.render(g, this, width, height, alpha, paused);
+                        } finally {
+                            g.dispose();
+                        }
+                    } while (strategy.contentsRestored());
+                    strategy.show();
+                } while (strategy.contentsLost());
+            } catch (IllegalStateException e) {
+                // Le canvas a été retiré de l'écran pendant le rendu
+                continue;
+            }
+
+            if (SYNC_DISPLAY) {
+                Toolkit.getDefaultToolkit().sync();
+            }
+        }
+    }
+}
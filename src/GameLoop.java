@@ -0,0 +1,192 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boucle de jeu à pas de temps fixe.
+ * La simulation avance par pas constants mesurés avec System.nanoTime() et un
+ * accumulateur ; le rendu est demandé à chaque tour de boucle avec un facteur
+ * d'interpolation entre l'état précédent et l'état courant de la simulation.
+ *
+ * Cycle de vie : start() crée le thread, pause() l'endort (LockSupport.park,
+ * aucun temps processeur) après une dernière image, resume() le réveille sans
+ * rattraper le temps passé en pause, stop() le termine. Entre deux tours, le
+ * thread attend l'échéance du prochain pas ou de la prochaine image avec
+ * LockSupport.parkNanos.
+ *
+ * pause() n'est qu'une demande : elle retourne tout de suite, et le tour en
+ * cours (tick() ou render()) se termine normalement avant que le thread
+ * s'endorme. Elle peut donc être appelée depuis tick() lui-même, mais ne garantit
+ * pas qu'aucun pas n'est en cours à son retour : l'état de la simulation ne doit
+ * être modifié que depuis tick(), sur le thread de la boucle. stop() attend au
+ * contraire la fin du thread (sauf appelé depuis ce thread).
+ */
+public class GameLoop implements Runnable {
+
+    /**
+     * Partie du jeu pilotée par la boucle
+     */
+    public interface Simulation {
+        /**
+         * Avance la simulation d'un pas fixe
+         */
+        void tick();
+
+        /**
+         * Demande le rendu d'une image
+         * @param alpha Position entre l'état précédent (0) et l'état courant (1)
+         */
+        void render(double alpha);
+    }
+
+    public static final int TICKS_PER_SECOND = 100;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+
+    // Nombre maximal de pas de rattrapage avant d'abandonner le retard
+    private static final int MAX_CATCH_UP_TICKS = 10;
+
+    // États de la boucle
+    private static final int STOPPED = 0;
+    private static final int RUNNING = 1;
+    private static final int PAUSED = 2;
+
+    private final Simulation simulation;
+    private final long frameNanos;
+    private volatile int state = STOPPED;
+    private volatile Thread thread;
+
+    /**
+     * Constructeur de la classe GameLoop
+     * @param simulation La simulation à faire avancer
+     * @param maxFramesPerSecond Nombre maximal d'images par seconde (0 = pas de limite)
+     */
+    public GameLoop(Simulation simulation, int maxFramesPerSecond) {
+        this.simulation = simulation;
+        this.frameNanos = maxFramesPerSecond > 0 ? 1_000_000_000L / maxFramesPerSecond : 0;
+    }
+
+    /**
+     * Démarre la boucle dans son propre thread
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        state = RUNNING;
+        Thread loopThread = new Thread(this, "game-loop");
+        loopThread.setDaemon(true);
+        thread = loopThread;
+        loopThread.start();
+    }
+
+    /**
+     * Demande à la boucle de s'endormir : plus aucun pas ni aucune image jusqu'à
+     * resume(), une fois le tour en cours terminé (sans l'attendre)
+     */
+    public synchronized void pause() {
+        if (state == RUNNING) {
+            state = PAUSED;
+        }
+    }
+
+    /**
+     * Réveille la boucle endormie par pause()
+     */
+    public synchronized void resume() {
+        if (state == PAUSED) {
+            state = RUNNING;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Arrête la boucle et attend la fin de son thread (après le tour en cours).
+     * Appelé depuis la boucle elle-même, ne fait que demander l'arrêt.
+     */
+    public void stop() {
+        Thread stopped;
+        synchronized (this) {
+            state = STOPPED;
+            stopped = thread;
+            if (stopped == null) {
+                return;
+            }
+            LockSupport.unpark(stopped);
+            thread = null;
+        }
+        // Attendre hors du verrou : le tour en cours peut appeler pause() ou resume()
+        if (stopped != Thread.currentThread()) {
+            try {
+                stopped.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Vérifie si la boucle tourne (démarrée et pas en pause)
+     * @return boolean true si la boucle tourne, false sinon
+     */
+    public boolean isRunning() {
+        return state == RUNNING;
+    }
+
+    /**
+     * Vérifie si la boucle est endormie par pause()
+     * @return boolean true si la boucle est en pause
+     */
+    public boolean isPaused() {
+        return state == PAUSED;
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+
+        Thread self = Thread.currentThread();
+        while (thread == self) {
+            if (state == PAUSED) {
+                // Afficher l'état figé, puis dormir jusqu'à resume() ou stop()
+                simulation.render(1.0);
+                while (state == PAUSED && thread == self) {
+                    LockSupport.park(this);
+                }
+                // Le temps passé en pause n'est pas rattrapé
+                previous = System.nanoTime();
+                accumulator = 0;
+                continue;
+            }
+
+            long frameStart = System.nanoTime();
+            accumulator += frameStart - previous;
+            previous = frameStart;
+
+            // Rattraper les pas en retard, sans dépasser la limite
+            int steps = 0;
+            while (accumulator >= TICK_NANOS && steps < MAX_CATCH_UP_TICKS) {
+                simulation.tick();
+                accumulator -= TICK_NANOS;
+                steps++;
+            }
+
+            // Trop de retard (dialogue bloquant, machine surchargée) : on l'abandonne
+            if (accumulator >= TICK_NANOS) {
+                accumulator %= TICK_NANOS;
+                previous = System.nanoTime();
+            }
+
+            simulation.render((double) accumulator / TICK_NANOS);
+
+            // Attendre la prochaine image ou le prochain pas, selon le plus proche
+            long wait = TICK_NANOS - accumulator;
+            if (frameNanos > 0 && frameNanos < wait) {
+                wait = frameNanos;
+            }
+            wait -= System.nanoTime() - frameStart;
+            if (wait > 0) {
+                // Un réveil anticipé (pause(), stop()) fait simplement refaire un tour
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+}
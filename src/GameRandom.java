@@ -0,0 +1,120 @@
+import java.util.SplittableRandom;
+
+/**
+ * Source de hasard d'une partie, construite à partir d'une graine explicite.
+ * Deux parties avec la même graine et les mêmes entrées sont identiques :
+ * mêmes niveaux aléatoires, mêmes blocs à power-up, mêmes types de power-ups.
+ *
+ * Basée sur SplittableRandom : pas de verrou ni de graine partagée entre
+ * threads (contrairement à Math.random()), chaque partie ou simulation a la sienne.
+ *
+ * Chaque tirage consomme exactement une valeur du générateur et les tirages sont
+ * comptés : l'état se retrouve à partir de la graine et du nombre de tirages
+ * (reprise d'une partie enregistrée, voir ReplayRecorder).
+ */
+public class GameRandom {
+
+    // Constante de mélange utilisée pour dériver une graine par niveau
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final SplittableRandom random;
+    private long draws;
+
+    /**
+     * Constructeur de la classe GameRandom
+     * @param seed La graine
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Recrée une source de hasard après un nombre de tirages donné
+     * @param seed La graine
+     * @param draws Nombre de tirages déjà effectués
+     */
+    public GameRandom(long seed, long draws) {
+        this(seed);
+        for (long i = 0; i < draws; i++) {
+            random.nextLong();
+        }
+        this.draws = draws;
+    }
+
+    /**
+     * Tire une nouvelle graine, pour une partie qui n'a pas besoin d'être rejouée
+     * @return long Une graine
+     */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Crée la source de hasard propre à un niveau. Elle ne dépend que de la graine
+     * et du numéro du niveau : la disposition d'un niveau ne change pas selon
+     * ce qui s'est passé dans les niveaux précédents.
+     * @param levelNumber Numéro du niveau
+     * @return GameRandom La source de hasard du niveau
+     */
+    public GameRandom forLevel(int levelNumber) {
+        return new GameRandom(new SplittableRandom(seed + levelNumber * GOLDEN_GAMMA).nextLong());
+    }
+
+    /**
+     * Crée la source de hasard d'un morceau du champ de blocs du mode sans fin.
+     * Comme pour les niveaux, elle ne dépend que de la graine et du numéro du
+     * morceau : un morceau peut être tiré sur n'importe quel thread, dans
+     * n'importe quel ordre, et donne toujours les mêmes blocs.
+     * @param chunk Numéro du morceau
+     * @return GameRandom La source de hasard du morceau
+     */
+    public GameRandom forChunk(long chunk) {
+        // Graine complémentée : suite distincte de celle des niveaux
+        return new GameRandom(new SplittableRandom(~seed + chunk * GOLDEN_GAMMA).nextLong());
+    }
+
+    /**
+     * Tire un événement qui se produit avec une probabilité donnée
+     * @param probability Probabilité entre 0 et 1
+     * @return boolean true si l'événement se produit
+     */
+    public boolean chance(double probability) {
+        return nextDouble() < probability;
+    }
+
+    /**
+     * Tire un entier entre 0 (inclus) et une borne (exclue)
+     * @param bound La borne
+     * @return int L'entier tiré
+     */
+    public int nextInt(int bound) {
+        return (int) (nextDouble() * bound);
+    }
+
+    /**
+     * Tire un nombre entre 0 (inclus) et 1 (exclu)
+     * @return double Le nombre tiré
+     */
+    public double nextDouble() {
+        draws++;
+        return random.nextDouble();
+    }
+
+    /**
+     * Retourne la graine de départ
+     * @return long La graine
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retourne le nombre de tirages effectués depuis la graine
+     * @return long Le nombre de tirages
+     */
+    public long getDraws() {
+        return draws;
+    }
+}
@@ -0,0 +1,215 @@
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Image;
+
+/**
+ * Dessine une image complète du jeu à partir du dernier instantané publié par
+ * le GameWorld (FrameSnapshot) : le rendu ne lit jamais l'état que la
+ * simulation est en train de modifier, et peut tourner en parallèle.
+ * Partagé par l'affichage passif (JPanel) et l'affichage actif (Canvas).
+ * Le dessin d'une image n'alloue aucun objet : les textes sont dessinés à l'avance
+ * dans des images, et ceux du score, des vies et du niveau ne sont redessinés
+ * que lorsque leur valeur change.
+ */
+public class GameRenderer {
+
+    /**
+     * Texte de la forme "libellé valeur", redessiné seulement quand la valeur change
+     */
+    private static class CachedText {
+        private final String label;
+        private final Font font;
+        private int value;
+        private TextImage image;
+
+        CachedText(String label, Font font) {
+            this.label = label;
+            this.font = font;
+        }
+
+        void draw(Graphics g, int newValue, int x, int baseline) {
+            if (image == null || newValue != value) {
+                value = newValue;
+                image = new TextImage(label + newValue, font, Color.WHITE);
+            }
+            image.draw(g, x, baseline);
+        }
+    }
+
+    public static final Color BACKGROUND = new Color(0, 0, 30); // Bleu foncé
+
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font PAUSE_FONT = new Font("Arial", Font.BOLD, 30);
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.PLAIN, 16);
+    private static final Font PROMPT_FONT = new Font("Arial", Font.BOLD, 20);
+
+    // Messages fixes
+    private static final TextImage PAUSE_TEXT = new TextImage("PAUSE", PAUSE_FONT, Color.WHITE);
+    private static final TextImage RESUME_TEXT = new TextImage("Appuyez sur P pour continuer", MESSAGE_FONT, Color.WHITE);
+    private static final TextImage LAUNCH_TEXT = new TextImage("Appuyez sur ESPACE pour lancer la balle", PROMPT_FONT, Color.WHITE);
+
+    private final CachedText scoreText = new CachedText("Score: ", HUD_FONT);
+    private final CachedText livesText = new CachedText("Vies: ", HUD_FONT);
+    private final CachedText levelText = new CachedText("Niveau: ", HUD_FONT);
+
+    private final SnapshotBuffer frames;
+
+    // Image de la balle, déjà à la taille des balles (null si introuvable)
+    private final Image ballSprite;
+    // Image de la raquette, à la taille de la raquette (redimensionnée quand elle change)
+    private Image paddleSprite;
+    private int paddleSpriteWidth = -1;
+    private int paddleSpriteHeight = -1;
+
+    // Fond et blocs, dessinés une fois puis mis à jour bloc par bloc
+    private final BrickLayer brickLayer = new BrickLayer(BACKGROUND);
+
+    // Mesures du moteur (null : rien n'est mesuré) et leur affichage (F3)
+    private EngineMetrics metrics;
+    private MetricsOverlay overlay;
+    private volatile boolean metricsVisible;
+
+    /**
+     * Constructeur de la classe GameRenderer
+     * @param world Le moteur de jeu à afficher
+     */
+    public GameRenderer(GameWorld world) {
+        this(world.getFrames(), world.getBalls().getWidth(), world.getBalls().getHeight());
+    }
+
+    /**
+     * Constructeur de la classe GameRenderer, pour des instantanés qui ne
+     * viennent pas d'un GameWorld local (client du mode versus)
+     * @param frames Les instantanés à dessiner
+     * @param ballWidth Largeur des balles
+     * @param ballHeight Hauteur des balles
+     */
+    public GameRenderer(SnapshotBuffer frames, int ballWidth, int ballHeight) {
+        this.frames = frames;
+        this.ballSprite = SpriteCache.getScaled("ball.png", ballWidth, ballHeight);
+    }
+
+    /**
+     * Mesure le dessin des images et permet d'afficher les mesures du moteur
+     * @param metrics Les mesures (null pour ne plus mesurer)
+     */
+    public void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+        this.overlay = metrics != null ? new MetricsOverlay(metrics) : null;
+    }
+
+    /**
+     * Affiche ou cache le panneau des mesures du moteur
+     * @param visible true pour afficher le panneau
+     */
+    public void setMetricsVisible(boolean visible) {
+        metricsVisible = visible;
+    }
+
+    /**
+     * Vérifie si le panneau des mesures est affiché
+     * @return boolean true si le panneau est affiché
+     */
+    public boolean isMetricsVisible() {
+        return metricsVisible && overlay != null;
+    }
+
+    /**
+     * Dessine tous les éléments du jeu (un seul thread à la fois)
+     * @param g Graphics de destination
+     * @param c Composant d'affichage
+     * @param width Largeur de la zone de dessin
+     * @param height Hauteur de la zone de dessin
+     * @param alpha Facteur d'interpolation entre le pas précédent et le pas courant
+     * @param paused true si le jeu est en pause
+     */
+    public void render(Graphics g, Component c, int width, int height, double alpha, boolean paused) {
+        EngineMetrics frameMetrics = metrics;
+        long frameStart = frameMetrics != null ? frameMetrics.frameStarted() : 0;
+        FrameSnapshot frame = frames.read();
+
+        // Recopier l'arrière-plan et les blocs depuis la couche statique
+        brickLayer.paint(g, c, frame, width, height);
+        if (frame.scroll >= 0) {
+            g.setColor(Color.RED);
+            g.drawLine(0, EndlessField.DANGER_Y, width, EndlessField.DANGER_Y);
+        }
+
+        // Dessiner les power-ups
+        for (int i = 0; i < frame.powerUpCount; i++) {
+            g.drawImage(PowerUp.getSprite(frame.powerUpType[i]), frame.powerUpX[i], frame.getPowerUpDrawY(i, alpha), c);
+        }
+
+        // Dessiner les balles et la raquette
+        int ballCount = frame.ballCount;
+        if (ballSprite == null) {
+            g.setColor(Color.WHITE);
+        }
+        for (int i = 0; i < ballCount; i++) {
+            int x = frame.getBallDrawX(i, alpha);
+            int y = frame.getBallDrawY(i, alpha);
+            if (ballSprite != null) {
+                g.drawImage(ballSprite, x, y, null);
+            } else {
+                g.fillOval(x, y, frame.ballWidth, frame.ballHeight);
+            }
+        }
+        drawPaddle(g, c, frame, alpha);
+
+        // Afficher le score et les vies
+        scoreText.draw(g, frame.score, 10, 20);
+        livesText.draw(g, frame.lives, 10, 40);
+        levelText.draw(g, frame.level, 10, 60);
+
+        // Afficher un message si le jeu est en pause
+        if (paused) {
+            PAUSE_TEXT.draw(g, width/2 - 50, height/2);
+            RESUME_TEXT.draw(g, width/2 - 100, height/2 + 30);
+        }
+
+        // Afficher un message pour démarrer le jeu
+        if (!frame.ballLaunched) {
+            LAUNCH_TEXT.draw(g, width/2 - 180, height/2 + 100);
+        }
+
+        // Mesures du moteur (F3)
+        if (metricsVisible && overlay != null) {
+            overlay.draw(g, width, frame.blockCount, ballCount);
+        }
+        if (frameMetrics != null) {
+            frameMetrics.frameFinished(frameStart);
+        }
+    }
+
+    /**
+     * Dessine la raquette à sa position interpolée
+     * @param g Graphics de destination
+     * @param c Composant d'affichage
+     * @param frame L'instantané de la partie
+     * @param alpha Facteur d'interpolation
+     */
+    private void drawPaddle(Graphics g, Component c, FrameSnapshot frame, double alpha) {
+        int x = frame.getPaddleDrawX(alpha);
+        int y = frame.getPaddleDrawY(alpha);
+        int width = frame.paddleWidth;
+        int height = frame.paddleHeight;
+
+        // Image redimensionnée seulement quand la raquette change de taille
+        if (width != paddleSpriteWidth || height != paddleSpriteHeight) {
+            paddleSprite = SpriteCache.getScaled("paddle.png", width, height);
+            paddleSpriteWidth = width;
+            paddleSpriteHeight = height;
+        }
+        if (paddleSprite != null) {
+            g.drawImage(paddleSprite, x, y, c);
+        } else {
+            // Couleur de secours si l'image n'est pas chargée
+            g.setColor(Color.WHITE);
+            g.fillRect(x, y, width, height);
+            g.setColor(Color.BLACK);
+            g.drawRect(x, y, width, height);
+        }
+    }
+}
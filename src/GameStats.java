@@ -1,15 +1,10 @@
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * Classe qui gère les statistiques du jeu (score, vies, etc.)
+ * Les meilleurs scores sont gérés par HighScoreRepository.
  */
 public class GameStats {
     private int score;
@@ -17,9 +12,7 @@ public class GameStats {
     private int currentLevel;
     private boolean gameOver;
     private boolean levelCompleted;
-    private List<Integer> highScores;
-    private static final String HIGH_SCORES_FILE = "highscores.txt";
-    private static final int MAX_HIGH_SCORES = 5;
+    private long seed; // Graine du hasard de la partie (voir GameRandom)
     
     /**
      * Constructeur de la classe GameStats
@@ -30,8 +23,7 @@ public class GameStats {
         this.currentLevel = 1;
         this.gameOver = false;
         this.levelCompleted = false;
-        this.highScores = new ArrayList<>();
-        loadHighScores();
+        this.seed = GameRandom.newSeed();
     }
     
     /**
@@ -116,80 +108,57 @@ public class GameStats {
     }
     
     /**
-     * Réinitialise les statistiques pour une nouvelle partie
+     * Retourne la graine du hasard de la partie
+     * @return long La graine
      */
-    public void reset() {
-        this.score = 0;
-        this.lives = 3;
-        this.currentLevel = 1;
-        this.gameOver = false;
-        this.levelCompleted = false;
+    public long getSeed() {
+        return seed;
     }
     
     /**
-     * Charge les meilleurs scores depuis un fichier
-     */
-    private void loadHighScores() {
-        File file = new File(HIGH_SCORES_FILE);
-        if (file.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    try {
-                        highScores.add(Integer.parseInt(line));
-                    } catch (NumberFormatException e) {
-                        // Ignorer les lignes qui ne sont pas des nombres
-                    }
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+     * Définit la graine du hasard de la partie
+     * @param seed La graine
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
     }
     
     /**
-     * Sauvegarde les meilleurs scores dans un fichier
+     * Réinitialise les statistiques pour une nouvelle partie (la graine est conservée)
      */
-    public void saveHighScores() {
-        // Ajouter le score actuel à la liste
-        highScores.add(score);
-        
-        // Trier les scores par ordre décroissant
-        Collections.sort(highScores, Collections.reverseOrder());
-        
-        // Garder seulement les MAX_HIGH_SCORES meilleurs scores
-        if (highScores.size() > MAX_HIGH_SCORES) {
-            highScores = highScores.subList(0, MAX_HIGH_SCORES);
-        }
-        
-        // Sauvegarder les scores dans un fichier
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(HIGH_SCORES_FILE))) {
-            for (Integer highScore : highScores) {
-                writer.write(highScore.toString());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public void reset() {
+        this.score = 0;
+        this.lives = 3;
+        this.currentLevel = 1;
+        this.gameOver = false;
+        this.levelCompleted = false;
     }
     
     /**
-     * Retourne la liste des meilleurs scores
-     * @return List<Integer> La liste des meilleurs scores
+     * Écrit l'état de la partie (sans les meilleurs scores)
+     * @param out Destination
+     * @throws IOException En cas d'erreur d'écriture
      */
-    public List<Integer> getHighScores() {
-        return highScores;
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(score);
+        out.writeInt(lives);
+        out.writeInt(currentLevel);
+        out.writeBoolean(gameOver);
+        out.writeBoolean(levelCompleted);
+        out.writeLong(seed);
     }
     
     /**
-     * Vérifie si le score actuel est un nouveau record
-     * @return boolean true si c'est un nouveau record, false sinon
+     * Relit l'état de la partie écrit par writeState
+     * @param in Source
+     * @throws IOException En cas d'erreur de lecture
      */
-    public boolean isNewHighScore() {
-        if (highScores.isEmpty()) {
-            return true;
-        }
-        
-        return score > Collections.min(highScores) || highScores.size() < MAX_HIGH_SCORES;
+    public void readState(DataInput in) throws IOException {
+        score = in.readInt();
+        lives = in.readInt();
+        currentLevel = in.readInt();
+        gameOver = in.readBoolean();
+        levelCompleted = in.readBoolean();
+        seed = in.readLong();
     }
 }
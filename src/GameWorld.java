@@ -0,0 +1,778 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Moteur du jeu sans interface graphique : balle, raquette, blocs, power-ups,
+ * statistiques et niveau courant. La simulation avance d'un pas à chaque appel
+ * de step() et ne dépend d'aucun composant Swing, ce qui permet de la faire
+ * tourner sans fenêtre (simulations, tests de non-régression).
+ */
+public class GameWorld {
+
+	/**
+	 * Reçoit les événements de la partie qui demandent une réaction de la vue
+	 */
+	public interface Listener {
+		/**
+		 * Un niveau vient d'être terminé (appelé avant le passage au niveau suivant)
+		 * @param level Numéro du niveau terminé
+		 * @param score Score actuel
+		 */
+		void levelCompleted(int level, int score);
+
+		/**
+		 * Un bloc a été touché (et peut-être détruit)
+		 * @param block Indice du bloc dans le BlockField du niveau
+		 */
+		void blockHit(int block);
+
+		/**
+		 * La partie est perdue
+		 */
+		void gameOver();
+
+		/**
+		 * Le dernier niveau est terminé
+		 */
+		void victory();
+	}
+
+	// Entrées d'un pas de simulation (masque de bits)
+	public static final int INPUT_LEFT = 1;
+	public static final int INPUT_RIGHT = 2;
+	public static final int INPUT_LAUNCH = 4;
+
+	public static final int DEFAULT_WIDTH = 480;
+	public static final int DEFAULT_HEIGHT = 560;
+
+	// Nombre maximum de balles en jeu (multi-balle et mode chaos)
+	public static final int MAX_BALLS = 8192;
+
+	public static final int BALL_WIDTH = 50;
+	public static final int BALL_HEIGHT = 45;
+	private static final int BALL_START_X = 300;
+	private static final int BALL_START_Y = 435;
+	private static final int BALL_SPEED_NORMAL = 3;
+	// Déplacement de la raquette par pas quand une flèche est enfoncée (500 pixels/s)
+	static final int PADDLE_SPEED = 5;
+
+	private BlockField blocks;
+	private BlockGrid grid;
+	private final BallSet balls = new BallSet(BALL_WIDTH, BALL_HEIGHT);
+	private final BallStepper stepper = new BallStepper();
+	// Tests de collision balle-bloc du dernier pas (mesures du moteur)
+	private long collisionTests;
+	private Block paddle;
+	private final PowerUpPool powerUps = new PowerUpPool();
+	private Level currentLevel;
+	private LevelPack pack;
+	// Champ de blocs du mode sans fin (null pour la campagne)
+	private EndlessField endlessField;
+	private boolean endless;
+	private final GameStats stats;
+	// Hasard de la partie (power-ups), créé à partir de la graine des statistiques
+	private GameRandom random;
+
+	private int width;
+	private int height;
+	private boolean gameStarted;
+	private boolean finished;
+	private int chaosBalls;
+	private long tick; // Nombre de pas joués depuis le début de la partie
+	private Listener listener;
+
+	// Instantanés publiés pour le rendu (null tant qu'aucun rendu ne les demande)
+	private volatile SnapshotBuffer frames;
+	// Change à chaque remplacement des blocs (nouveau niveau, état rechargé)
+	private long layout;
+
+	/**
+	 * Constructeur de la classe GameWorld
+	 * @param width Largeur de l'aire de jeu
+	 * @param height Hauteur de l'aire de jeu
+	 * @param stats Statistiques de la partie
+	 */
+	public GameWorld(int width, int height, GameStats stats) {
+		this(width, height, stats, LevelPack.getDefault());
+	}
+
+	/**
+	 * Constructeur de la classe GameWorld
+	 * @param width Largeur de l'aire de jeu
+	 * @param height Hauteur de l'aire de jeu
+	 * @param stats Statistiques de la partie
+	 * @param pack Niveaux de la campagne
+	 */
+	public GameWorld(int width, int height, GameStats stats, LevelPack pack) {
+		this.width = width;
+		this.height = height;
+		this.stats = stats;
+		this.pack = pack;
+		this.random = new GameRandom(stats.getSeed());
+		reset();
+	}
+
+	/**
+	 * Réinitialise le jeu pour une nouvelle partie ou un nouveau niveau
+	 */
+	public void reset() {
+		setUp();
+		publishFrame();
+	}
+
+	/**
+	 * Prépare le niveau courant : blocs, raquette et balle sur la raquette
+	 */
+	private void setUp() {
+		layout++;
+		powerUps.clear();
+		paddle = new Block(175, 480, 200, 40, "paddle.png");
+
+		if (endlessField != null) {
+			endlessField.stop();
+			endlessField = null;
+		}
+		if (endless) {
+			// Mode sans fin : les rangées sont tirées au fur et à mesure
+			currentLevel = null;
+			endlessField = new EndlessField(random);
+			endlessField.start();
+			blocks = endlessField.getBlocks();
+			grid = endlessField.getGrid();
+		} else {
+			loadLevel();
+		}
+
+		balls.clear();
+		balls.add(BALL_START_X, BALL_START_Y, BALL_SPEED_NORMAL, BALL_SPEED_NORMAL);
+
+		gameStarted = false;
+	}
+
+	/**
+	 * Charge le niveau courant de la campagne
+	 */
+	private void loadLevel() {
+		// Charger le niveau actuel
+		currentLevel = new Level(pack, stats.getCurrentLevel(), random.forLevel(stats.getCurrentLevel()));
+		blocks = currentLevel.getBlocks();
+
+		// Vérifier si les blocs ont été correctement chargés (l'événement
+		// LevelLoad de Level note le niveau et son nombre de blocs)
+		if (blocks.size() == 0) {
+			// Créer manuellement les blocs si le niveau n'a pas fonctionné
+			for (int type = BlockField.TYPE_BLUE; type <= BlockField.TYPE_RED; type++)
+				for (int i = 0; i < 8; i++)
+					blocks.add((i*60+2), type*25, 60, 25, type, 1, false);
+		}
+
+		// Index spatial des blocs pour la détection des collisions
+		grid = new BlockGrid(blocks, Level.GRID_ORIGIN_X, Level.GRID_ORIGIN_Y,
+				Level.CELL_WIDTH, Level.CELL_HEIGHT);
+	}
+
+	/**
+	 * Recommence une partie complète depuis le premier niveau, avec une nouvelle graine
+	 */
+	public void newGame() {
+		newGame(GameRandom.newSeed());
+	}
+
+	/**
+	 * Recommence une partie complète depuis le premier niveau. La même graine
+	 * et les mêmes entrées donnent la même partie.
+	 * @param seed Graine du hasard de la partie
+	 */
+	public void newGame(long seed) {
+		stats.reset();
+		stats.setSeed(seed);
+		random = new GameRandom(seed);
+		finished = false;
+		tick = 0;
+		reset();
+	}
+
+	/**
+	 * Avance la simulation d'un pas et publie l'instantané du rendu
+	 * @param inputs Entrées du joueur pour ce pas (combinaison de INPUT_* : touches enfoncées pendant le pas)
+	 */
+	public void step(int inputs) {
+		advance(inputs);
+		publishFrame();
+	}
+
+	/**
+	 * Avance la simulation d'un pas
+	 * @param inputs Entrées du joueur pour ce pas
+	 */
+	private void advance(int inputs) {
+		if (finished) {
+			return;
+		}
+		tick++;
+		collisionTests = 0;
+
+		// Mémoriser les positions pour l'interpolation du rendu
+		balls.savePositions();
+		paddle.savePosition();
+
+		// Déplacer la raquette
+		if ((inputs & INPUT_RIGHT) != 0 && paddle.x < (width - paddle.width)) {
+			paddle.x += PADDLE_SPEED;
+		}
+		if ((inputs & INPUT_LEFT) != 0 && paddle.x > 0) {
+			paddle.x -= PADDLE_SPEED;
+		}
+
+		// Lancer la balle
+		if ((inputs & INPUT_LAUNCH) != 0 && !gameStarted) {
+			gameStarted = true;
+			launchChaosBalls();
+		}
+
+		// Ne pas mettre à jour si le jeu n'a pas commencé
+		if (!gameStarted) {
+			// La balle reste sur la raquette
+			balls.setPosition(0, paddle.x + paddle.width/2 - BALL_WIDTH/2, paddle.y - BALL_HEIGHT);
+			return;
+		}
+
+		// Mode sans fin : faire descendre le champ de blocs ; une rangée qui
+		// atteint la ligne de danger avec des blocs coûte une vie
+		if (endlessField != null) {
+			if (endlessField.scroll(balls) > 0) {
+				stats.loseLife();
+				if (stats.isGameOver()) {
+					finished = true;
+					if (listener != null) {
+						listener.gameOver();
+					}
+					return;
+				}
+			}
+			while (stats.getCurrentLevel() < endlessField.getStage()) {
+				stats.nextLevel();
+			}
+		}
+
+		// Déplacer les balles (en parallèle quand elles sont nombreuses) sans toucher aux blocs
+		stepper.move(balls, blocks, grid, paddle, width);
+		collisionTests = stepper.getTestCount(balls.size());
+
+		// Appliquer les coups sur un seul thread, dans l'ordre des balles : un bloc
+		// touché par plusieurs balles n'est détruit qu'une fois, et le résultat ne
+		// dépend pas du nombre de threads
+		for (int i = 0; i < balls.size(); i++) {
+			for (int contact = 0; contact < stepper.getHitCount(i); contact++) {
+				int block = stepper.getHit(i, contact);
+				if (blocks.isDestroyed(block)) {
+					continue;
+				}
+				EngineEvents.Collision event = new EngineEvents.Collision();
+				event.begin();
+				int type = blocks.getType(block);
+				boolean levelOver = hitBlock(block);
+				if (event.shouldCommit()) {
+					event.ball = i;
+					event.block = block;
+					event.blockType = type;
+					event.destroyed = blocks.isDestroyed(block);
+					event.commit();
+				}
+				if (levelOver) {
+					return;
+				}
+			}
+		}
+
+		// Retirer les balles tombées en bas de l'écran ; la vie est perdue
+		// quand il n'en reste aucune
+		balls.removeBelow(height);
+		if (balls.size() == 0) {
+			stats.loseLife();
+
+			if (stats.isGameOver()) {
+				// Fin de partie
+				finished = true;
+				if (listener != null) {
+					listener.gameOver();
+				}
+				return;
+			}
+
+			// Réinitialiser la position de la balle et de la raquette
+			balls.add(BALL_START_X, BALL_START_Y, BALL_SPEED_NORMAL, BALL_SPEED_NORMAL);
+			paddle.x = 175;
+			paddle.y = 480;
+			paddle.savePosition();
+			gameStarted = false;
+		}
+
+		// Mettre à jour les power-ups et vérifier les collisions
+		for (int i = 0; i < powerUps.size(); i++) {
+			PowerUp powerUp = powerUps.get(i);
+			powerUp.update();
+
+			// Vérifier si le power-up est collecté par la raquette
+			if (powerUp.intersects(paddle) && !powerUp.isCollected()) {
+				powerUp.collect();
+				applyPowerUp(powerUp.getType());
+				powerUps.remove(i--);
+			} else if (powerUp.y > height) {
+				// Rendre à la réserve les power-ups qui sortent de l'écran
+				powerUps.remove(i--);
+			}
+		}
+
+		// Retirer les blocs détruits pendant ce pas de la liste des blocs vivants
+		blocks.compact();
+	}
+
+	/**
+	 * Applique un coup de la balle sur un bloc
+	 * @param block Indice du bloc touché
+	 * @return boolean true si ce coup a terminé le niveau
+	 */
+	private boolean hitBlock(int block) {
+		// Diminuer les points de vie du bloc
+		boolean destroyed = blocks.hit(block);
+		if (listener != null) {
+			listener.blockHit(block);
+		}
+		if (!destroyed) {
+			return false;
+		}
+
+		// Le bloc est détruit
+		grid.remove(block, blocks);
+		stats.addScore(blocks.getValue(block));
+
+		// Vérifier si le bloc contient un power-up
+		if (blocks.hasPowerUp(block)) {
+			powerUps.spawn(blocks.getX(block) + blocks.getWidth(block)/2, blocks.getY(block),
+					random.nextInt(PowerUp.TYPE_COUNT) + 1); // Type aléatoire
+		}
+
+		// Le mode sans fin n'a pas de fin de niveau
+		if (currentLevel == null) {
+			return false;
+		}
+
+		// Mettre à jour le nombre de blocs restants
+		currentLevel.blockDestroyed();
+
+		// Vérifier si le niveau est terminé
+		if (currentLevel.isCompleted()) {
+			completeLevel();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * En mode chaos, lance des balles supplémentaires depuis la raquette
+	 * dans des directions réparties
+	 */
+	private void launchChaosBalls() {
+		double x = balls.getX(0);
+		double y = balls.getY(0);
+		for (int k = 1; k < chaosBalls && balls.size() < MAX_BALLS; k++) {
+			int movX = k % 11 - 5;
+			if (movX == 0) {
+				movX = 1;
+			}
+			balls.add(x, y, movX, -(2 + k % 4));
+		}
+	}
+
+	/**
+	 * Divise chaque balle en trois : la balle d'origine, une copie qui part dans
+	 * la direction horizontale opposée et une copie qui part dans la direction
+	 * verticale opposée
+	 */
+	private void splitBalls() {
+		int count = balls.size();
+		for (int i = 0; i < count && balls.size() + 2 <= MAX_BALLS; i++) {
+			double x = balls.getX(i);
+			double y = balls.getY(i);
+			int movX = balls.getMovX(i);
+			int movY = balls.getMovY(i);
+			balls.add(x, y, -movX, movY);
+			balls.add(x, y, movX, -movY);
+		}
+	}
+
+	/**
+	 * Termine le niveau courant et passe au suivant, ou termine la partie
+	 */
+	private void completeLevel() {
+		stats.setLevelCompleted(true);
+
+		// Vérifier si c'est le dernier niveau
+		if (stats.getCurrentLevel() >= Math.max(1, pack.getLevelCount())) {
+			// Victoire finale
+			finished = true;
+			if (listener != null) {
+				listener.victory();
+			}
+		} else {
+			// Passer au niveau suivant
+			if (listener != null) {
+				listener.levelCompleted(stats.getCurrentLevel(), stats.getScore());
+			}
+			stats.nextLevel();
+			setUp();
+		}
+	}
+
+	/**
+	 * Applique l'effet d'un power-up
+	 * @param type Type de power-up
+	 */
+	private void applyPowerUp(int type) {
+		switch (type) {
+			case PowerUp.TYPE_EXPAND_PADDLE:
+				paddle.resizePaddle(1.5);
+				break;
+			case PowerUp.TYPE_SHRINK_PADDLE:
+				paddle.resizePaddle(0.75);
+				break;
+			case PowerUp.TYPE_SLOW_BALL:
+				setBallSpeed(2);
+				break;
+			case PowerUp.TYPE_FAST_BALL:
+				setBallSpeed(5);
+				break;
+			case PowerUp.TYPE_EXTRA_LIFE:
+				stats.addLife();
+				break;
+			case PowerUp.TYPE_MULTI_BALL:
+				splitBalls();
+				break;
+		}
+	}
+
+	/**
+	 * Donne la même vitesse à toutes les balles, sans changer leur direction
+	 * @param speed Vitesse sur chaque axe
+	 */
+	private void setBallSpeed(int speed) {
+		for (int i = 0; i < balls.size(); i++) {
+			balls.setVelocity(i, (balls.getMovX(i) > 0) ? speed : -speed, (balls.getMovY(i) > 0) ? speed : -speed);
+		}
+	}
+
+	/**
+	 * Change les niveaux de la campagne (pris en compte à la prochaine partie)
+	 * @param pack Les niveaux
+	 */
+	public void setLevelPack(LevelPack pack) {
+		this.pack = pack;
+	}
+
+	/**
+	 * Active le mode sans fin (pris en compte à la prochaine partie)
+	 * @param endless true pour le mode sans fin, false pour la campagne
+	 */
+	public void setEndless(boolean endless) {
+		this.endless = endless;
+	}
+
+	/**
+	 * Vérifie si la partie est en mode sans fin
+	 * @return boolean true en mode sans fin
+	 */
+	public boolean isEndless() {
+		return endless;
+	}
+
+	/**
+	 * Retourne le champ de blocs du mode sans fin
+	 * @return EndlessField Le champ, ou null pour la campagne
+	 */
+	public EndlessField getEndlessField() {
+		return endlessField;
+	}
+
+	/**
+	 * Active le mode chaos : chaque lancement envoie un grand nombre de balles
+	 * @param count Nombre de balles par lancement (0 ou 1 pour le jeu normal)
+	 */
+	public void setChaosBalls(int count) {
+		this.chaosBalls = Math.max(0, Math.min(MAX_BALLS, count));
+	}
+
+	/**
+	 * Écrit l'état complet de la partie, pour la reprendre plus tard au même point.
+	 * Les blocs ne sont pas tous écrits : le niveau se reconstruit à partir de la
+	 * graine, seuls les points de vie des blocs le sont.
+	 * @param out Destination
+	 * @throws IOException En cas d'erreur d'écriture
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		out.writeLong(tick);
+		out.writeInt(width);
+		out.writeInt(height);
+		out.writeBoolean(gameStarted);
+		out.writeBoolean(finished);
+		out.writeInt(chaosBalls);
+		out.writeBoolean(endless);
+		stats.writeState(out);
+		out.writeLong(random.getDraws());
+
+		if (endlessField != null) {
+			endlessField.writeState(out);
+		} else {
+			// Points de vie des blocs (0 pour un bloc détruit)
+			out.writeInt(blocks.size());
+			for (int i = 0; i < blocks.size(); i++) {
+				out.writeShort(blocks.isDestroyed(i) ? 0 : blocks.getHitPoints(i));
+			}
+		}
+
+		out.writeInt(paddle.x);
+		out.writeInt(paddle.y);
+		out.writeInt(paddle.width);
+
+		out.writeInt(balls.size());
+		for (int i = 0; i < balls.size(); i++) {
+			out.writeDouble(balls.getX(i));
+			out.writeDouble(balls.getY(i));
+			out.writeInt(balls.getMovX(i));
+			out.writeInt(balls.getMovY(i));
+		}
+
+		out.writeInt(powerUps.size());
+		for (int i = 0; i < powerUps.size(); i++) {
+			PowerUp powerUp = powerUps.get(i);
+			out.writeInt(powerUp.x);
+			out.writeInt(powerUp.y);
+			out.writeByte(powerUp.getType());
+		}
+	}
+
+	/**
+	 * Reprend une partie à partir d'un état écrit par writeState
+	 * @param in Source
+	 * @throws IOException En cas d'erreur de lecture
+	 */
+	public void readState(DataInput in) throws IOException {
+		tick = in.readLong();
+		width = in.readInt();
+		height = in.readInt();
+		boolean started = in.readBoolean();
+		finished = in.readBoolean();
+		chaosBalls = in.readInt();
+		endless = in.readBoolean();
+		stats.readState(in);
+		random = new GameRandom(stats.getSeed(), in.readLong());
+
+		// Reconstruire le niveau depuis la graine, puis appliquer les coups déjà reçus
+		setUp();
+		gameStarted = started;
+		if (endlessField != null) {
+			endlessField.readState(in);
+		} else {
+			int count = in.readInt();
+			if (count != blocks.size()) {
+				throw new IOException("Le niveau ne correspond pas à l'état enregistré");
+			}
+			for (int i = 0; i < count; i++) {
+				int hitPoints = in.readShort();
+				if (hitPoints <= 0) {
+					blocks.setHitPoints(i, 1);
+					blocks.hit(i);
+					grid.remove(i, blocks);
+					currentLevel.blockDestroyed();
+				} else {
+					blocks.setHitPoints(i, hitPoints);
+				}
+			}
+			blocks.compact();
+		}
+
+		paddle.x = in.readInt();
+		paddle.y = in.readInt();
+		paddle.width = in.readInt();
+		paddle.savePosition();
+
+		balls.clear();
+		int ballCount = in.readInt();
+		for (int i = 0; i < ballCount; i++) {
+			balls.add(in.readDouble(), in.readDouble(), in.readInt(), in.readInt());
+		}
+
+		int powerUpCount = in.readInt();
+		for (int i = 0; i < powerUpCount; i++) {
+			powerUps.spawn(in.readInt(), in.readInt(), in.readByte());
+		}
+		publishFrame();
+	}
+
+	/**
+	 * Retourne les instantanés de la partie destinés au rendu. Le premier appel
+	 * active leur publication, à chaque pas et à chaque changement de niveau ;
+	 * sans rendu, la simulation ne recopie rien.
+	 * @return SnapshotBuffer Les instantanés
+	 */
+	public synchronized SnapshotBuffer getFrames() {
+		if (frames == null) {
+			SnapshotBuffer buffer = new SnapshotBuffer();
+			buffer.publish(this);
+			frames = buffer;
+		}
+		return frames;
+	}
+
+	/**
+	 * Publie l'état courant pour le rendu, si un rendu l'a demandé
+	 */
+	private void publishFrame() {
+		SnapshotBuffer buffer = frames;
+		if (buffer != null) {
+			buffer.publish(this);
+		}
+	}
+
+	/**
+	 * Retourne le numéro de la disposition des blocs, qui change quand les blocs
+	 * sont remplacés (nouveau niveau, état rechargé)
+	 * @return long Le numéro
+	 */
+	public long getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Retourne le nombre de pas joués depuis le début de la partie
+	 * @return long Le numéro du prochain pas
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Définit les dimensions de l'aire de jeu, entre deux pas (comme step(),
+	 * depuis le thread qui fait avancer la partie, pour que les replays notent
+	 * le changement au bon pas)
+	 * @param width Largeur
+	 * @param height Hauteur
+	 */
+	public void setBounds(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Définit l'objet qui reçoit les événements de la partie
+	 * @param listener Le listener (peut être null)
+	 */
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Retourne la largeur de l'aire de jeu
+	 * @return int La largeur
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Retourne la hauteur de l'aire de jeu
+	 * @return int La hauteur
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Retourne l'index spatial des blocs du niveau courant
+	 * @return BlockGrid L'index des blocs
+	 */
+	public BlockGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Retourne les blocs du niveau courant
+	 * @return BlockField Les blocs
+	 */
+	public BlockField getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * Retourne le nombre de tests de collision entre une balle et un bloc pendant le dernier pas
+	 * @return long Le nombre de tests
+	 */
+	public long getCollisionTests() {
+		return collisionTests;
+	}
+
+	/**
+	 * Retourne les balles en jeu
+	 * @return BallSet Les balles
+	 */
+	public BallSet getBalls() {
+		return balls;
+	}
+
+	/**
+	 * Retourne la raquette
+	 * @return Block La raquette
+	 */
+	public Block getPaddle() {
+		return paddle;
+	}
+
+	/**
+	 * Retourne les power-ups en train de tomber
+	 * @return PowerUpPool Les power-ups en jeu
+	 */
+	public PowerUpPool getPowerUps() {
+		return powerUps;
+	}
+
+	/**
+	 * Retourne les statistiques de la partie
+	 * @return GameStats Les statistiques
+	 */
+	public GameStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Retourne les niveaux de la campagne
+	 * @return LevelPack Les niveaux
+	 */
+	public LevelPack getLevelPack() {
+		return pack;
+	}
+
+	/**
+	 * Retourne le niveau courant
+	 * @return Level Le niveau courant (null en mode sans fin)
+	 */
+	public Level getCurrentLevel() {
+		return currentLevel;
+	}
+
+	/**
+	 * Vérifie si la balle a été lancée
+	 * @return boolean true si la balle est en jeu, false si elle est sur la raquette
+	 */
+	public boolean isBallLaunched() {
+		return gameStarted;
+	}
+
+	/**
+	 * Vérifie si la partie est terminée (défaite ou victoire)
+	 * @return boolean true si la partie est terminée, false sinon
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+}
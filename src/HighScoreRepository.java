@@ -0,0 +1,288 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meilleurs scores, partagés par le menu et le jeu.
+ *
+ * Le fichier est lu une seule fois, à la création ; ensuite la liste est servie
+ * depuis la mémoire. Chaque nouveau record est écrit sur un thread à part, dans
+ * un fichier temporaire qui remplace ensuite le fichier des scores d'un seul
+ * coup (déplacement atomique) : une coupure pendant l'écriture laisse l'ancienne
+ * liste intacte, et le thread de simulation ne touche jamais au disque.
+ *
+ * Si un classement (Leaderboard) est associé, chaque partie y est aussi ajoutée,
+ * par le même thread de sauvegarde.
+ */
+public class HighScoreRepository {
+
+    /**
+     * Reçoit la nouvelle liste des meilleurs scores à chaque record
+     */
+    public interface Listener {
+        /**
+         * Appelé sur le thread qui a enregistré le record
+         * @param highScores Les meilleurs scores, du plus haut au plus bas
+         */
+        void highScoresChanged(List<Integer> highScores);
+    }
+
+    public static final int MAX_HIGH_SCORES = 5;
+    private static final String DEFAULT_FILE = "highscores.txt";
+    private static final String DEFAULT_LEADERBOARD = "leaderboard.dat";
+
+    private static HighScoreRepository defaultRepository;
+
+    private final Path file;
+    // Liste non modifiable, remplacée à chaque record
+    private volatile List<Integer> highScores;
+    private volatile Leaderboard leaderboard;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Sauvegarde des scores");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Charge les meilleurs scores d'un fichier
+     * @param file Le fichier des scores (il peut ne pas exister)
+     */
+    public HighScoreRepository(File file) {
+        this.file = file.toPath();
+        this.highScores = Collections.unmodifiableList(load(this.file));
+    }
+
+    /**
+     * Retourne les meilleurs scores du jeu (highscores.txt) et le classement de
+     * toutes les parties (leaderboard.dat), chargés au premier appel.
+     * Les records en attente sont écrits avant l'arrêt du programme.
+     * @return HighScoreRepository Les meilleurs scores
+     */
+    public static synchronized HighScoreRepository getDefault() {
+        if (defaultRepository == null) {
+            HighScoreRepository repository = new HighScoreRepository(new File(DEFAULT_FILE));
+            try {
+                repository.setLeaderboard(new Leaderboard(new File(DEFAULT_LEADERBOARD)));
+            } catch (IOException e) {
+                System.err.println("Erreur lors de l'ouverture du classement: " + e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(repository::close, "Arrêt de la sauvegarde des scores"));
+            defaultRepository = repository;
+        }
+        return defaultRepository;
+    }
+
+    /**
+     * Lit le fichier des scores
+     * @param file Le fichier
+     * @return List<Integer> Les scores triés, du plus haut au plus bas
+     */
+    private static List<Integer> load(Path file) {
+        List<Integer> scores = new ArrayList<>();
+        if (Files.exists(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    try {
+                        scores.add(Integer.parseInt(line.trim()));
+                    } catch (NumberFormatException e) {
+                        // Ignorer les lignes qui ne sont pas des nombres
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la lecture des meilleurs scores: " + e.getMessage());
+            }
+        }
+        Collections.sort(scores, Collections.reverseOrder());
+        return scores.size() > MAX_HIGH_SCORES ? new ArrayList<>(scores.subList(0, MAX_HIGH_SCORES)) : scores;
+    }
+
+    /**
+     * Retourne les meilleurs scores
+     * @return List<Integer> Les scores, du plus haut au plus bas (liste non modifiable)
+     */
+    public List<Integer> getHighScores() {
+        return highScores;
+    }
+
+    /**
+     * Vérifie si un score entre dans les meilleurs scores
+     * @param score Le score
+     * @return boolean true si c'est un nouveau record
+     */
+    public boolean isHighScore(int score) {
+        List<Integer> scores = highScores;
+        return scores.size() < MAX_HIGH_SCORES || score > scores.get(scores.size() - 1);
+    }
+
+    /**
+     * Enregistre un score s'il entre dans les meilleurs scores. La liste en
+     * mémoire est mise à jour tout de suite ; le fichier est écrit plus tard.
+     * @param score Le score de la partie
+     * @return boolean true si c'est un nouveau record
+     */
+    public boolean submit(int score) {
+        List<Integer> updated;
+        synchronized (this) {
+            if (!isHighScore(score)) {
+                return false;
+            }
+            List<Integer> scores = new ArrayList<>(highScores);
+            scores.add(score);
+            Collections.sort(scores, Collections.reverseOrder());
+            if (scores.size() > MAX_HIGH_SCORES) {
+                scores.remove(scores.size() - 1);
+            }
+            updated = Collections.unmodifiableList(scores);
+            highScores = updated;
+            writer.execute(() -> save(updated));
+        }
+
+        for (Listener listener : listeners) {
+            listener.highScoresChanged(updated);
+        }
+        return true;
+    }
+
+    /**
+     * Enregistre une partie terminée : son score entre dans les meilleurs scores
+     * s'il le mérite, et la partie est ajoutée au classement en arrière-plan
+     * @param player Nom du joueur
+     * @param score Score de la partie
+     * @param level Niveau atteint
+     * @param seed Graine de la partie
+     * @return boolean true si c'est un nouveau record
+     */
+    public boolean submit(String player, int score, int level, long seed) {
+        Leaderboard board = leaderboard;
+        if (board != null) {
+            long timestamp = System.currentTimeMillis();
+            writer.execute(() -> {
+                try {
+                    board.add(player, score, level, seed, timestamp);
+                } catch (IOException e) {
+                    System.err.println("Erreur lors de l'ajout au classement: " + e.getMessage());
+                }
+            });
+        }
+        return submit(score);
+    }
+
+    /**
+     * Retourne le rang d'un score parmi toutes les parties du classement
+     * @param score Le score
+     * @return int Le rang (à partir de 1), ou 0 sans classement
+     */
+    public int getRank(int score) {
+        Leaderboard board = leaderboard;
+        return board == null ? 0 : board.getRank(score);
+    }
+
+    /**
+     * Retourne le classement de toutes les parties
+     * @return Leaderboard Le classement, ou null s'il n'y en a pas
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Associe un classement, qui recevra les parties suivantes
+     * @param leaderboard Le classement (null pour ne plus en tenir)
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * Écrit une liste de scores dans un fichier temporaire puis le met à la
+     * place du fichier des scores (thread de sauvegarde)
+     * @param scores Les scores à écrire
+     */
+    private void save(List<Integer> scores) {
+        // Un record plus récent sera écrit par sa propre tâche
+        if (scores != highScores) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (Integer score : scores) {
+            text.append(score).append(System.lineSeparator());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        EngineEvents.HighScoreSave event = new EngineEvents.HighScoreSave();
+        event.begin();
+        event.path = file.toString();
+        event.scores = scores.size();
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+                event.bytes = bytes.remaining();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                // Le contenu doit être sur le disque avant de remplacer l'ancien fichier
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            event.succeeded = true;
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la sauvegarde des meilleurs scores: " + e.getMessage());
+        }
+        event.commit();
+    }
+
+    /**
+     * Ajoute un objet prévenu à chaque record
+     * @param listener Le listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Retire un listener
+     * @param listener Le listener
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Termine les écritures en attente, arrête le thread de sauvegarde et ferme le classement
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Leaderboard board = leaderboard;
+        if (board != null) {
+            try {
+                board.close();
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la fermeture du classement: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de valeurs positives (durées en nanosecondes, nombres de tests)
+ * à coût fixe : enregistrer une valeur incrémente un compteur, sans allocation
+ * ni verrou. Les valeurs sont rangées par intervalles logarithmiques (huit par
+ * puissance de deux) : les centiles sont exacts à 12,5 % près, de la
+ * nanoseconde à plusieurs minutes.
+ *
+ * Un seul thread enregistre les valeurs ; les autres peuvent lire les compteurs
+ * à tout moment (affichage, JMX).
+ */
+public class Histogram {
+
+    // Valeurs inférieures à 16 : un intervalle par valeur
+    private static final int LINEAR_BUCKETS = 16;
+    // Intervalles par puissance de deux au-delà
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Plus grande puissance de deux distinguée (2^40 ns : environ 18 minutes)
+    private static final int MAX_EXPONENT = 40;
+
+    public static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - 3) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private volatile long count;
+    private volatile long sum;
+    private volatile long max;
+
+    /**
+     * Enregistre une valeur (thread unique)
+     * @param value La valeur (les valeurs négatives comptent pour 0)
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int bucket = bucketOf(value);
+        // Écritures ordonnées sans barrière complète : un seul thread écrit
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+        count++;
+    }
+
+    /**
+     * Remet les compteurs à zéro. Une valeur enregistrée au même moment peut être perdue.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Retourne l'intervalle d'une valeur
+     * @param value La valeur
+     * @return int L'indice de l'intervalle
+     */
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Retourne la plus grande valeur d'un intervalle
+     * @param bucket L'indice de l'intervalle
+     * @return long La borne supérieure
+     */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Recopie les compteurs, pour calculer des centiles sur un intervalle de temps
+     * @param out Reçoit les compteurs (BUCKET_COUNT éléments)
+     */
+    public void copyCounts(long[] out) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            out[i] = counts.get(i);
+        }
+    }
+
+    /**
+     * Calcule un centile à partir de compteurs recopiés
+     * @param bucketCounts Les compteurs (BUCKET_COUNT éléments)
+     * @param total Somme des compteurs
+     * @param fraction Le centile voulu, entre 0 et 1 (0,99 pour le 99e centile)
+     * @return long La valeur du centile (borne supérieure de son intervalle), 0 sans valeur
+     */
+    public static long percentile(long[] bucketCounts, long total, double fraction) {
+        if (total <= 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += bucketCounts[i];
+            if (seen >= target) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Calcule un centile depuis la création ou la dernière remise à zéro
+     * @param fraction Le centile voulu, entre 0 et 1
+     * @return long La valeur du centile, 0 sans valeur
+     */
+    public long getPercentile(double fraction) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        copyCounts(snapshot);
+        long total = 0;
+        for (long bucketCount : snapshot) {
+            total += bucketCount;
+        }
+        return percentile(snapshot, total, fraction);
+    }
+
+    /**
+     * Retourne le nombre de valeurs enregistrées
+     * @return long Le nombre de valeurs
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retourne la moyenne des valeurs enregistrées
+     * @return double La moyenne, 0 sans valeur
+     */
+    public double getMean() {
+        long n = count;
+        return n == 0 ? 0 : (double) sum / n;
+    }
+
+    /**
+     * Retourne la plus grande valeur enregistrée
+     * @return long Le maximum
+     */
+    public long getMax() {
+        return max;
+    }
+}
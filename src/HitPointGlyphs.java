@@ -0,0 +1,42 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+
+/**
+ * Chiffres des points de vie des blocs, dessinés une fois dans de petites images.
+ * Afficher le nombre de coups restants revient ensuite à recopier une image,
+ * sans créer de chaîne de caractères à chaque dessin.
+ */
+public class HitPointGlyphs {
+
+    private static final Font FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final int MAX_GLYPH = 9;
+    private static final TextImage[] GLYPHS = new TextImage[MAX_GLYPH + 1];
+
+    static {
+        for (int value = 0; value <= MAX_GLYPH; value++) {
+            GLYPHS[value] = new TextImage(String.valueOf(value), FONT, Color.WHITE);
+        }
+    }
+
+    private HitPointGlyphs() {
+    }
+
+    /**
+     * Dessine un nombre de points de vie, comme le ferait drawString
+     * @param g Graphics
+     * @param hitPoints Nombre à afficher
+     * @param x Position x du texte
+     * @param baseline Position y de la ligne de base du texte
+     */
+    public static void draw(Graphics g, int hitPoints, int x, int baseline) {
+        if (hitPoints >= 0 && hitPoints <= MAX_GLYPH) {
+            GLYPHS[hitPoints].draw(g, x, baseline);
+        } else {
+            // Valeur hors des chiffres préparés : dessin direct
+            g.setColor(Color.WHITE);
+            g.setFont(FONT);
+            g.drawString(String.valueOf(hitPoints), x, baseline);
+        }
+    }
+}
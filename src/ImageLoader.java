@@ -3,7 +3,8 @@ import java.io.File;
 import javax.swing.ImageIcon;
 
 /**
- * Classe utilitaire pour charger les images du jeu
+ * Classe utilitaire pour charger les images du jeu depuis le système de fichiers.
+ * Utilisée par SpriteCache quand une image n'est pas sur le classpath.
  */
 public class ImageLoader {
     
@@ -0,0 +1,78 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * État des touches du joueur, transmis sans verrou du thread des événements
+ * (EDT) à la simulation.
+ *
+ * L'EDT note les touches enfoncées et relâchées ; la simulation lit l'état une
+ * fois par pas (sample). Une touche maintenue agit donc à chaque pas, dès le
+ * pas qui suit l'appui, sans dépendre de la répétition automatique du clavier
+ * (et de son délai d'environ 250 ms avant la première répétition). Un appui
+ * plus court qu'un pas compte quand même pour un pas.
+ *
+ * Les entrées sont des masques de bits GameWorld.INPUT_*.
+ */
+public class InputState {
+
+    // Touches actuellement enfoncées
+    private final AtomicInteger held = new AtomicInteger();
+    // Touches enfoncées depuis la dernière lecture, même déjà relâchées
+    private final AtomicInteger pressed = new AtomicInteger();
+
+    /**
+     * Note l'appui sur une touche maintenue (EDT)
+     * @param input L'entrée (GameWorld.INPUT_*)
+     */
+    public void press(int input) {
+        held.accumulateAndGet(input, (a, b) -> a | b);
+        pressed.accumulateAndGet(input, (a, b) -> a | b);
+    }
+
+    /**
+     * Note le relâchement d'une touche (EDT)
+     * @param input L'entrée (GameWorld.INPUT_*)
+     */
+    public void release(int input) {
+        held.accumulateAndGet(~input, (a, b) -> a & b);
+    }
+
+    /**
+     * Note une entrée ponctuelle, valable pour le seul pas suivant (EDT)
+     * @param input L'entrée (GameWorld.INPUT_*)
+     */
+    public void tap(int input) {
+        pressed.accumulateAndGet(input, (a, b) -> a | b);
+    }
+
+    /**
+     * Relâche toutes les touches (perte du focus : les relâchements ne
+     * parviendraient plus au jeu)
+     */
+    public void releaseAll() {
+        held.set(0);
+    }
+
+    /**
+     * Oublie toutes les entrées (nouvelle partie)
+     */
+    public void clear() {
+        held.set(0);
+        pressed.set(0);
+    }
+
+    /**
+     * Lit les entrées du pas de simulation (thread de la boucle de jeu)
+     * @return int Les touches enfoncées et celles appuyées depuis la dernière lecture
+     */
+    public int sample() {
+        return pressed.getAndSet(0) | held.get();
+    }
+
+    /**
+     * Vérifie si une entrée attend la prochaine lecture
+     * @return boolean true si une touche est enfoncée ou a été appuyée
+     */
+    public boolean isPending() {
+        return (pressed.get() | held.get()) != 0;
+    }
+}
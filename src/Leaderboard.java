@@ -0,0 +1,328 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Classement de toutes les parties jouées : joueur, score, niveau atteint,
+ * graine et date de chaque partie.
+ *
+ * Les parties sont ajoutées à la fin d'un fichier projeté en mémoire
+ * (MappedByteBuffer), jamais modifiées ni déplacées : un ajout est une simple
+ * écriture en mémoire, et le nombre de parties n'est mis à jour dans l'en-tête
+ * qu'une fois la partie écrite. À l'ouverture, les scores sont relus pour
+ * construire un index (RankIndex) par classement : le classement général et un
+ * classement par niveau. Le rang d'un score et les meilleures parties se
+ * trouvent ensuite en O(log n), même avec des millions de parties.
+ *
+ * Format binaire (big-endian) :
+ * <pre>
+ * En-tête (16 octets)       int MAGIC, short VERSION, short réservé, long nombre de parties
+ * Parties (48 octets/partie) long date (ms), long graine, int score, int niveau,
+ *                           byte longueur du nom, puis le nom en UTF-8 (23 octets au plus)
+ * </pre>
+ */
+public class Leaderboard implements Closeable {
+
+    public static final int MAGIC = 0x42424C42; // "BBLB"
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 48;
+    static final int MAX_NAME_BYTES = 23;
+
+    // Place réservée à la création du fichier, doublée quand elle est pleine
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private MappedByteBuffer data;
+    private int capacity;
+    private int count;
+
+    private final RankIndex overall = new RankIndex();
+    private final Map<Integer, RankIndex> byLevel = new HashMap<>();
+
+    /**
+     * Ouvre un classement, ou le crée si le fichier n'existe pas
+     * @param file Le fichier du classement
+     * @throws IOException Si le fichier est illisible ou n'est pas un classement valide
+     */
+    public Leaderboard(File file) throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        try {
+            if (channel.size() == 0) {
+                map(INITIAL_CAPACITY);
+                data.putInt(0, MAGIC);
+                data.putShort(4, (short) VERSION);
+                data.putLong(8, 0);
+            } else {
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException("Ce fichier n'est pas un classement");
+                }
+                map((int) Math.min(Integer.MAX_VALUE, (channel.size() - HEADER_SIZE) / RECORD_SIZE));
+                if (data.getInt(0) != MAGIC) {
+                    throw new IOException("Ce fichier n'est pas un classement");
+                }
+                int version = data.getShort(4);
+                if (version != VERSION) {
+                    throw new IOException("Version de classement non prise en charge: " + version);
+                }
+                long stored = data.getLong(8);
+                if (stored < 0 || stored > capacity) {
+                    throw new IOException("Nombre de parties invalide dans le classement");
+                }
+                count = (int) stored;
+            }
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+
+        load();
+    }
+
+    /**
+     * Construit les index des parties du fichier : les parties sont triées une
+     * fois, puis ajoutées dans l'ordre du classement (RankIndex.append), ce qui
+     * évite une insertion en O(log n) par partie
+     */
+    private void load() {
+        // Score décroissant puis numéro croissant : l'ordre des index
+        long[] keys = new long[count];
+        for (int id = 0; id < count; id++) {
+            keys[id] = ((long) ~getScore(id) << 32) | id;
+        }
+        Arrays.sort(keys);
+        for (long key : keys) {
+            int id = (int) key;
+            int score = ~(int) (key >> 32);
+            overall.append(id, score);
+            board(getLevel(id)).append(id, score);
+        }
+        overall.finishAppend();
+        for (RankIndex board : byLevel.values()) {
+            board.finishAppend();
+        }
+    }
+
+    /**
+     * Retourne l'index du classement d'un niveau, créé au besoin
+     * @param level Le niveau
+     * @return RankIndex L'index
+     */
+    private RankIndex board(int level) {
+        RankIndex board = byLevel.get(level);
+        if (board == null) {
+            board = new RankIndex();
+            byLevel.put(level, board);
+        }
+        return board;
+    }
+
+    /**
+     * Projette le fichier en mémoire, en l'agrandissant si nécessaire
+     * @param records Nombre de parties que la projection doit pouvoir contenir
+     * @throws IOException Si le fichier ne peut pas être agrandi
+     */
+    private void map(int records) throws IOException {
+        long size = HEADER_SIZE + (long) records * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Classement plein");
+        }
+        data = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        capacity = records;
+    }
+
+    /**
+     * Ajoute une partie au classement
+     * @param player Nom du joueur (tronqué à 23 octets)
+     * @param score Score de la partie
+     * @param level Niveau atteint
+     * @param seed Graine de la partie
+     * @param timestamp Date de la partie (ms depuis 1970)
+     * @return int Numéro de la partie dans le classement
+     * @throws IOException Si le fichier ne peut pas être agrandi
+     */
+    public synchronized int add(String player, int score, int level, long seed, long timestamp) throws IOException {
+        if (count == capacity) {
+            map(capacity * 2);
+        }
+        int id = count;
+        int offset = offset(id);
+        data.putLong(offset, timestamp);
+        data.putLong(offset + 8, seed);
+        data.putInt(offset + 16, score);
+        data.putInt(offset + 20, level);
+        byte[] name = encodeName(player);
+        data.put(offset + 24, (byte) name.length);
+        for (int i = 0; i < name.length; i++) {
+            data.put(offset + 25 + i, name[i]);
+        }
+        // La partie n'existe qu'une fois entièrement écrite
+        count = id + 1;
+        data.putLong(8, count);
+
+        overall.add(id, score);
+        board(level).add(id, score);
+        return id;
+    }
+
+    /**
+     * Encode un nom de joueur sans couper un caractère en deux
+     * @param player Le nom
+     * @return byte[] Le nom en UTF-8, 23 octets au plus
+     */
+    private static byte[] encodeName(String player) {
+        String name = player == null ? "" : player;
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        while (bytes.length > MAX_NAME_BYTES) {
+            name = name.substring(0, name.length() - 1);
+            bytes = name.getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    /**
+     * Retourne la position d'une partie dans le fichier
+     * @param id Numéro de la partie
+     * @return int La position
+     */
+    private static int offset(int id) {
+        return HEADER_SIZE + id * RECORD_SIZE;
+    }
+
+    /**
+     * Retourne le rang qu'aurait un score dans le classement général
+     * @param score Le score
+     * @return int Le rang (1 pour le meilleur score ; les ex aequo partagent le même rang)
+     */
+    public synchronized int getRank(int score) {
+        return overall.rankOf(score);
+    }
+
+    /**
+     * Retourne le rang qu'aurait un score dans le classement d'un niveau
+     * @param level Le niveau
+     * @param score Le score
+     * @return int Le rang (1 pour le meilleur score)
+     */
+    public synchronized int getRank(int level, int score) {
+        RankIndex board = byLevel.get(level);
+        return board == null ? 1 : board.rankOf(score);
+    }
+
+    /**
+     * Retourne les meilleures parties du classement général
+     * @param out Reçoit les numéros des parties (sa taille donne le nombre demandé)
+     * @return int Le nombre de parties écrites
+     */
+    public synchronized int getTop(int[] out) {
+        return overall.top(out);
+    }
+
+    /**
+     * Retourne les meilleures parties du classement d'un niveau
+     * @param level Le niveau
+     * @param out Reçoit les numéros des parties (sa taille donne le nombre demandé)
+     * @return int Le nombre de parties écrites
+     */
+    public synchronized int getTop(int level, int[] out) {
+        RankIndex board = byLevel.get(level);
+        return board == null ? 0 : board.top(out);
+    }
+
+    /**
+     * Retourne la partie classée à un rang du classement général
+     * @param rank Le rang (à partir de 1)
+     * @return int Numéro de la partie, ou -1 si le rang dépasse le nombre de parties
+     */
+    public synchronized int getEntryAt(int rank) {
+        return overall.select(rank);
+    }
+
+    /**
+     * Retourne le nombre de parties du classement général
+     * @return int Le nombre de parties
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Retourne le nombre de parties du classement d'un niveau
+     * @param level Le niveau
+     * @return int Le nombre de parties
+     */
+    public synchronized int size(int level) {
+        RankIndex board = byLevel.get(level);
+        return board == null ? 0 : board.size();
+    }
+
+    /**
+     * Retourne le nom du joueur d'une partie
+     * @param id Numéro de la partie
+     * @return String Le nom
+     */
+    public synchronized String getPlayer(int id) {
+        int offset = offset(id);
+        byte[] name = new byte[data.get(offset + 24)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = data.get(offset + 25 + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retourne le score d'une partie
+     * @param id Numéro de la partie
+     * @return int Le score
+     */
+    public synchronized int getScore(int id) {
+        return data.getInt(offset(id) + 16);
+    }
+
+    /**
+     * Retourne le niveau atteint pendant une partie
+     * @param id Numéro de la partie
+     * @return int Le niveau
+     */
+    public synchronized int getLevel(int id) {
+        return data.getInt(offset(id) + 20);
+    }
+
+    /**
+     * Retourne la graine d'une partie, pour la rejouer
+     * @param id Numéro de la partie
+     * @return long La graine
+     */
+    public synchronized long getSeed(int id) {
+        return data.getLong(offset(id) + 8);
+    }
+
+    /**
+     * Retourne la date d'une partie
+     * @param id Numéro de la partie
+     * @return long La date (ms depuis 1970)
+     */
+    public synchronized long getTimestamp(int id) {
+        return data.getLong(offset(id));
+    }
+
+    /**
+     * Écrit les parties sur le disque et ferme le fichier
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        data.force();
+        raf.close();
+    }
+}
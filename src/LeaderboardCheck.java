@@ -0,0 +1,230 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Vérifie le classement (Leaderboard) en le comparant à un calcul naïf.
+ * Remplit un classement dans un fichier temporaire, compare chaque requête
+ * (rangs, meilleures parties, partie à un rang, champs des parties) à une
+ * recherche dans une simple liste, puis recommence après avoir rouvert le
+ * fichier (index reconstruit par RankIndex.append) et après de nouveaux ajouts.
+ * Se termine avec le code 1 à la première différence.
+ *
+ * Lancée par mvn verify (module game) ; à la main : java -cp bin LeaderboardCheck
+ */
+public class LeaderboardCheck {
+
+    private static final int ENTRIES = 8_000;
+    private static final int ENTRIES_AFTER_REOPEN = 2_000;
+    private static final int LEVELS = 12;
+    // Peu de scores différents : beaucoup d'ex aequo
+    private static final int MAX_SCORE = 3_000;
+    private static final int TOP = 50;
+
+    /**
+     * Partie telle qu'elle a été ajoutée au classement
+     */
+    private static class Entry {
+        final int id;
+        final String player;
+        final int score;
+        final int level;
+        final long seed;
+        final long timestamp;
+
+        Entry(int id, String player, int score, int level, long seed, long timestamp) {
+            this.id = id;
+            this.player = player;
+            this.score = score;
+            this.level = level;
+            this.seed = seed;
+            this.timestamp = timestamp;
+        }
+    }
+
+    // Ordre du classement : score décroissant, puis ordre d'arrivée
+    private static final Comparator<Entry> RANKING =
+            Comparator.comparingInt((Entry e) -> -e.score).thenComparingInt(e -> e.id);
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final SplittableRandom random = new SplittableRandom(17);
+    private int queries;
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("leaderboard-check-", ".dat");
+        file.deleteOnExit();
+        LeaderboardCheck check = new LeaderboardCheck();
+        try {
+            Leaderboard leaderboard = new Leaderboard(file);
+            check.fill(leaderboard, ENTRIES);
+            check.compare(leaderboard, "après les ajouts");
+            leaderboard.close();
+
+            leaderboard = new Leaderboard(file);
+            check.compare(leaderboard, "après réouverture");
+            check.fill(leaderboard, ENTRIES_AFTER_REOPEN);
+            check.compare(leaderboard, "après réouverture et nouveaux ajouts");
+            leaderboard.close();
+        } catch (IllegalStateException e) {
+            System.out.println("Classement incorrect: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Classement vérifié: " + check.entries.size() + " parties, "
+                + check.queries + " requêtes identiques au calcul naïf");
+    }
+
+    /**
+     * Ajoute des parties tirées au hasard au classement et à la liste de référence
+     * @param leaderboard Le classement
+     * @param count Nombre de parties à ajouter
+     * @throws IOException Si le classement ne peut pas être agrandi
+     */
+    private void fill(Leaderboard leaderboard, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            // Quelques noms trop longs, tronqués par le classement
+            String player = random.nextInt(50) == 0 ? "Joueur é" + "ù".repeat(random.nextInt(20))
+                    : "Joueur " + random.nextInt(200);
+            int score = random.nextInt(MAX_SCORE);
+            int level = 1 + random.nextInt(LEVELS);
+            long seed = random.nextLong();
+            long timestamp = random.nextLong(1L << 42);
+            int id = leaderboard.add(player, score, level, seed, timestamp);
+            expect(id == entries.size(), "numéro de partie " + id + " au lieu de " + entries.size());
+            entries.add(new Entry(id, player, score, level, seed, timestamp));
+        }
+    }
+
+    /**
+     * Compare toutes les requêtes du classement au calcul naïf
+     * @param leaderboard Le classement
+     * @param stage Étape de la vérification, pour le message d'erreur
+     */
+    private void compare(Leaderboard leaderboard, String stage) {
+        List<Entry> ranking = new ArrayList<>(entries);
+        ranking.sort(RANKING);
+
+        expect(leaderboard.size() == entries.size(), stage + ": " + leaderboard.size() + " parties");
+        for (Entry entry : entries) {
+            queries++;
+            String player = leaderboard.getPlayer(entry.id);
+            expect(player.equals(truncated(entry.player)),
+                    stage + ": nom de la partie " + entry.id + " \"" + player + "\"");
+            expect(leaderboard.getScore(entry.id) == entry.score
+                    && leaderboard.getLevel(entry.id) == entry.level
+                    && leaderboard.getSeed(entry.id) == entry.seed
+                    && leaderboard.getTimestamp(entry.id) == entry.timestamp,
+                    stage + ": champs de la partie " + entry.id);
+        }
+
+        // Rang de chaque score possible, aux bornes comprises
+        for (int score = -1; score <= MAX_SCORE; score++) {
+            queries++;
+            expect(leaderboard.getRank(score) == rankOf(ranking, score),
+                    stage + ": rang du score " + score + " = " + leaderboard.getRank(score)
+                            + " au lieu de " + rankOf(ranking, score));
+        }
+
+        // Partie classée à chaque rang, et au-delà
+        for (int rank = 0; rank <= ranking.size() + 1; rank++) {
+            queries++;
+            int expected = rank >= 1 && rank <= ranking.size() ? ranking.get(rank - 1).id : -1;
+            expect(leaderboard.getEntryAt(rank) == expected,
+                    stage + ": partie au rang " + rank + " = " + leaderboard.getEntryAt(rank) + " au lieu de " + expected);
+        }
+        compareTop(leaderboard, -1, topOf(ranking), stage + ": meilleures parties");
+
+        // Classement de chaque niveau, et d'un niveau sans partie
+        for (int level = 1; level <= LEVELS + 1; level++) {
+            List<Entry> board = new ArrayList<>();
+            for (Entry entry : ranking) {
+                if (entry.level == level) {
+                    board.add(entry);
+                }
+            }
+            queries++;
+            expect(leaderboard.size(level) == board.size(), stage + ": taille du niveau " + level);
+            for (int score = -1; score <= MAX_SCORE; score += 7) {
+                queries++;
+                expect(leaderboard.getRank(level, score) == rankOf(board, score),
+                        stage + ": rang du score " + score + " au niveau " + level);
+            }
+            compareTop(leaderboard, level, topOf(board), stage + ": meilleures parties du niveau " + level);
+        }
+    }
+
+    /**
+     * Compare les meilleures parties renvoyées par le classement à la référence
+     * @param leaderboard Le classement
+     * @param level Niveau demandé (-1 pour le classement général)
+     * @param expected Numéros des meilleures parties de référence
+     * @param what Description de la requête
+     */
+    private void compareTop(Leaderboard leaderboard, int level, int[] expected, String what) {
+        queries++;
+        int[] top = new int[TOP];
+        int found = level < 0 ? leaderboard.getTop(top) : leaderboard.getTop(level, top);
+        expect(found == expected.length, what + ": " + found + " parties au lieu de " + expected.length);
+        for (int k = 0; k < found; k++) {
+            expect(top[k] == expected[k], what + ": rang " + (k + 1) + " = " + top[k] + " au lieu de " + expected[k]);
+        }
+    }
+
+    /**
+     * Retourne le nom tel que le classement le garde : le plus long début du nom
+     * qui tient en 23 octets UTF-8
+     * @param player Le nom
+     * @return String Le nom tronqué
+     */
+    private static String truncated(String player) {
+        String name = player;
+        while (name.getBytes(StandardCharsets.UTF_8).length > 23) {
+            name = name.substring(0, name.length() - 1);
+        }
+        return name;
+    }
+
+    /**
+     * Calcule naïvement le rang d'un score : 1 plus le nombre de scores strictement meilleurs
+     * @param ranking Les parties
+     * @param score Le score
+     * @return int Le rang
+     */
+    private static int rankOf(List<Entry> ranking, int score) {
+        int greater = 0;
+        for (Entry entry : ranking) {
+            if (entry.score > score) {
+                greater++;
+            }
+        }
+        return greater + 1;
+    }
+
+    /**
+     * Retourne les numéros des meilleures parties d'une liste déjà triée
+     * @param ranking Les parties, dans l'ordre du classement
+     * @return int[] Les TOP premières
+     */
+    private static int[] topOf(List<Entry> ranking) {
+        int[] top = new int[Math.min(TOP, ranking.size())];
+        for (int k = 0; k < top.length; k++) {
+            top[k] = ranking.get(k).id;
+        }
+        return top;
+    }
+
+    /**
+     * Vérifie une condition
+     * @param condition La condition
+     * @param message Description de la différence
+     * @throws IllegalStateException Si la condition est fausse
+     */
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
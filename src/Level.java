@@ -1,93 +1,154 @@
-import java.util.ArrayList;
+import java.io.IOException;
 
 /**
  * Classe qui gère les niveaux du jeu
- * Chaque niveau a une configuration différente de blocs
+ * La disposition des blocs de chaque niveau est lue dans un pack de niveaux (LevelPack)
  */
 public class Level {
+    // Grille régulière sur laquelle les blocs des niveaux sont placés
+    public static final int GRID_ORIGIN_X = 2;
+    public static final int GRID_ORIGIN_Y = 0;
+    public static final int CELL_WIDTH = 60;
+    public static final int CELL_HEIGHT = 25;
+
     private int levelNumber;
-    private ArrayList<Block> blocks;
+    private final String name;
+    private BlockField blocks;
     private int remainingBlocks;
+    private final GameRandom random;
+    
+    // Chance qu'un bloc contienne un power-up
+    private static final double POWER_UP_CHANCE = 0.2;
     
     /**
      * Constructeur de la classe Level
-     * @param levelNumber Le numéro du niveau
+     * @param pack Le pack de niveaux
+     * @param levelNumber Le numéro du niveau dans le pack (à partir de 1)
+     * @param random Source de hasard du niveau (disposition aléatoire et power-ups)
      */
-    public Level(int levelNumber) {
+    public Level(LevelPack pack, int levelNumber, GameRandom random) {
+        EngineEvents.LevelLoad event = new EngineEvents.LevelLoad();
+        event.begin();
         this.levelNumber = levelNumber;
-        this.blocks = new ArrayList<Block>();
-        createLevel();
+        this.random = random;
+        if (isReadable(pack, levelNumber)) {
+            this.name = pack.getName(levelNumber);
+            this.blocks = new BlockField(Math.max(32, pack.getBrickCount(levelNumber)));
+            createLevel(pack);
+        } else {
+            // Niveau absent du pack ou illisible : aucun bloc
+            this.name = "Niveau " + levelNumber;
+            this.blocks = new BlockField(32);
+        }
+        remainingBlocks = blocks.size();
+        if (event.shouldCommit()) {
+            event.level = levelNumber;
+            event.name = name;
+            event.bricks = remainingBlocks;
+            event.random = levelNumber >= 1 && levelNumber <= pack.getLevelCount() && pack.isRandom(levelNumber);
+            event.commit();
+        }
     }
     
     /**
-     * Crée les blocs pour le niveau en fonction du numéro de niveau
+     * Vérifie qu'un niveau est présent dans le pack et que sa description est valide
+     * @param pack Le pack de niveaux
+     * @param levelNumber Le numéro du niveau
+     * @return boolean true si le niveau peut être lu
+     */
+    private static boolean isReadable(LevelPack pack, int levelNumber) {
+        if (levelNumber < 1 || levelNumber > pack.getLevelCount()) {
+            return false;
+        }
+        try {
+            pack.verify(levelNumber);
+            return true;
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Crée les blocs du niveau à partir de sa description dans le pack
+     * @param pack Le pack de niveaux
      */
-    private void createLevel() {
-        blocks.clear();
-        
-        switch(levelNumber) {
-            case 1:
-                // Niveau 1 - Configuration standard
-                for (int i = 0; i < 8; i++)
-                    blocks.add(new Block((i*60+2), 0, 60, 25, "blue.png"));
-                for (int i = 0; i < 8; i++)
-                    blocks.add(new Block((i*60+2), 25, 60, 25, "green.png"));
-                for (int i = 0; i < 8; i++)
-                    blocks.add(new Block((i*60+2), 50, 60, 25, "yellow.png"));
-                for (int i = 0; i < 8; i++)
-                    blocks.add(new Block((i*60+2), 75, 60, 25, "red.png"));
-                break;
-                
-            case 2:
-                // Niveau 2 - Configuration en pyramide
-                for (int i = 0; i < 8; i++)
-                    blocks.add(new Block((i*60+2), 0, 60, 25, "blue.png"));
-                for (int i = 1; i < 7; i++)
-                    blocks.add(new Block((i*60+2), 25, 60, 25, "green.png"));
-                for (int i = 2; i < 6; i++)
-                    blocks.add(new Block((i*60+2), 50, 60, 25, "yellow.png"));
-                for (int i = 3; i < 5; i++)
-                    blocks.add(new Block((i*60+2), 75, 60, 25, "red.png"));
-                break;
-                
-            case 3:
-                // Niveau 3 - Configuration en damier
-                for (int i = 0; i < 8; i++) {
-                    for (int j = 0; j < 4; j++) {
-                        if ((i + j) % 2 == 0) {
-                            String color = j == 0 ? "blue.png" : j == 1 ? "green.png" : j == 2 ? "yellow.png" : "red.png";
-                            blocks.add(new Block((i*60+2), j*25, 60, 25, color));
-                        }
+    private void createLevel(LevelPack pack) {
+        if (pack.isRandom(levelNumber)) {
+            // Configuration aléatoire plus difficile
+            BrickChunk layout = new BrickChunk();
+            layout.clear(0);
+            randomLayout(random, 0, layout);
+            for (int i = 0; i < BrickChunk.COLUMNS; i++) {
+                for (int j = 0; j < BrickChunk.ROWS; j++) {
+                    if (layout.getType(i, j) != BrickChunk.EMPTY) {
+                        addBlock(i, j, layout.getType(i, j), layout.getHitPoints(i, j), layout.hasPowerUp(i, j));
                     }
                 }
-                break;
-                
-            default:
-                // Niveau par défaut - Configuration aléatoire plus difficile
-                for (int i = 0; i < 8; i++) {
-                    for (int j = 0; j < 4; j++) {
-                        if (Math.random() > 0.3) { // 70% de chance d'avoir un bloc
-                            String color = j == 0 ? "blue.png" : j == 1 ? "green.png" : j == 2 ? "yellow.png" : "red.png";
-                            Block block = new Block((i*60+2), j*25, 60, 25, color);
-                            // Certains blocs nécessitent plusieurs coups (blocs spéciaux)
-                            if (Math.random() > 0.7) {
-                                block.setHitPoints(2);
-                            }
-                            blocks.add(block);
-                        }
-                    }
+            }
+        } else {
+            int count = pack.getBrickCount(levelNumber);
+            for (int k = 0; k < count; k++) {
+                addBlock(pack.getColumn(levelNumber, k), pack.getRow(levelNumber, k),
+                        pack.getType(levelNumber, k), pack.getHitPoints(levelNumber, k));
+            }
+        }
+    }
+    
+    /**
+     * Tire une disposition aléatoire de blocs : une rangée par couleur, environ
+     * 70% des cellules occupées au départ. La difficulté (0 pour les niveaux
+     * aléatoires de la campagne, croissante en mode sans fin) remplit davantage
+     * les cellules et renforce les blocs.
+     * @param random Source de hasard
+     * @param difficulty Difficulté (0 ou plus)
+     * @param out Reçoit la disposition (vidée au préalable)
+     */
+    public static void randomLayout(GameRandom random, int difficulty, BrickChunk out) {
+        double density = Math.min(0.9, 0.7 + 0.02 * difficulty);
+        double strong = Math.min(0.6, 0.3 + 0.03 * difficulty);
+        int strongHitPoints = 2 + Math.min(difficulty / 5, 3);
+        for (int i = 0; i < BrickChunk.COLUMNS; i++) {
+            for (int j = 0; j < BrickChunk.ROWS; j++) {
+                if (random.chance(density)) { // 70% de chance d'avoir un bloc au départ
+                    // Certains blocs nécessitent plusieurs coups (blocs spéciaux)
+                    int hitPoints = random.chance(strong) ? strongHitPoints : 1;
+                    // La ligne détermine la couleur : bleu, vert, jaune puis rouge
+                    out.set(i, j, j, hitPoints, random.chance(POWER_UP_CHANCE));
                 }
-                break;
+            }
         }
-        
-        remainingBlocks = blocks.size();
     }
     
     /**
-     * Retourne la liste des blocs du niveau
-     * @return ArrayList<Block> La liste des blocs
+     * Ajoute un bloc dans une cellule de la grille du niveau
+     * @param column Colonne de la cellule
+     * @param row Ligne de la cellule
+     * @param type Type du bloc
+     * @param hitPoints Nombre de coups nécessaires pour détruire le bloc
+     */
+    private void addBlock(int column, int row, int type, int hitPoints) {
+        addBlock(column, row, type, hitPoints, random.chance(POWER_UP_CHANCE));
+    }
+    
+    /**
+     * Ajoute un bloc dans une cellule de la grille du niveau
+     * @param column Colonne de la cellule
+     * @param row Ligne de la cellule
+     * @param type Type du bloc
+     * @param hitPoints Nombre de coups nécessaires pour détruire le bloc
+     * @param powerUp true si le bloc contient un power-up
      */
-    public ArrayList<Block> getBlocks() {
+    private void addBlock(int column, int row, int type, int hitPoints, boolean powerUp) {
+        blocks.add(GRID_ORIGIN_X + column * CELL_WIDTH, GRID_ORIGIN_Y + row * CELL_HEIGHT,
+                CELL_WIDTH, CELL_HEIGHT, type, hitPoints, powerUp);
+    }
+    
+    /**
+     * Retourne les blocs du niveau
+     * @return BlockField Les blocs
+     */
+    public BlockField getBlocks() {
         return blocks;
     }
     
@@ -99,6 +160,14 @@ public class Level {
         return levelNumber;
     }
     
+    /**
+     * Retourne le nom du niveau
+     * @return String Le nom du niveau
+     */
+    public String getName() {
+        return name;
+    }
+    
     /**
      * Diminue le nombre de blocs restants
      */
@@ -0,0 +1,234 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compile une campagne écrite au format texte en pack binaire (voir LevelPack).
+ *
+ * Format texte (voir campaign.txt) :
+ * <pre>
+ * # commentaire
+ * level Nom du niveau
+ * B B G G . . R2 R2      une rangée de la grille, une cellule par mot
+ * end
+ * level Nom du niveau random
+ * </pre>
+ * Une cellule vaut "." (vide) ou une couleur B, G, Y, R (bleu, vert, jaune,
+ * rouge) suivie éventuellement du nombre de coups nécessaires (1 à 9).
+ * Un niveau "random" n'a pas de rangées : sa disposition est tirée au hasard.
+ *
+ * Lancement : java -cp bin LevelCompiler campagne.txt campagne.bbl
+ */
+public class LevelCompiler {
+
+    private static final String COLORS = "BGYR"; // Dans l'ordre des BlockField.TYPE_*
+    private static final int MAX_GRID_SIZE = 255;
+    private static final int MAX_BRICKS = 0xFFFF;
+
+    /**
+     * Niveau en cours de compilation
+     */
+    private static class LevelSource {
+        final String name;
+        final boolean random;
+        final ByteArrayOutputStream bricks = new ByteArrayOutputStream();
+        int brickCount;
+        int rows;
+
+        LevelSource(String name, boolean random) {
+            this.name = name;
+            this.random = random;
+        }
+    }
+
+    /**
+     * Compile une campagne texte
+     * @param source Le texte de la campagne (fermé à la fin de la lecture)
+     * @return byte[] Le pack binaire
+     * @throws IOException En cas d'erreur de lecture ou de syntaxe (avec le numéro de ligne)
+     */
+    public static byte[] compile(Reader source) throws IOException {
+        List<LevelSource> levels = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(source)) {
+            LevelSource current = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                if (current == null) {
+                    if (!line.startsWith("level ")) {
+                        throw error(lineNumber, "\"level <nom>\" attendu");
+                    }
+                    String name = line.substring(6).trim();
+                    boolean random = name.endsWith(" random") || name.equals("random");
+                    if (random) {
+                        name = name.substring(0, name.length() - 6).trim();
+                    }
+                    if (name.isEmpty()) {
+                        throw error(lineNumber, "nom de niveau manquant");
+                    }
+                    LevelSource level = new LevelSource(name, random);
+                    levels.add(level);
+                    // Un niveau aléatoire n'a pas de rangées ni de "end"
+                    current = random ? null : level;
+                } else if (line.equals("end")) {
+                    current = null;
+                } else {
+                    parseRow(current, line, lineNumber);
+                }
+            }
+            if (current != null) {
+                throw error(lineNumber, "\"end\" manquant pour le niveau " + current.name);
+            }
+        }
+        return write(levels);
+    }
+
+    /**
+     * Ajoute une rangée de cellules au niveau
+     * @param level Le niveau
+     * @param line La rangée
+     * @param lineNumber Numéro de la ligne (pour les erreurs)
+     * @throws IOException Si une cellule est invalide
+     */
+    private static void parseRow(LevelSource level, String line, int lineNumber) throws IOException {
+        if (level.rows >= MAX_GRID_SIZE) {
+            throw error(lineNumber, "trop de rangées (" + MAX_GRID_SIZE + " au plus)");
+        }
+        String[] cells = line.split("\\s+");
+        if (cells.length > MAX_GRID_SIZE) {
+            throw error(lineNumber, "trop de colonnes (" + MAX_GRID_SIZE + " au plus)");
+        }
+        for (int column = 0; column < cells.length; column++) {
+            String cell = cells[column];
+            if (cell.equals(".")) {
+                continue;
+            }
+            int type = COLORS.indexOf(Character.toUpperCase(cell.charAt(0)));
+            int hitPoints = 1;
+            if (cell.length() == 2 && cell.charAt(1) >= '1' && cell.charAt(1) <= '9') {
+                hitPoints = cell.charAt(1) - '0';
+            } else if (cell.length() != 1) {
+                type = -1;
+            }
+            if (type < 0) {
+                throw error(lineNumber, "cellule invalide \"" + cell + "\" (., B, G, Y ou R suivi d'un chiffre)");
+            }
+            if (level.brickCount == MAX_BRICKS) {
+                throw error(lineNumber, "trop de blocs dans le niveau " + level.name);
+            }
+            level.bricks.write(column);
+            level.bricks.write(level.rows);
+            level.bricks.write(type);
+            level.bricks.write(hitPoints);
+            level.brickCount++;
+        }
+        level.rows++;
+    }
+
+    /**
+     * Crée une erreur de syntaxe
+     * @param lineNumber Numéro de la ligne
+     * @param message Description de l'erreur
+     * @return IOException L'erreur
+     */
+    private static IOException error(int lineNumber, String message) {
+        return new IOException("Ligne " + lineNumber + ": " + message);
+    }
+
+    /**
+     * Écrit le pack binaire : en-tête, répertoire, blocs puis noms
+     * @param levels Les niveaux compilés
+     * @return byte[] Le pack
+     * @throws IOException En cas d'erreur d'écriture (en mémoire)
+     */
+    private static byte[] write(List<LevelSource> levels) throws IOException {
+        byte[][] names = new byte[levels.size()][];
+        int bricksOffset = LevelPack.HEADER_SIZE + levels.size() * LevelPack.DIRECTORY_ENTRY_SIZE;
+        int namesOffset = bricksOffset;
+        for (int i = 0; i < levels.size(); i++) {
+            names[i] = levels.get(i).name.getBytes(StandardCharsets.UTF_8);
+            namesOffset += levels.get(i).bricks.size();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(LevelPack.MAGIC);
+        out.writeShort(LevelPack.VERSION);
+        out.writeShort(0);
+        out.writeInt(levels.size());
+        out.writeInt(LevelPack.HEADER_SIZE);
+
+        int brickPosition = bricksOffset;
+        int namePosition = namesOffset;
+        for (int i = 0; i < levels.size(); i++) {
+            LevelSource level = levels.get(i);
+            out.writeInt(brickPosition);
+            out.writeShort(level.brickCount);
+            out.writeByte(level.random ? LevelPack.FLAG_RANDOM : 0);
+            out.writeByte(0);
+            out.writeInt(namePosition);
+            brickPosition += level.bricks.size();
+            namePosition += 2 + names[i].length;
+        }
+        for (LevelSource level : levels) {
+            level.bricks.writeTo(out);
+        }
+        for (byte[] name : names) {
+            out.writeShort(name.length);
+            out.write(name);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Compile une campagne texte dans un fichier
+     * @param source Le fichier texte
+     * @param target Le pack binaire à écrire
+     * @return int Le nombre de niveaux compilés
+     * @throws IOException En cas d'erreur de lecture, de syntaxe ou d'écriture
+     */
+    public static int compile(File source, File target) throws IOException {
+        byte[] pack = compile(new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8));
+        LevelPack compiled = LevelPack.fromBytes(pack);
+        compiled.verify();
+        try (OutputStream out = new FileOutputStream(target)) {
+            out.write(pack);
+        }
+        return compiled.getLevelCount();
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage : java -cp bin LevelCompiler campagne.txt campagne.bbl");
+            System.exit(2);
+        }
+        try {
+            int count = compile(new File(args[0]), new File(args[1]));
+            System.out.println(count + " niveau(x) compilé(s) dans " + args[1]);
+        } catch (IOException e) {
+            System.err.println(args[0] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pack de niveaux compilé (voir LevelCompiler pour le format texte).
+ *
+ * Le fichier est projeté en mémoire (MappedByteBuffer) : un niveau se lit
+ * directement à partir de son entrée dans le répertoire, sans parcourir les
+ * autres. Le temps de chargement d'un niveau ne dépend donc pas du nombre de
+ * niveaux du pack. L'ouverture ne lit que l'en-tête ; les blocs et le nom d'un
+ * niveau sont vérifiés quand il est lu (verify(int)), et verify() contrôle tout
+ * le pack d'un coup pour un fichier fourni par l'utilisateur.
+ *
+ * Format binaire (big-endian) :
+ * <pre>
+ * En-tête (16 octets)      int MAGIC, short VERSION, short réservé,
+ *                          int nombre de niveaux, int position du répertoire
+ * Répertoire (12 octets    int position des blocs, short nombre de blocs,
+ *   par niveau)            byte options (FLAG_RANDOM), byte réservé, int position du nom
+ * Blocs (4 octets/bloc)    byte colonne, byte rangée, byte type, byte points de vie
+ * Noms                     short longueur, puis le nom en UTF-8
+ * </pre>
+ */
+public class LevelPack {
+
+    public static final int MAGIC = 0x42424C56; // "BBLV"
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+    static final int DIRECTORY_ENTRY_SIZE = 12;
+    static final int BRICK_SIZE = 4;
+
+    // Option d'un niveau : disposition tirée au hasard au chargement
+    public static final int FLAG_RANDOM = 1;
+
+    // Campagne livrée avec le jeu, sur le classpath
+    private static final String DEFAULT_PACK = "campaign.bbl";
+    private static final String DEFAULT_SOURCE = "campaign.txt";
+
+    private static LevelPack defaultPack;
+
+    private final ByteBuffer data;
+    private final int levelCount;
+    private final int directoryOffset;
+
+    /**
+     * Lit l'en-tête d'un pack
+     * @param data Contenu du pack
+     * @throws IOException Si ce n'est pas un pack valide
+     */
+    private LevelPack(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Ce fichier n'est pas un pack de niveaux");
+        }
+        int version = data.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Version de pack non prise en charge: " + version);
+        }
+        this.levelCount = data.getInt(8);
+        this.directoryOffset = data.getInt(12);
+        if (levelCount < 0 || directoryOffset < HEADER_SIZE
+                || (long) directoryOffset + (long) levelCount * DIRECTORY_ENTRY_SIZE > data.limit()) {
+            throw new IOException("Répertoire du pack de niveaux invalide");
+        }
+    }
+
+    /**
+     * Vérifie tous les niveaux du pack, en temps proportionnel à sa taille
+     * (pack fourni par l'utilisateur, voir Main et LevelCompiler)
+     * @throws IOException Si un niveau est invalide
+     */
+    public void verify() throws IOException {
+        for (int level = 1; level <= levelCount; level++) {
+            verify(level);
+        }
+    }
+
+    /**
+     * Vérifie l'entrée du répertoire, le nom et les blocs d'un niveau
+     * @param level Numéro du niveau (à partir de 1)
+     * @throws IOException Si une position sort du pack ou si un bloc est invalide
+     */
+    public void verify(int level) throws IOException {
+        long limit = data.limit();
+        int entry = entry(level);
+        long bricks = data.getInt(entry);
+        int count = data.getShort(entry + 4) & 0xFFFF;
+        long name = data.getInt(entry + 8);
+        if (bricks < HEADER_SIZE || bricks + (long) count * BRICK_SIZE > limit) {
+            throw corrupted(level, "blocs hors du fichier");
+        }
+        if (name < HEADER_SIZE || name + 2 > limit || name + 2 + (data.getShort((int) name) & 0xFFFF) > limit) {
+            throw corrupted(level, "nom hors du fichier");
+        }
+        for (int k = 0; k < count; k++) {
+            int position = (int) bricks + k * BRICK_SIZE;
+            int type = data.get(position + 2);
+            if (type < BlockField.TYPE_BLUE || type > BlockField.TYPE_RED) {
+                throw corrupted(level, "type de bloc invalide (" + type + ")");
+            }
+            if (data.get(position + 3) <= 0) {
+                throw corrupted(level, "points de vie de bloc invalides (" + data.get(position + 3) + ")");
+            }
+        }
+    }
+
+    /**
+     * Construit l'erreur d'un pack corrompu
+     * @param level Numéro du niveau en cause
+     * @param reason Ce qui est invalide
+     * @return IOException L'erreur à lever
+     */
+    private static IOException corrupted(int level, String reason) {
+        return new IOException("Pack de niveaux corrompu: niveau " + level + ", " + reason);
+    }
+
+    /**
+     * Ouvre un pack compilé en le projetant en mémoire
+     * @param file Le fichier du pack
+     * @return LevelPack Le pack
+     * @throws IOException Si le fichier est illisible ou n'est pas un pack valide
+     */
+    public static LevelPack open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            // La projection reste valide après la fermeture du fichier
+            return new LevelPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Crée un pack à partir de son contenu binaire en mémoire
+     * @param bytes Contenu du pack
+     * @return LevelPack Le pack
+     * @throws IOException Si ce n'est pas un pack valide
+     */
+    public static LevelPack fromBytes(byte[] bytes) throws IOException {
+        return new LevelPack(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Retourne la campagne livrée avec le jeu : le pack compilé s'il est sur le
+     * classpath, sinon la campagne texte compilée au chargement
+     * @return LevelPack La campagne (vide si elle est introuvable)
+     */
+    public static synchronized LevelPack getDefault() {
+        if (defaultPack != null) {
+            return defaultPack;
+        }
+        try {
+            InputStream compiled = LevelPack.class.getResourceAsStream("/" + DEFAULT_PACK);
+            if (compiled != null) {
+                try (InputStream in = compiled) {
+                    defaultPack = fromBytes(readAll(in));
+                }
+            } else {
+                defaultPack = fromBytes(LevelCompiler.compile(openDefaultSource()));
+            }
+        } catch (IOException e) {
+            System.err.println("Erreur lors du chargement de la campagne: " + e.getMessage());
+            try {
+                defaultPack = fromBytes(LevelCompiler.compile(new StringReader("")));
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+        return defaultPack;
+    }
+
+    /**
+     * Ouvre la campagne texte, sur le classpath ou dans les dossiers du projet
+     * @return Reader Le texte de la campagne
+     * @throws IOException Si la campagne est introuvable
+     */
+    private static Reader openDefaultSource() throws IOException {
+        InputStream in = LevelPack.class.getResourceAsStream("/" + DEFAULT_SOURCE);
+        if (in == null) {
+            for (String path : new String[] { "src/", "../src/", "" }) {
+                File file = new File(path + DEFAULT_SOURCE);
+                if (file.exists()) {
+                    in = new FileInputStream(file);
+                    break;
+                }
+            }
+        }
+        if (in == null) {
+            throw new IOException("Campagne introuvable: " + DEFAULT_SOURCE);
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lit un flux jusqu'à la fin
+     * @param in Le flux
+     * @return byte[] Son contenu
+     * @throws IOException En cas d'erreur de lecture
+     */
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Retourne la position de l'entrée d'un niveau dans le répertoire
+     * @param level Numéro du niveau (à partir de 1)
+     * @return int La position
+     */
+    private int entry(int level) {
+        if (level < 1 || level > levelCount) {
+            throw new IllegalArgumentException("Niveau " + level + " absent du pack (" + levelCount + " niveaux)");
+        }
+        return directoryOffset + (level - 1) * DIRECTORY_ENTRY_SIZE;
+    }
+
+    /**
+     * Retourne la position d'un bloc d'un niveau
+     * @param level Numéro du niveau
+     * @param brick Rang du bloc dans le niveau
+     * @return int La position
+     */
+    private int brick(int level, int brick) {
+        return data.getInt(entry(level)) + brick * BRICK_SIZE;
+    }
+
+    /**
+     * Retourne le nombre de niveaux du pack
+     * @return int Le nombre de niveaux
+     */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Retourne le nom d'un niveau
+     * @param level Numéro du niveau (à partir de 1)
+     * @return String Le nom
+     */
+    public String getName(int level) {
+        int offset = data.getInt(entry(level) + 8);
+        byte[] name = new byte[data.getShort(offset) & 0xFFFF];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = data.get(offset + 2 + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Vérifie si la disposition d'un niveau est tirée au hasard
+     * @param level Numéro du niveau (à partir de 1)
+     * @return boolean true pour un niveau aléatoire
+     */
+    public boolean isRandom(int level) {
+        return (data.get(entry(level) + 6) & FLAG_RANDOM) != 0;
+    }
+
+    /**
+     * Retourne le nombre de blocs d'un niveau
+     * @param level Numéro du niveau (à partir de 1)
+     * @return int Le nombre de blocs
+     */
+    public int getBrickCount(int level) {
+        return data.getShort(entry(level) + 4) & 0xFFFF;
+    }
+
+    /**
+     * Retourne la colonne d'un bloc dans la grille des niveaux
+     * @param level Numéro du niveau
+     * @param brick Rang du bloc dans le niveau
+     * @return int La colonne
+     */
+    public int getColumn(int level, int brick) {
+        return data.get(brick(level, brick)) & 0xFF;
+    }
+
+    /**
+     * Retourne la rangée d'un bloc dans la grille des niveaux
+     * @param level Numéro du niveau
+     * @param brick Rang du bloc dans le niveau
+     * @return int La rangée
+     */
+    public int getRow(int level, int brick) {
+        return data.get(brick(level, brick) + 1) & 0xFF;
+    }
+
+    /**
+     * Retourne le type d'un bloc (BlockField.TYPE_*)
+     * @param level Numéro du niveau
+     * @param brick Rang du bloc dans le niveau
+     * @return int Le type
+     */
+    public int getType(int level, int brick) {
+        return data.get(brick(level, brick) + 2);
+    }
+
+    /**
+     * Retourne le nombre de coups nécessaires pour détruire un bloc
+     * @param level Numéro du niveau
+     * @param brick Rang du bloc dans le niveau
+     * @return int Les points de vie
+     */
+    public int getHitPoints(int level, int brick) {
+        return data.get(brick(level, brick) + 3);
+    }
+}
@@ -1,12 +1,13 @@
+import java.awt.AWTEvent;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.io.BufferedReader;
+import java.awt.Toolkit;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.BorderFactory;
@@ -18,6 +19,8 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
@@ -32,11 +35,57 @@ public class Main {
 	private static final int WINDOW_WIDTH = 490;
 	private static final int WINDOW_HEIGHT = 600;
 
+	// Nombre de balles du mode chaos quand --chaos est donné sans nombre
+	private static final int DEFAULT_CHAOS_BALLS = 1000;
+
+	// Inactivité de l'écran de démarrage avant le lancement de la démo (ms)
+	private static final int ATTRACT_DELAY = 30_000;
+
 	/**
 	 * Méthode principale qui lance le jeu
-	 * @param args Arguments de la ligne de commande (non utilisés)
+	 * @param args Arguments de la ligne de commande : --active pour l'affichage actif
+	 *             (Canvas et thread de rendu dédié), --passive (par défaut) pour
+	 *             l'affichage par repaint(), --chaos [nombre] pour lancer un grand
+	 *             nombre de balles à chaque lancement, --seed nombre pour jouer
+	 *             toujours la même partie (niveaux et power-ups), --pack fichier.bbl
+	 *             pour jouer une campagne compilée par LevelCompiler, --endless pour
+	 *             le mode sans fin
 	 */
 	public static void main(String[] args) {
+		boolean activeRendering = false;
+		int chaosBalls = 0;
+		Long seed = null;
+		LevelPack pack = null;
+		boolean endless = false;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--active")) {
+				activeRendering = true;
+			} else if (args[i].equals("--passive")) {
+				activeRendering = false;
+			} else if (args[i].equals("--chaos")) {
+				chaosBalls = DEFAULT_CHAOS_BALLS;
+				if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+					chaosBalls = Integer.parseInt(args[++i]);
+				}
+			} else if (args[i].equals("--seed") && i + 1 < args.length) {
+				try {
+					seed = Long.parseLong(args[++i]);
+				} catch (NumberFormatException e) {
+					System.err.println("Graine invalide: " + args[i]);
+				}
+			} else if (args[i].equals("--endless")) {
+				endless = true;
+			} else if (args[i].equals("--pack") && i + 1 < args.length) {
+				try {
+					pack = LevelPack.open(new File(args[++i]));
+					pack.verify();
+					System.out.println("Campagne " + args[i] + ": " + pack.getLevelCount() + " niveaux");
+				} catch (IOException e) {
+					System.err.println("Impossible de charger la campagne " + args[i] + ": " + e.getMessage());
+				}
+			}
+		}
+
 		// Définir le look and feel du système
 		try {
 			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -50,8 +99,19 @@ public class Main {
 		JFrame startScreen = createStartScreen(gameFrame);
 
 		// Créer le panneau de jeu
-		BlockBreakerPanel panel = new BlockBreakerPanel(gameFrame, startScreen);
+		BlockBreakerPanel panel = new BlockBreakerPanel(gameFrame, startScreen, activeRendering);
+		panel.setChaosBalls(chaosBalls);
+		if (pack != null) {
+			panel.setLevelPack(pack);
+		}
+		if (endless) {
+			panel.setEndless(true);
+		}
+		if (seed != null) {
+			panel.setSeed(seed);
+		}
 		gameFrame.getContentPane().add(panel);
+		startAttractMode(startScreen, panel);
 
 		// Afficher l'écran de démarrage
 		startScreen.setVisible(true);
@@ -93,7 +153,21 @@ public class Main {
 		titleLabel.setFont(new Font("Arial", Font.BOLD, 36));
 		titleLabel.setForeground(Color.WHITE);
 		titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
-		titleLabel.setBorder(BorderFactory.createEmptyBorder(50, 0, 30, 0));
+		titleLabel.setBorder(BorderFactory.createEmptyBorder(50, 0, 10, 0));
+
+		// Meilleur score, mis à jour à chaque record sans relire le fichier
+		HighScoreRepository highScores = HighScoreRepository.getDefault();
+		JLabel bestScoreLabel = new JLabel(bestScoreText(highScores.getHighScores()));
+		bestScoreLabel.setFont(new Font("Arial", Font.PLAIN, 16));
+		bestScoreLabel.setForeground(Color.WHITE);
+		bestScoreLabel.setHorizontalAlignment(SwingConstants.CENTER);
+		highScores.addListener(scores ->
+				SwingUtilities.invokeLater(() -> bestScoreLabel.setText(bestScoreText(scores))));
+
+		JPanel header = new JPanel(new BorderLayout());
+		header.setOpaque(false);
+		header.add(titleLabel, BorderLayout.NORTH);
+		header.add(bestScoreLabel, BorderLayout.CENTER);
 
 		// Panneau des boutons
 		JPanel buttonPanel = new JPanel();
@@ -139,7 +213,7 @@ public class Main {
 		buttonPanel.add(quitButton);
 
 		// Ajouter les composants au panneau principal
-		mainPanel.add(titleLabel, BorderLayout.NORTH);
+		mainPanel.add(header, BorderLayout.NORTH);
 		mainPanel.add(buttonPanel, BorderLayout.CENTER);
 
 		// Ajouter le panneau principal à la fenêtre
@@ -148,6 +222,44 @@ public class Main {
 		return startScreen;
 	}
 
+	/**
+	 * Lance la démo (partie jouée par le pilote automatique) quand l'écran de
+	 * démarrage reste affiché sans activité pendant ATTRACT_DELAY
+	 * @param startScreen L'écran de démarrage
+	 * @param panel Le panneau de jeu
+	 */
+	private static void startAttractMode(JFrame startScreen, BlockBreakerPanel panel) {
+		Timer timer = new Timer(ATTRACT_DELAY, e -> {
+			// Une boîte de dialogue ouverte depuis le menu repousse la démo
+			if (startScreen.isActive()) {
+				panel.startDemo();
+			} else if (startScreen.isVisible()) {
+				((Timer) e.getSource()).restart();
+			}
+		});
+		timer.setRepeats(false);
+
+		// Toute touche ou tout mouvement de souris repousse la démo
+		Toolkit.getDefaultToolkit().addAWTEventListener(e -> {
+			if (timer.isRunning()) {
+				timer.restart();
+			}
+		}, AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_MOTION_EVENT_MASK);
+
+		// Le délai ne court que tant que l'écran de démarrage est affiché
+		startScreen.addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentShown(ComponentEvent e) {
+				timer.restart();
+			}
+
+			@Override
+			public void componentHidden(ComponentEvent e) {
+				timer.stop();
+			}
+		});
+	}
+
 	/**
 	 * Crée un bouton stylisé pour le menu
 	 * @param text Le texte du bouton
@@ -171,7 +283,7 @@ public class Main {
 	 * Affiche les meilleurs scores
 	 */
 	private static void showHighScores() {
-		List<Integer> highScores = loadHighScores();
+		List<Integer> highScores = HighScoreRepository.getDefault().getHighScores();
 
 		StringBuilder message = new StringBuilder("Meilleurs scores:\n\n");
 
@@ -187,29 +299,12 @@ public class Main {
 	}
 
 	/**
-	 * Charge les meilleurs scores depuis le fichier
-	 * @return List<Integer> La liste des meilleurs scores
+	 * Retourne le texte du meilleur score affiché sous le titre
+	 * @param highScores Les meilleurs scores
+	 * @return String Le texte
 	 */
-	private static List<Integer> loadHighScores() {
-		List<Integer> highScores = new ArrayList<>();
-		File file = new File("highscores.txt");
-
-		if (file.exists()) {
-			try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-				String line;
-				while ((line = reader.readLine()) != null) {
-					try {
-						highScores.add(Integer.parseInt(line));
-					} catch (NumberFormatException e) {
-						// Ignorer les lignes qui ne sont pas des nombres
-					}
-				}
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
-
-		return highScores;
+	private static String bestScoreText(List<Integer> highScores) {
+		return highScores.isEmpty() ? "Aucun record" : "Record : " + highScores.get(0) + " points";
 	}
 
 	/**
@@ -221,18 +316,22 @@ public class Main {
 				"- Utilisez les flèches GAUCHE et DROITE pour déplacer la raquette\n" +
 				"- Appuyez sur ESPACE pour lancer la balle\n" +
 				"- Appuyez sur P pour mettre le jeu en pause\n" +
-				"- Appuyez sur ECHAP pour quitter la partie\n\n" +
+				"- Appuyez sur ECHAP pour quitter la partie\n" +
+				"- Appuyez sur F3 pour afficher les mesures du moteur\n\n" +
 				"Objectif:\n" +
 				"- Détruisez tous les blocs pour passer au niveau suivant\n" +
 				"- Certains blocs nécessitent plusieurs coups pour être détruits\n" +
 				"- Collectez les power-ups qui tombent des blocs pour obtenir des bonus\n" +
-				"- Vous avez 3 vies au départ\n\n" +
+				"- Vous avez 3 vies au départ\n" +
+				"- Mode sans fin (--endless) : les blocs descendent sans cesse, une rangée\n" +
+				"  qui atteint la ligne rouge coûte une vie\n\n" +
 				"Power-ups:\n" +
 				"- Agrandir la raquette\n" +
 				"- Rétrécir la raquette\n" +
 				"- Ralentir la balle\n" +
 				"- Accélérer la balle\n" +
-				"- Vie supplémentaire\n\n" +
+				"- Vie supplémentaire\n" +
+				"- Multi-balle (chaque balle se divise en trois)\n\n" +
 				"Bonne chance!";
 
 		JOptionPane.showMessageDialog(null, instructions, "Instructions", JOptionPane.INFORMATION_MESSAGE);
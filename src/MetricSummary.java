@@ -0,0 +1,80 @@
+import java.beans.ConstructorProperties;
+
+/**
+ * Résumé d'un histogramme à un instant donné, exporté par JMX (attribut composite)
+ */
+public class MetricSummary {
+
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p99;
+    private final long max;
+
+    /**
+     * Constructeur de la classe MetricSummary
+     * @param count Nombre de valeurs
+     * @param mean Moyenne
+     * @param p50 Médiane
+     * @param p99 99e centile
+     * @param max Maximum
+     */
+    @ConstructorProperties({"count", "mean", "p50", "p99", "max"})
+    public MetricSummary(long count, double mean, long p50, long p99, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * Résume un histogramme
+     * @param histogram L'histogramme
+     * @return MetricSummary Le résumé
+     */
+    public static MetricSummary of(Histogram histogram) {
+        return new MetricSummary(histogram.getCount(), histogram.getMean(),
+                histogram.getPercentile(0.5), histogram.getPercentile(0.99), histogram.getMax());
+    }
+
+    /**
+     * Retourne le nombre de valeurs
+     * @return long Le nombre de valeurs
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retourne la moyenne
+     * @return double La moyenne
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Retourne la médiane
+     * @return long La médiane
+     */
+    public long getP50() {
+        return p50;
+    }
+
+    /**
+     * Retourne le 99e centile
+     * @return long Le 99e centile
+     */
+    public long getP99() {
+        return p99;
+    }
+
+    /**
+     * Retourne le maximum
+     * @return long Le maximum
+     */
+    public long getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,145 @@
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+
+/**
+ * Panneau des mesures du moteur, affiché par-dessus le jeu avec F3.
+ *
+ * Les valeurs portent sur la dernière seconde : une fois par seconde, les
+ * compteurs des histogrammes sont recopiés et comparés à ceux de la seconde
+ * précédente, et le panneau est redessiné dans une image. Le reste du temps,
+ * l'afficher revient à recopier cette image (un fond translucide dessiné
+ * directement alloue à chaque image).
+ */
+public class MetricsOverlay {
+
+    public static final int WIDTH = 430;
+    private static final int LINE_HEIGHT = 16;
+    private static final int LINES = 5;
+    public static final int HEIGHT = LINES * LINE_HEIGHT + 8;
+    public static final int MARGIN = 10;
+
+    private static final long REFRESH_NANOS = 1_000_000_000L;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+
+    /**
+     * Compteurs d'un histogramme à la seconde précédente
+     */
+    private static class Window {
+        final Histogram histogram;
+        final long[] previous = new long[Histogram.BUCKET_COUNT];
+        final long[] delta = new long[Histogram.BUCKET_COUNT];
+        long total;
+
+        Window(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        /**
+         * Calcule les compteurs de la dernière seconde
+         */
+        void advance() {
+            histogram.copyCounts(delta);
+            total = 0;
+            for (int i = 0; i < delta.length; i++) {
+                long current = delta[i];
+                // Après une remise à zéro (JMX), repartir des compteurs actuels
+                delta[i] = Math.max(0, current - previous[i]);
+                previous[i] = current;
+                total += delta[i];
+            }
+        }
+
+        long percentile(double fraction) {
+            return Histogram.percentile(delta, total, fraction);
+        }
+    }
+
+    private final Window ticks;
+    private final Window frames;
+    private final Window jitter;
+    private final Window collisions;
+    private final BufferedImage panel = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    private boolean drawn;
+    private long lastRefresh;
+
+    /**
+     * Constructeur de la classe MetricsOverlay
+     * @param metrics Les mesures à afficher
+     */
+    public MetricsOverlay(EngineMetrics metrics) {
+        ticks = new Window(metrics.getTickHistogram());
+        frames = new Window(metrics.getRenderHistogram());
+        jitter = new Window(metrics.getJitterHistogram());
+        collisions = new Window(metrics.getCollisionHistogram());
+    }
+
+    /**
+     * Dessine le panneau en haut à droite
+     * @param g Graphics de destination
+     * @param width Largeur de la zone de dessin
+     * @param blocks Nombre de blocs du niveau
+     * @param balls Nombre de balles en jeu
+     */
+    public void draw(Graphics g, int width, int blocks, int balls) {
+        long now = System.nanoTime();
+        if (!drawn || now - lastRefresh >= REFRESH_NANOS) {
+            double seconds = drawn ? (now - lastRefresh) / 1e9 : 1;
+            refresh(seconds, blocks, balls);
+            lastRefresh = now;
+            drawn = true;
+        }
+        g.drawImage(panel, width - WIDTH - MARGIN, MARGIN, null);
+    }
+
+    /**
+     * Recalcule les valeurs de la dernière seconde et redessine le panneau
+     * @param seconds Durée écoulée depuis le calcul précédent
+     * @param blocks Nombre de blocs du niveau
+     * @param balls Nombre de balles en jeu
+     */
+    private void refresh(double seconds, int blocks, int balls) {
+        ticks.advance();
+        frames.advance();
+        jitter.advance();
+        collisions.advance();
+
+        String[] lines = {
+            String.format(Locale.FRANCE, "Pas     %s  (%d/s)", durations(ticks), Math.round(ticks.total / seconds)),
+            String.format(Locale.FRANCE, "Rendu   %s  (%d im/s)", durations(frames), Math.round(frames.total / seconds)),
+            "Écart   " + durations(jitter),
+            String.format(Locale.FRANCE, "Tests   méd %d  99%% %d  max %d /pas",
+                    collisions.percentile(0.5), collisions.percentile(0.99), collisions.percentile(1)),
+            "Blocs: " + blocks + "  Balles: " + balls
+        };
+
+        Graphics2D g = panel.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(FONT);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < LINES; i++) {
+            g.drawString(lines[i], 6, (i + 1) * LINE_HEIGHT);
+        }
+        g.dispose();
+    }
+
+    /**
+     * Met en forme la médiane, le 99e centile et le maximum d'une durée
+     * @param window Les compteurs de la dernière seconde
+     * @return String Le texte, en microsecondes
+     */
+    private static String durations(Window window) {
+        return String.format(Locale.FRANCE, "méd %6d  99%% %6d  max %6d µs",
+                window.percentile(0.5) / 1000, window.percentile(0.99) / 1000, window.percentile(1) / 1000);
+    }
+}
@@ -2,10 +2,6 @@ import java.awt.Component;
 import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Rectangle;
-import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 /**
  * Classe qui représente un power-up qui peut tomber d'un bloc détruit
@@ -17,12 +13,24 @@ public class PowerUp extends Rectangle {
     public static final int TYPE_SLOW_BALL = 3;
     public static final int TYPE_FAST_BALL = 4;
     public static final int TYPE_EXTRA_LIFE = 5;
+    public static final int TYPE_MULTI_BALL = 6;
+
+    // Nombre de types de power-ups (numérotés de 1 à TYPE_COUNT)
+    public static final int TYPE_COUNT = 6;
+    
+    // Taille d'un power-up
+    public static final int SIZE = 30;
+    private static final int FALL_SPEED = 2;
+
+    // Images par type (indice = type), déjà à la taille des power-ups
+    private static volatile Image[] sprites;
     
     private Image pic;
     private boolean active;
     private boolean collected;
     private int type;
     private int fallSpeed;
+    private int prevY; // Position au pas de simulation précédent (interpolation)
     
     /**
      * Constructeur de la classe PowerUp
@@ -31,46 +39,93 @@ public class PowerUp extends Rectangle {
      * @param type Type de power-up
      */
     public PowerUp(int x, int y, int type) {
+        reset(x, y, type);
+    }
+
+    /**
+     * Crée un power-up inactif, réservé par un PowerUpPool
+     */
+    PowerUp() {
+        this.width = SIZE;
+        this.height = SIZE;
+        this.active = false;
+    }
+
+    /**
+     * Remet le power-up en jeu à une nouvelle position (réutilisation par le pool).
+     * Ne fait ni allocation ni lecture d'image.
+     * @param x Position x du power-up
+     * @param y Position y du power-up
+     * @param type Type de power-up
+     */
+    public void reset(int x, int y, int type) {
         this.x = x;
         this.y = y;
-        this.width = 30;
-        this.height = 30;
+        this.prevY = y;
+        this.width = SIZE;
+        this.height = SIZE;
         this.type = type;
         this.active = true;
         this.collected = false;
-        this.fallSpeed = 2;
-        
-        // Chargement de l'image en fonction du type
-        String imageName = "";
+        this.fallSpeed = FALL_SPEED;
+        this.pic = getSprite(type);
+    }
+
+    /**
+     * Charge les images de tous les types de power-ups, une fois pour toutes.
+     * Appelé hors du thread de simulation (création du GameWorld) pour
+     * qu'aucun power-up ne lise une image pendant la partie.
+     */
+    public static synchronized void preloadSprites() {
+        if (sprites != null) {
+            return;
+        }
+        Image[] loaded = new Image[TYPE_COUNT + 1];
+        for (int type = 0; type <= TYPE_COUNT; type++) {
+            loaded[type] = SpriteCache.getScaled(getImageName(type), SIZE, SIZE);
+            if (loaded[type] == null) {
+                // Si l'image n'existe pas, on utilise une image par défaut
+                loaded[type] = SpriteCache.getScaled("ball.png", SIZE, SIZE);
+            }
+        }
+        sprites = loaded;
+    }
+
+    /**
+     * Retourne l'image d'un type de power-up
+     * @param type Type de power-up
+     * @return Image L'image, à la taille du power-up
+     */
+    static Image getSprite(int type) {
+        Image[] loaded = sprites;
+        if (loaded == null) {
+            preloadSprites();
+            loaded = sprites;
+        }
+        return loaded[type >= 1 && type <= TYPE_COUNT ? type : 0];
+    }
+
+    /**
+     * Retourne le nom de l'image d'un type de power-up
+     * @param type Type de power-up
+     * @return String Le nom de l'image
+     */
+    private static String getImageName(int type) {
         switch(type) {
             case TYPE_EXPAND_PADDLE:
-                imageName = "expand.png"; // À créer
-                break;
+                return "expand.png";
             case TYPE_SHRINK_PADDLE:
-                imageName = "shrink.png"; // À créer
-                break;
+                return "shrink.png";
             case TYPE_SLOW_BALL:
-                imageName = "slow.png"; // À créer
-                break;
+                return "slow.png";
             case TYPE_FAST_BALL:
-                imageName = "fast.png"; // À créer
-                break;
+                return "fast.png";
             case TYPE_EXTRA_LIFE:
-                imageName = "life.png"; // À créer
-                break;
+                return "life.png";
+            case TYPE_MULTI_BALL:
+                return "powerup.png";
             default:
-                imageName = "powerup.png"; // À créer
-        }
-        
-        try {
-            pic = ImageIO.read(new File("src/" + imageName));
-        } catch (IOException e) {
-            // Si l'image n'existe pas, on utilise une image par défaut
-            try {
-                pic = ImageIO.read(new File("src/ball.png"));
-            } catch (IOException ex) {
-                ex.printStackTrace();
-            }
+                return "powerup.png";
         }
     }
     
@@ -80,15 +135,43 @@ public class PowerUp extends Rectangle {
      * @param c Component
      */
     public void draw(Graphics g, Component c) {
+        draw(g, c, 1.0);
+    }
+    
+    /**
+     * Dessine le power-up à une position interpolée entre le pas précédent et le pas courant
+     * @param g Graphics
+     * @param c Component
+     * @param alpha Facteur d'interpolation (0 = position précédente, 1 = position courante)
+     */
+    public void draw(Graphics g, Component c, double alpha) {
         if (active && !collected) {
-            g.drawImage(pic, x, y, width, height, c);
+            g.drawImage(pic, x, getDrawY(alpha), c);
         }
     }
     
+    /**
+     * Retourne la position y au pas précédent
+     * @return int La position y
+     */
+    public int getPrevY() {
+        return prevY;
+    }
+
+    /**
+     * Retourne la position y interpolée entre le pas précédent et le pas courant
+     * @param alpha Facteur d'interpolation
+     * @return int La position y à afficher
+     */
+    public int getDrawY(double alpha) {
+        return (int) Math.round(prevY + (y - prevY) * alpha);
+    }
+    
     /**
      * Met à jour la position du power-up (le fait tomber)
      */
     public void update() {
+        prevY = y;
         if (active && !collected) {
             y += fallSpeed;
         }
@@ -0,0 +1,99 @@
+/**
+ * Power-ups en train de tomber, pris dans une réserve de taille fixe.
+ *
+ * Tous les power-ups sont créés avec la réserve, et leurs images sont chargées
+ * à ce moment-là : faire apparaître un power-up pendant la partie revient à
+ * réinitialiser un objet existant (O(1), sans allocation ni lecture de
+ * fichier), et un power-up ramassé ou sorti de l'écran retourne dans la réserve.
+ * Les power-ups en jeu restent dans leur ordre d'apparition, comme dans une liste.
+ */
+public class PowerUpPool {
+
+    // Plus de power-ups qu'il ne peut en tomber à la fois (un bloc sur cinq en contient)
+    public static final int DEFAULT_CAPACITY = 128;
+
+    // Les size premiers power-ups sont en jeu, les autres attendent d'être réutilisés
+    private final PowerUp[] items;
+    private int size;
+
+    /**
+     * Crée une réserve de DEFAULT_CAPACITY power-ups
+     */
+    public PowerUpPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Crée une réserve et charge les images des power-ups
+     * @param capacity Nombre maximal de power-ups en jeu en même temps
+     */
+    public PowerUpPool(int capacity) {
+        PowerUp.preloadSprites();
+        items = new PowerUp[capacity];
+        for (int i = 0; i < capacity; i++) {
+            items[i] = new PowerUp();
+        }
+    }
+
+    /**
+     * Fait apparaître un power-up
+     * @param x Position x du power-up
+     * @param y Position y du power-up
+     * @param type Type de power-up
+     * @return PowerUp Le power-up, ou null si la réserve est vide (il n'apparaît pas)
+     */
+    public PowerUp spawn(int x, int y, int type) {
+        if (size == items.length) {
+            return null;
+        }
+        PowerUp powerUp = items[size++];
+        powerUp.reset(x, y, type);
+        return powerUp;
+    }
+
+    /**
+     * Remet un power-up dans la réserve ; les suivants avancent d'un rang
+     * @param index Rang du power-up
+     */
+    public void remove(int index) {
+        PowerUp removed = items[index];
+        System.arraycopy(items, index + 1, items, index, size - index - 1);
+        items[--size] = removed;
+        removed.deactivate();
+    }
+
+    /**
+     * Remet tous les power-ups dans la réserve
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            items[i].deactivate();
+        }
+        size = 0;
+    }
+
+    /**
+     * Retourne un power-up en jeu
+     * @param index Rang du power-up (ordre d'apparition)
+     * @return PowerUp Le power-up
+     */
+    public PowerUp get(int index) {
+        return items[index];
+    }
+
+    /**
+     * Retourne le nombre de power-ups en jeu
+     * @return int Le nombre de power-ups
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne le nombre maximal de power-ups en jeu en même temps
+     * @return int La capacité
+     */
+    public int capacity() {
+        return items.length;
+    }
+}
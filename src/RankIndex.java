@@ -0,0 +1,265 @@
+import java.util.Arrays;
+
+/**
+ * Index des scores d'un classement : un arbre binaire de recherche équilibré
+ * (treap) dont chaque nœud connaît la taille de son sous-arbre. Le rang d'un
+ * score, le k-ième meilleur score et l'ajout d'un score coûtent O(log n).
+ *
+ * Les nœuds sont rangés côte à côte dans un seul tableau d'entiers (pas d'objet
+ * par entrée) : 24 octets par entrée, et un seul accès mémoire par nœud visité
+ * quand l'arbre compte des millions d'entrées. Les entrées sont triées par
+ * score décroissant, puis par ordre d'arrivée.
+ */
+public class RankIndex {
+
+    // Champs d'un nœud dans le tableau
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int SIZE = 2;
+    private static final int PRIORITY = 3;
+    private static final int SCORE = 4;
+    private static final int RECORD = 5;
+    private static final int NODE_INTS = 6;
+
+    // Nœud vide : ses champs valent 0, en particulier sa taille
+    private static final int NIL = 0;
+
+    private int[] nodes = new int[16 * NODE_INTS];
+    private int count;
+    private int root = NIL;
+
+    // Pile du parcours des meilleurs scores et du chargement
+    private int[] stack = new int[64];
+    private int spineDepth;
+
+    /**
+     * Ajoute une entrée
+     * @param recordId Numéro de l'entrée dans le classement (croissant)
+     * @param value Le score
+     */
+    public void add(int recordId, int value) {
+        root = insert(root, newNode(recordId, value));
+    }
+
+    /**
+     * Ajoute une entrée classée après toutes les autres, en temps constant.
+     * Sert au chargement d'un classement trié ; finishAppend doit être appelé
+     * avant toute autre opération.
+     * @param recordId Numéro de l'entrée dans le classement
+     * @param value Le score (inférieur ou égal à tous les scores déjà ajoutés)
+     */
+    public void append(int recordId, int value) {
+        int node = newNode(recordId, value);
+        // L'arbre se construit le long de sa branche droite : les nœuds de
+        // priorité plus faible passent sous le nouveau nœud, et leur
+        // sous-arbre ne changera plus
+        int last = NIL;
+        while (spineDepth > 0 && nodes[stack[spineDepth - 1] + PRIORITY] < nodes[node + PRIORITY]) {
+            last = stack[--spineDepth];
+            finish(last);
+        }
+        nodes[node + LEFT] = last;
+        if (spineDepth > 0) {
+            nodes[stack[spineDepth - 1] + RIGHT] = node;
+        }
+        if (spineDepth == stack.length) {
+            stack = Arrays.copyOf(stack, spineDepth * 2);
+        }
+        stack[spineDepth++] = node;
+    }
+
+    /**
+     * Termine une suite d'appels à append
+     */
+    public void finishAppend() {
+        while (spineDepth > 0) {
+            int node = stack[--spineDepth];
+            finish(node);
+            root = node;
+        }
+    }
+
+    /**
+     * Calcule la taille du sous-arbre d'un nœud à partir de ses fils
+     * @param node Le nœud
+     */
+    private void finish(int node) {
+        nodes[node + SIZE] = nodes[nodes[node + LEFT] + SIZE] + nodes[nodes[node + RIGHT] + SIZE] + 1;
+    }
+
+    /**
+     * Réserve un nœud sans fils
+     * @param recordId Numéro de l'entrée
+     * @param value Le score
+     * @return int Position du nœud dans le tableau
+     */
+    private int newNode(int recordId, int value) {
+        int node = ++count * NODE_INTS;
+        if (node + NODE_INTS > nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+        }
+        nodes[node + LEFT] = NIL;
+        nodes[node + RIGHT] = NIL;
+        nodes[node + SIZE] = 1;
+        nodes[node + PRIORITY] = mix(recordId);
+        nodes[node + SCORE] = value;
+        nodes[node + RECORD] = recordId;
+        return node;
+    }
+
+    /**
+     * Insère un nœud dans un sous-arbre
+     * @param subtree Racine du sous-arbre
+     * @param node Nœud à insérer
+     * @return int Nouvelle racine du sous-arbre
+     */
+    private int insert(int subtree, int node) {
+        if (subtree == NIL) {
+            return node;
+        }
+        if (before(node, subtree)) {
+            int child = insert(nodes[subtree + LEFT], node);
+            nodes[subtree + LEFT] = child;
+            if (nodes[child + PRIORITY] > nodes[subtree + PRIORITY]) {
+                return rotateRight(subtree);
+            }
+        } else {
+            int child = insert(nodes[subtree + RIGHT], node);
+            nodes[subtree + RIGHT] = child;
+            if (nodes[child + PRIORITY] > nodes[subtree + PRIORITY]) {
+                return rotateLeft(subtree);
+            }
+        }
+        nodes[subtree + SIZE]++;
+        return subtree;
+    }
+
+    /**
+     * Remonte le fils gauche d'un nœud à sa place
+     * @param node Le nœud
+     * @return int Nouvelle racine du sous-arbre
+     */
+    private int rotateRight(int node) {
+        int child = nodes[node + LEFT];
+        nodes[node + LEFT] = nodes[child + RIGHT];
+        nodes[child + RIGHT] = node;
+        finish(node);
+        finish(child);
+        return child;
+    }
+
+    /**
+     * Remonte le fils droit d'un nœud à sa place
+     * @param node Le nœud
+     * @return int Nouvelle racine du sous-arbre
+     */
+    private int rotateLeft(int node) {
+        int child = nodes[node + RIGHT];
+        nodes[node + RIGHT] = nodes[child + LEFT];
+        nodes[child + LEFT] = node;
+        finish(node);
+        finish(child);
+        return child;
+    }
+
+    /**
+     * Vérifie si un nœud est classé avant un autre
+     * @param a Premier nœud
+     * @param b Second nœud
+     * @return boolean true si a a un meilleur score, ou le même score et est arrivé avant
+     */
+    private boolean before(int a, int b) {
+        int scoreA = nodes[a + SCORE];
+        int scoreB = nodes[b + SCORE];
+        return scoreA > scoreB || (scoreA == scoreB && nodes[a + RECORD] < nodes[b + RECORD]);
+    }
+
+    /**
+     * Priorité pseudo-aléatoire d'un nœud, tirée de son numéro (l'arbre ne
+     * dépend que des entrées, pas d'un générateur ni de l'ordre de chargement)
+     * @param value Numéro de l'entrée
+     * @return int La priorité
+     */
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * Retourne le rang qu'aurait un score : 1 plus le nombre de scores strictement meilleurs
+     * @param value Le score
+     * @return int Le rang (à partir de 1)
+     */
+    public int rankOf(int value) {
+        int greater = 0;
+        int node = root;
+        while (node != NIL) {
+            if (nodes[node + SCORE] > value) {
+                greater += nodes[nodes[node + LEFT] + SIZE] + 1;
+                node = nodes[node + RIGHT];
+            } else {
+                node = nodes[node + LEFT];
+            }
+        }
+        return greater + 1;
+    }
+
+    /**
+     * Retourne l'entrée classée à un rang
+     * @param rank Le rang (à partir de 1)
+     * @return int Numéro de l'entrée, ou -1 si le rang dépasse le nombre d'entrées
+     */
+    public int select(int rank) {
+        if (rank < 1 || rank > count) {
+            return -1;
+        }
+        int node = root;
+        while (true) {
+            int leftSize = nodes[nodes[node + LEFT] + SIZE];
+            if (rank <= leftSize) {
+                node = nodes[node + LEFT];
+            } else if (rank == leftSize + 1) {
+                return nodes[node + RECORD];
+            } else {
+                rank -= leftSize + 1;
+                node = nodes[node + RIGHT];
+            }
+        }
+    }
+
+    /**
+     * Retourne les meilleures entrées, dans l'ordre du classement
+     * @param out Reçoit les numéros des entrées (sa taille donne le nombre demandé)
+     * @return int Le nombre d'entrées écrites
+     */
+    public int top(int[] out) {
+        int found = 0;
+        int depth = 0;
+        int node = root;
+        while (found < out.length && (node != NIL || depth > 0)) {
+            if (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = nodes[node + LEFT];
+            } else {
+                node = stack[--depth];
+                out[found++] = nodes[node + RECORD];
+                node = nodes[node + RIGHT];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Retourne le nombre d'entrées
+     * @return int Le nombre d'entrées
+     */
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,53 @@
+import java.awt.Canvas;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Vérifie que le dessin d'une image du jeu n'alloue aucun objet.
+ * Dessine le jeu hors écran, mesure les octets alloués par le thread courant
+ * (ThreadMXBean.getThreadAllocatedBytes) sur une série d'images stables,
+ * et se termine avec le code 1 si une image a alloué de la mémoire.
+ *
+ * Lancée par mvn verify (module game) ; à la main :
+ * java -Djava.awt.headless=true -cp bin RenderAllocationCheck
+ */
+public class RenderAllocationCheck {
+
+    private static final int WARMUP_FRAMES = 20_000;
+    private static final int MEASURED_FRAMES = 10_000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        GameWorld world = new GameWorld(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, new GameStats());
+        GameRenderer renderer = new GameRenderer(world);
+        world.getPowerUps().spawn(100, 200, PowerUp.TYPE_EXTRA_LIFE);
+        // Publier l'instantané qui contient le power-up
+        world.step(0);
+        Canvas component = new Canvas();
+        BufferedImage frame = new BufferedImage(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+
+        // Laisser le JIT compiler le chemin de rendu et remplir les caches
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            renderer.render(g, component, frame.getWidth(), frame.getHeight(), 0.5, false);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            renderer.render(g, component, frame.getWidth(), frame.getHeight(), 0.5, false);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        g.dispose();
+
+        System.out.println("Octets alloués par image: " + (double) allocated / MEASURED_FRAMES
+                + " (" + allocated + " octets pour " + MEASURED_FRAMES + " images)");
+        if (allocated > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Rejoue une partie enregistrée par ReplayRecorder.
+ *
+ * Pour se placer sur un pas donné, le lecteur repart de l'image clé la plus
+ * proche avant ce pas et simule rapidement les pas restants (au plus un
+ * intervalle d'images clés), au lieu de rejouer la partie depuis le début.
+ */
+public class ReplayPlayer {
+
+    private final long seed;
+    private final long length;
+    private final int finalScore;
+
+    // Événements décodés : pas, code, et dimensions pour les changements de taille
+    private final long[] eventTicks;
+    private final int[] eventCodes;
+    private final int[] eventWidths;
+    private final int[] eventHeights;
+    private final int eventCount;
+
+    // Index des images clés
+    private final long[] keyframeTicks;
+    private final int[] keyframeOffsets;
+    private final int[] keyframeLengths;
+    private final byte[] keyframes;
+
+    private final GameWorld world;
+    private int cursor; // Prochain événement à appliquer
+    private int inputs; // Entrées en vigueur
+    private boolean restored; // false tant qu'aucune image clé n'a été chargée
+
+    /**
+     * Charge un enregistrement et se place au début de la partie
+     * @param file Le fichier écrit par ReplayRecorder.save()
+     * @throws IOException Si le fichier est illisible ou n'est pas un enregistrement
+     */
+    public ReplayPlayer(File file) throws IOException {
+        this(file, LevelPack.getDefault());
+    }
+
+    /**
+     * Charge un enregistrement joué avec une autre campagne que celle du jeu
+     * @param file Le fichier écrit par ReplayRecorder.save()
+     * @param pack Les niveaux de la partie enregistrée
+     * @throws IOException Si le fichier est illisible ou n'est pas un enregistrement
+     */
+    public ReplayPlayer(File file, LevelPack pack) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != ReplayRecorder.MAGIC) {
+                throw new IOException("Ce fichier n'est pas un enregistrement de partie: " + file);
+            }
+            int version = in.readInt();
+            if (version != ReplayRecorder.VERSION) {
+                throw new IOException("Version d'enregistrement non prise en charge: " + version);
+            }
+            seed = in.readLong();
+            in.readInt(); // Intervalle des images clés (l'index suffit pour la lecture)
+            length = in.readLong();
+            finalScore = in.readInt();
+
+            // Décoder les événements
+            byte[] encoded = new byte[in.readInt()];
+            in.readFully(encoded);
+            long[] ticks = new long[16];
+            int[] codes = new int[16];
+            int[] widths = new int[16];
+            int[] heights = new int[16];
+            int count = 0;
+            int[] position = new int[1];
+            long tick = 0;
+            while (position[0] < encoded.length) {
+                if (count == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, count * 2);
+                    codes = Arrays.copyOf(codes, count * 2);
+                    widths = Arrays.copyOf(widths, count * 2);
+                    heights = Arrays.copyOf(heights, count * 2);
+                }
+                tick += readVarLong(encoded, position);
+                ticks[count] = tick;
+                codes[count] = (int) readVarLong(encoded, position);
+                if (codes[count] == ReplayRecorder.CODE_BOUNDS) {
+                    widths[count] = (int) readVarLong(encoded, position);
+                    heights[count] = (int) readVarLong(encoded, position);
+                }
+                count++;
+            }
+            eventTicks = ticks;
+            eventCodes = codes;
+            eventWidths = widths;
+            eventHeights = heights;
+            eventCount = count;
+
+            // Index et contenu des images clés
+            int keyframeCount = in.readInt();
+            if (keyframeCount == 0) {
+                throw new IOException("Enregistrement sans image clé: " + file);
+            }
+            keyframeTicks = new long[keyframeCount];
+            keyframeOffsets = new int[keyframeCount];
+            keyframeLengths = new int[keyframeCount];
+            for (int k = 0; k < keyframeCount; k++) {
+                keyframeTicks[k] = in.readLong();
+                keyframeOffsets[k] = in.readInt();
+                keyframeLengths[k] = in.readInt();
+            }
+            keyframes = new byte[in.readInt()];
+            in.readFully(keyframes);
+        }
+
+        GameStats stats = new GameStats();
+        stats.setSeed(seed);
+        world = new GameWorld(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, stats, pack);
+        seek(0);
+    }
+
+    /**
+     * Lit un entier écrit par ReplayRecorder.writeVarLong
+     * @param data Les octets
+     * @param position Position de lecture (avancée)
+     * @return long La valeur
+     * @throws IOException Si l'entier est tronqué
+     */
+    private static long readVarLong(byte[] data, int[] position) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IOException("Événement tronqué dans l'enregistrement");
+            }
+            int b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Entier trop long dans l'enregistrement");
+    }
+
+    /**
+     * Se place juste avant un pas de la partie
+     * @param tick Le pas (borné à la durée de l'enregistrement)
+     * @throws IOException Si l'image clé est illisible
+     */
+    public void seek(long tick) throws IOException {
+        tick = Math.max(0, Math.min(length, tick));
+
+        // Image clé la plus proche avant le pas demandé
+        int k = Arrays.binarySearch(keyframeTicks, tick);
+        if (k < 0) {
+            k = Math.max(0, -k - 2);
+        }
+
+        // Avancer depuis la position courante si c'est plus court que de recharger
+        if (!restored || tick < world.getTick() || keyframeTicks[k] > world.getTick()) {
+            restored = true;
+            world.readState(new DataInputStream(
+                    new ByteArrayInputStream(keyframes, keyframeOffsets[k], keyframeLengths[k])));
+
+            // Retrouver les entrées en vigueur et le prochain événement
+            cursor = 0;
+            while (cursor < eventCount && eventTicks[cursor] < world.getTick()) {
+                cursor++;
+            }
+            inputs = 0;
+            for (int e = cursor - 1; e >= 0; e--) {
+                if (eventCodes[e] != ReplayRecorder.CODE_BOUNDS) {
+                    inputs = eventCodes[e] >>> 1;
+                    break;
+                }
+            }
+        }
+
+        while (world.getTick() < tick && step()) {
+            // Simulation rapide jusqu'au pas demandé
+        }
+    }
+
+    /**
+     * Rejoue un pas de la partie
+     * @return boolean false si la fin de l'enregistrement est atteinte
+     */
+    public boolean step() {
+        long tick = world.getTick();
+        if (tick >= length || world.isFinished()) {
+            return false;
+        }
+        while (cursor < eventCount && eventTicks[cursor] == tick) {
+            if (eventCodes[cursor] == ReplayRecorder.CODE_BOUNDS) {
+                world.setBounds(eventWidths[cursor], eventHeights[cursor]);
+            } else {
+                inputs = eventCodes[cursor] >>> 1;
+            }
+            cursor++;
+        }
+        world.step(inputs);
+        return true;
+    }
+
+    /**
+     * Retourne la partie rejouée
+     * @return GameWorld La partie
+     */
+    public GameWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Retourne le pas courant
+     * @return long Le numéro du prochain pas
+     */
+    public long getTick() {
+        return world.getTick();
+    }
+
+    /**
+     * Retourne la durée de l'enregistrement
+     * @return long Le nombre de pas enregistrés
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Retourne la graine de la partie
+     * @return long La graine
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retourne le score atteint à la fin de la partie enregistrée
+     * @return int Le score final
+     */
+    public int getFinalScore() {
+        return finalScore;
+    }
+}
@@ -0,0 +1,207 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Enregistre une partie pour pouvoir la rejouer (voir ReplayPlayer).
+ *
+ * La simulation est déterministe : la graine (dans l'état de départ) et les
+ * entrées de chaque pas suffisent à rejouer la partie. Seuls les changements
+ * d'entrées sont enregistrés, sous la forme (écart en pas depuis l'événement
+ * précédent, code) avec des entiers de taille variable (varint) : une partie
+ * de plusieurs minutes tient en quelques kilo-octets.
+ *
+ * Un état complet de la partie (image clé) est aussi écrit tous les
+ * keyframeInterval pas, avec un index, pour qu'un lecteur puisse se placer à
+ * n'importe quel pas sans rejouer la partie depuis le début.
+ *
+ * Format du fichier (entiers en big-endian, comme DataOutputStream) :
+ * <pre>
+ * int     MAGIC, int VERSION
+ * long    graine, int intervalle des images clés
+ * long    nombre de pas enregistrés, int score final
+ * int     taille des événements, puis les événements :
+ *         varint écart en pas, varint code
+ *         (code = entrées &lt;&lt; 1, ou CODE_BOUNDS suivi de varint largeur, varint hauteur)
+ * int     nombre d'images clés, puis l'index : long pas, int position, int taille
+ * int     taille des images clés, puis les états écrits par GameWorld.writeState
+ * </pre>
+ */
+public class ReplayRecorder {
+
+    public static final int MAGIC = 0x42425250; // "BBRP"
+    public static final int VERSION = 3;
+
+    // Code d'événement : changement des dimensions de l'aire de jeu
+    public static final int CODE_BOUNDS = 1;
+
+    private final long seed;
+    private final int keyframeInterval;
+
+    private final ByteArrayOutputStream events = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream keyframes = new ByteArrayOutputStream();
+    private final DataOutputStream keyframeOut = new DataOutputStream(keyframes);
+
+    // Index des images clés : pas et position dans keyframes
+    private long[] keyframeTicks = new long[16];
+    private int[] keyframeOffsets = new int[16];
+    private int keyframeCount;
+
+    private long lastEventTick;
+    private int lastInputs;
+    private int lastWidth;
+    private int lastHeight;
+    private long recordedTicks;
+    private int finalScore;
+
+    /**
+     * Commence l'enregistrement d'une partie qui vient de commencer
+     * @param world La partie (au pas 0)
+     * @param keyframeInterval Nombre de pas entre deux images clés
+     */
+    public ReplayRecorder(GameWorld world, int keyframeInterval) {
+        this.seed = world.getStats().getSeed();
+        this.keyframeInterval = keyframeInterval;
+        this.lastEventTick = world.getTick();
+        this.lastWidth = world.getWidth();
+        this.lastHeight = world.getHeight();
+    }
+
+    /**
+     * Enregistre les entrées d'un pas, juste avant que la partie ne l'exécute
+     * @param world La partie
+     * @param inputs Entrées transmises à GameWorld.step()
+     */
+    public synchronized void record(GameWorld world, int inputs) {
+        long tick = world.getTick();
+        if (world.isFinished()) {
+            return;
+        }
+
+        if (tick % keyframeInterval == 0
+                && (keyframeCount == 0 || keyframeTicks[keyframeCount - 1] != tick)) {
+            writeKeyframe(world, tick);
+        }
+
+        if (world.getWidth() != lastWidth || world.getHeight() != lastHeight) {
+            lastWidth = world.getWidth();
+            lastHeight = world.getHeight();
+            writeEvent(tick, CODE_BOUNDS);
+            writeVarLong(events, lastWidth);
+            writeVarLong(events, lastHeight);
+        }
+
+        if (inputs != lastInputs) {
+            lastInputs = inputs;
+            writeEvent(tick, inputs << 1);
+        }
+
+        recordedTicks = tick + 1;
+        finalScore = world.getStats().getScore();
+    }
+
+    /**
+     * Met à jour le score final après le dernier pas (fin de partie)
+     * @param world La partie
+     */
+    public synchronized void finish(GameWorld world) {
+        finalScore = world.getStats().getScore();
+    }
+
+    /**
+     * Écrit un événement : écart depuis l'événement précédent et code
+     * @param tick Pas de l'événement
+     * @param code Code de l'événement
+     */
+    private void writeEvent(long tick, int code) {
+        writeVarLong(events, tick - lastEventTick);
+        writeVarLong(events, code);
+        lastEventTick = tick;
+    }
+
+    /**
+     * Écrit l'état complet de la partie et l'ajoute à l'index
+     * @param world La partie
+     * @param tick Pas courant
+     */
+    private void writeKeyframe(GameWorld world, long tick) {
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = tick;
+        keyframeOffsets[keyframeCount] = keyframes.size();
+        keyframeCount++;
+        try {
+            world.writeState(keyframeOut);
+            keyframeOut.flush();
+        } catch (IOException e) {
+            // Écriture en mémoire : ne peut pas échouer
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Écrit un entier positif sur 7 bits par octet, le bit de poids fort
+     * indiquant qu'un autre octet suit
+     * @param out Destination
+     * @param value Valeur (positive)
+     */
+    static void writeVarLong(OutputStream out, long value) {
+        try {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Retourne le nombre de pas enregistrés
+     * @return long Le nombre de pas
+     */
+    public synchronized long getRecordedTicks() {
+        return recordedTicks;
+    }
+
+    /**
+     * Écrit l'enregistrement dans un fichier
+     * @param file Le fichier (les dossiers manquants sont créés)
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    public synchronized void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Impossible de créer le dossier " + parent);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeInt(keyframeInterval);
+            out.writeLong(recordedTicks);
+            out.writeInt(finalScore);
+
+            out.writeInt(events.size());
+            events.writeTo(out);
+
+            out.writeInt(keyframeCount);
+            for (int k = 0; k < keyframeCount; k++) {
+                int end = (k + 1 < keyframeCount) ? keyframeOffsets[k + 1] : keyframes.size();
+                out.writeLong(keyframeTicks[k]);
+                out.writeInt(keyframeOffsets[k]);
+                out.writeInt(end - keyframeOffsets[k]);
+            }
+            out.writeInt(keyframes.size());
+            keyframes.writeTo(out);
+        }
+    }
+}
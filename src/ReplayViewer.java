@@ -0,0 +1,179 @@
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Visionneuse des parties enregistrées (dossier replays/).
+ *
+ * Lancement : java -cp bin ReplayViewer fichier.bbr [pas de départ]
+ * Touches : ESPACE pause, GAUCHE/DROITE recule/avance de 10 secondes, ORIGINE retour au début.
+ *
+ * Avec --bench, la partie est rejouée sans fenêtre aussi vite que possible
+ * et le temps par pas est affiché : une partie enregistrée sert alors de test
+ * de performance reproductible (java -cp bin ReplayViewer --bench fichier.bbr).
+ * Une partie jouée avec --pack se rejoue avec la même option (--pack fichier.bbl).
+ */
+public class ReplayViewer extends JPanel implements GameLoop.Simulation {
+
+    private static final int SEEK_STEP = 10 * GameLoop.TICKS_PER_SECOND;
+    private static final int MAX_FRAMES_PER_SECOND = 120;
+
+    private final ReplayPlayer player;
+    private final GameRenderer renderer;
+    private volatile boolean paused;
+    private volatile double renderAlpha = 1.0;
+
+    // Pas demandé par le clavier, appliqué par le thread de la boucle (-1 : aucun)
+    private final AtomicLong pendingSeek = new AtomicLong(-1);
+
+    /**
+     * Constructeur de la classe ReplayViewer
+     * @param player La partie à afficher
+     */
+    public ReplayViewer(ReplayPlayer player) {
+        this.player = player;
+        this.renderer = new GameRenderer(player.getWorld());
+        setPreferredSize(new Dimension(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT));
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                long tick = player.getTick();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_SPACE:
+                        paused = !paused;
+                        break;
+                    case KeyEvent.VK_LEFT:
+                        pendingSeek.set(Math.max(0, tick - SEEK_STEP));
+                        break;
+                    case KeyEvent.VK_RIGHT:
+                        pendingSeek.set(tick + SEEK_STEP);
+                        break;
+                    case KeyEvent.VK_HOME:
+                        pendingSeek.set(0);
+                        break;
+                }
+            }
+        });
+    }
+
+    /**
+     * Avance la partie d'un pas (appelé par la boucle de jeu)
+     */
+    @Override
+    public void tick() {
+        long seek = pendingSeek.getAndSet(-1);
+        if (seek >= 0) {
+            try {
+                player.seek(seek);
+            } catch (IOException e) {
+                System.err.println("Erreur lors du déplacement dans l'enregistrement: " + e.getMessage());
+            }
+        } else if (!paused) {
+            player.step();
+        }
+    }
+
+    /**
+     * Demande l'affichage d'une image (appelé par la boucle de jeu)
+     * @param alpha Facteur d'interpolation entre le pas précédent et le pas courant
+     */
+    @Override
+    public void render(double alpha) {
+        renderAlpha = paused ? 1.0 : alpha;
+        repaint();
+    }
+
+    /**
+     * Dessine la partie et la position dans l'enregistrement
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        renderer.render(g, this, getWidth(), getHeight(), renderAlpha, false);
+        g.setColor(Color.WHITE);
+        g.drawString(formatTime(player.getTick()) + " / " + formatTime(player.getLength())
+                + (paused ? "  (pause)" : ""), getWidth() - 160, 20);
+    }
+
+    /**
+     * Convertit un nombre de pas en durée "minutes:secondes"
+     * @param ticks Nombre de pas
+     * @return String La durée
+     */
+    private static String formatTime(long ticks) {
+        long seconds = ticks / GameLoop.TICKS_PER_SECOND;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * Rejoue une partie sans fenêtre et affiche le temps par pas
+     * @param player La partie
+     */
+    private static void benchmark(ReplayPlayer player) {
+        long start = System.nanoTime();
+        while (player.step()) {
+            // Rejouer aussi vite que possible
+        }
+        long elapsed = System.nanoTime() - start;
+        long ticks = Math.max(1, player.getTick());
+
+        int score = player.getWorld().getStats().getScore();
+        System.out.println("Pas rejoués: " + player.getTick() + " en " + elapsed / 1_000_000 + " ms ("
+                + elapsed / ticks + " ns/pas)");
+        System.out.println("Score final: " + score + (score == player.getFinalScore()
+                ? " (identique à la partie enregistrée)"
+                : " (DIFFÉRENT de la partie enregistrée: " + player.getFinalScore() + ")"));
+        if (score != player.getFinalScore()) {
+            System.exit(1);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int first = 0;
+        boolean bench = false;
+        LevelPack pack = LevelPack.getDefault();
+        while (first < args.length && args[first].startsWith("--")) {
+            if (args[first].equals("--bench")) {
+                bench = true;
+            } else if (args[first].equals("--pack") && first + 1 < args.length) {
+                pack = LevelPack.open(new File(args[++first]));
+            }
+            first++;
+        }
+        if (args.length <= first) {
+            System.err.println("Usage : java -cp bin ReplayViewer [--bench] [--pack fichier.bbl] fichier.bbr [pas de départ]");
+            System.exit(2);
+        }
+
+        ReplayPlayer player = new ReplayPlayer(new File(args[first]), pack);
+        System.out.println("Partie de " + player.getLength() + " pas, graine " + player.getSeed());
+        if (bench) {
+            benchmark(player);
+            return;
+        }
+        if (args.length > first + 1) {
+            player.seek(Long.parseLong(args[first + 1]));
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            ReplayViewer viewer = new ReplayViewer(player);
+            JFrame frame = new JFrame("Brick Breaker Deluxe - Replay");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.getContentPane().add(viewer);
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+            viewer.requestFocusInWindow();
+            new GameLoop(viewer, MAX_FRAMES_PER_SECOND).start();
+        });
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple tampon d'instantanés (FrameSnapshot) entre la simulation et le rendu.
+ *
+ * Trois instantanés tournent : celui que le moteur remplit, celui que le rendu
+ * dessine, et celui du milieu, le dernier publié. Publier échange l'instantané
+ * rempli avec celui du milieu ; lire échange celui du milieu avec celui du
+ * rendu s'il est plus récent. Les deux échanges sont une seule opération
+ * atomique : le rendu ne bloque jamais le moteur et inversement, et chacun
+ * travaille sur un instantané que l'autre ne touche pas.
+ *
+ * Un seul thread lit (le thread de rendu, ou l'EDT en affichage passif).
+ * Publier est synchronisé : le moteur avance sur la boucle de jeu, mais une
+ * nouvelle partie peut être lancée depuis l'EDT. Un client du mode versus
+ * publie les instantanés reçus du serveur (VersusConnection).
+ */
+public class SnapshotBuffer {
+
+    private static final int INDEX_MASK = 3;
+    // Le tampon du milieu contient un instantané pas encore lu
+    private static final int FRESH = 4;
+
+    private final FrameSnapshot[] snapshots = {
+        new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot()
+    };
+
+    // Indice de l'instantané du milieu, plus FRESH
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    /**
+     * Recopie l'état de la partie et le rend visible au rendu
+     * @param world Le moteur de jeu
+     */
+    public synchronized void publish(GameWorld world) {
+        snapshots[back].capture(world);
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Publie une copie d'un instantané construit hors du moteur (client réseau)
+     * @param snapshot L'instantané à recopier
+     */
+    public synchronized void publish(FrameSnapshot snapshot) {
+        snapshots[back].copyFrom(snapshot);
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Retourne le dernier instantané publié (thread de rendu). Il reste valable
+     * jusqu'à l'appel suivant.
+     * @return FrameSnapshot L'instantané à dessiner
+     */
+    public FrameSnapshot read() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+}
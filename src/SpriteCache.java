@@ -0,0 +1,117 @@
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Cache central des images du jeu, indexé par nom d'image.
+ * Chaque image est décodée une seule fois, depuis le classpath (ce qui permet
+ * de livrer le jeu dans un seul jar), puis partagée par tous les blocs et power-ups.
+ */
+public class SpriteCache {
+
+    private static final Map<String, Image> SPRITES = new HashMap<>();
+
+    private SpriteCache() {
+    }
+
+    /**
+     * Retourne l'image correspondant à un nom, en la chargeant au premier appel
+     * @param name Nom de l'image ("ball.png", "blue.png", ...)
+     * @return Image L'image partagée, ou null si elle est introuvable
+     */
+    public static synchronized Image get(String name) {
+        if (SPRITES.containsKey(name)) {
+            return SPRITES.get(name);
+        }
+        Image image = load(name);
+        // Mémoriser aussi les échecs pour ne pas refaire d'accès disque
+        SPRITES.put(name, image);
+        return image;
+    }
+
+    /**
+     * Retourne une copie de l'image à une taille donnée, créée au premier appel.
+     * Dessiner une image déjà à la bonne taille évite une mise à l'échelle
+     * (et ses allocations) à chaque image affichée.
+     * @param name Nom de l'image
+     * @param width Largeur voulue
+     * @param height Hauteur voulue
+     * @return Image L'image partagée à cette taille, ou null si elle est introuvable
+     */
+    public static synchronized Image getScaled(String name, int width, int height) {
+        String key = name + "@" + width + "x" + height;
+        if (SPRITES.containsKey(key)) {
+            return SPRITES.get(key);
+        }
+        Image source = get(name);
+        BufferedImage scaled = null;
+        if (source != null && width > 0 && height > 0) {
+            scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+            g.dispose();
+        }
+        SPRITES.put(key, scaled);
+        return scaled;
+    }
+
+    /**
+     * Charge à l'avance une liste d'images
+     * @param names Noms des images
+     */
+    public static void preload(String... names) {
+        for (String name : names) {
+            get(name);
+        }
+    }
+
+    /**
+     * Décode une image depuis le classpath, ou depuis les dossiers du projet
+     * quand le jeu est lancé sans que les images soient sur le classpath
+     * @param name Nom de l'image
+     * @return Image L'image décodée, ou null si elle est introuvable
+     */
+    private static Image load(String name) {
+        EngineEvents.AssetLoad event = new EngineEvents.AssetLoad();
+        event.begin();
+        Image image = decode(name);
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.found = image != null;
+            event.width = image != null ? image.getWidth(null) : 0;
+            event.height = image != null ? image.getHeight(null) : 0;
+            event.commit();
+        }
+        return image;
+    }
+
+    /**
+     * Décode une image depuis le classpath ou depuis les dossiers du projet
+     * @param name Nom de l'image
+     * @return Image L'image décodée, ou null si elle est introuvable
+     */
+    private static Image decode(String name) {
+        URL url = SpriteCache.class.getResource("/" + name);
+        if (url != null) {
+            try {
+                Image image = ImageIO.read(url);
+                if (image != null) {
+                    System.out.println("Image chargée avec succès: " + name);
+                    return image;
+                }
+            } catch (IOException e) {
+                System.err.println("Erreur lors du décodage de l'image " + name + ": " + e.getMessage());
+            }
+        }
+
+        return ImageLoader.loadImage(name);
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Détection de collision continue entre un rectangle en mouvement et un
+ * rectangle fixe (swept AABB). Calcule l'instant du premier contact pendant
+ * le déplacement et la normale de la face touchée, ce qui évite à un objet
+ * rapide de traverser un bloc entre deux pas de simulation.
+ *
+ * Un même objet sert pour plusieurs tests : seul le contact le plus précoce
+ * est conservé.
+ */
+public class SweptCollision {
+
+    // Résultat du contact le plus précoce trouvé depuis le dernier clear()
+    private double time;
+    private int normalX;
+    private int normalY;
+    private int target;
+
+    /**
+     * Oublie le contact mémorisé
+     * @param maxTime Instant au-delà duquel les contacts sont ignorés (1 = fin du déplacement)
+     */
+    public void clear(double maxTime) {
+        time = maxTime;
+        normalX = 0;
+        normalY = 0;
+        target = -1;
+    }
+
+    /**
+     * Teste le déplacement d'un rectangle contre un rectangle fixe et garde le contact
+     * s'il est plus précoce que celui déjà mémorisé
+     * @param x Position x du rectangle mobile
+     * @param y Position y du rectangle mobile
+     * @param w Largeur du rectangle mobile
+     * @param h Hauteur du rectangle mobile
+     * @param dx Déplacement horizontal pendant le pas
+     * @param dy Déplacement vertical pendant le pas
+     * @param tx Position x du rectangle fixe
+     * @param ty Position y du rectangle fixe
+     * @param tw Largeur du rectangle fixe
+     * @param th Hauteur du rectangle fixe
+     * @param id Identifiant du rectangle fixe (renvoyé par getTarget())
+     * @return boolean true si ce contact devient le plus précoce
+     */
+    public boolean test(double x, double y, double w, double h, double dx, double dy,
+            double tx, double ty, double tw, double th, int id) {
+        double entryX, exitX, entryY, exitY;
+
+        if (dx > 0) {
+            entryX = (tx - (x + w)) / dx;
+            exitX = (tx + tw - x) / dx;
+        } else if (dx < 0) {
+            entryX = (tx + tw - x) / dx;
+            exitX = (tx - (x + w)) / dx;
+        } else if (x + w <= tx || x >= tx + tw) {
+            return false; // Jamais de recouvrement horizontal
+        } else {
+            entryX = Double.NEGATIVE_INFINITY;
+            exitX = Double.POSITIVE_INFINITY;
+        }
+
+        if (dy > 0) {
+            entryY = (ty - (y + h)) / dy;
+            exitY = (ty + th - y) / dy;
+        } else if (dy < 0) {
+            entryY = (ty + th - y) / dy;
+            exitY = (ty - (y + h)) / dy;
+        } else if (y + h <= ty || y >= ty + th) {
+            return false; // Jamais de recouvrement vertical
+        } else {
+            entryY = Double.NEGATIVE_INFINITY;
+            exitY = Double.POSITIVE_INFINITY;
+        }
+
+        double entry = Math.max(entryX, entryY);
+        double exit = Math.min(exitX, exitY);
+
+        // Pas de contact, contact après la fin du déplacement, ou rectangles déjà
+        // imbriqués au départ (entry < 0) : rien à résoudre
+        if (entry >= exit || entry < 0 || entry >= time) {
+            return false;
+        }
+
+        time = entry;
+        target = id;
+        normalX = entryX >= entryY ? (dx > 0 ? -1 : 1) : 0;
+        normalY = entryY >= entryX ? (dy > 0 ? -1 : 1) : 0;
+        return true;
+    }
+
+    /**
+     * Teste le déplacement contre un plan vertical ou horizontal (bord de l'aire de jeu).
+     * Le plan est un mur plein : un rectangle déjà passé de l'autre côté est touché
+     * immédiatement (instant 0), ce qui le renvoie vers l'aire de jeu.
+     * @param position Position de départ sur l'axe testé (bord du rectangle mobile qui avance vers le plan)
+     * @param delta Déplacement sur l'axe testé, en direction du plan
+     * @param plane Position du plan
+     * @param vertical true pour un plan vertical (normale horizontale), false sinon
+     * @param id Identifiant du plan (renvoyé par getTarget())
+     * @return boolean true si ce contact devient le plus précoce
+     */
+    public boolean testPlane(double position, double delta, double plane, boolean vertical, int id) {
+        if (delta == 0) {
+            return false;
+        }
+        double t = Math.max(0, (plane - position) / delta);
+        if (t >= time) {
+            return false;
+        }
+        time = t;
+        target = id;
+        int normal = delta > 0 ? -1 : 1;
+        normalX = vertical ? normal : 0;
+        normalY = vertical ? 0 : normal;
+        return true;
+    }
+
+    /**
+     * Retourne l'instant du contact le plus précoce (fraction du déplacement)
+     * @return double L'instant du contact
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Retourne la composante horizontale de la normale au point de contact
+     * @return int -1, 0 ou 1
+     */
+    public int getNormalX() {
+        return normalX;
+    }
+
+    /**
+     * Retourne la composante verticale de la normale au point de contact
+     * @return int -1, 0 ou 1
+     */
+    public int getNormalY() {
+        return normalY;
+    }
+
+    /**
+     * Indique si un contact a été trouvé depuis le dernier clear()
+     * @return boolean true si un contact a été trouvé
+     */
+    public boolean hasHit() {
+        return target != -1;
+    }
+
+    /**
+     * Retourne l'identifiant de l'objet touché
+     * @return int L'identifiant, ou -1 si aucun contact
+     */
+    public int getTarget() {
+        return target;
+    }
+}
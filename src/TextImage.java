@@ -0,0 +1,51 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Texte dessiné une fois dans une image transparente.
+ * L'afficher revient à recopier l'image : ni chaîne de caractères, ni changement
+ * de police sur le Graphics de destination (ce qui alloue à chaque appel).
+ */
+public class TextImage {
+
+    private final BufferedImage image;
+    private final int ascent;
+
+    /**
+     * Dessine un texte dans une nouvelle image
+     * @param text Le texte
+     * @param font La police
+     * @param color La couleur du texte
+     */
+    public TextImage(String text, Font font, Color color) {
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D probeGraphics = probe.createGraphics();
+        FontMetrics metrics = probeGraphics.getFontMetrics(font);
+        probeGraphics.dispose();
+
+        this.ascent = metrics.getAscent();
+        this.image = new BufferedImage(Math.max(1, metrics.stringWidth(text)),
+                Math.max(1, metrics.getHeight()), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(font);
+        g.setColor(color);
+        g.drawString(text, 0, ascent);
+        g.dispose();
+    }
+
+    /**
+     * Dessine le texte, comme le ferait drawString
+     * @param g Graphics
+     * @param x Position x du texte
+     * @param baseline Position y de la ligne de base du texte
+     */
+    public void draw(Graphics g, int x, int baseline) {
+        g.drawImage(image, x, baseline - ascent, null);
+    }
+}
@@ -0,0 +1,160 @@
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Fenêtre d'un joueur du mode versus.
+ *
+ * La partie tourne sur le serveur (VersusServer) : le client envoie ses
+ * touches et dessine l'état reçu, interpolé entre les deux derniers états.
+ * Le score de l'adversaire est affiché en haut à droite.
+ *
+ * Lancement : java -cp bin VersusClient serveur [port]
+ */
+public class VersusClient extends JPanel implements GameLoop.Simulation {
+
+    private static final int MAX_FRAMES_PER_SECOND = 120;
+
+    private final VersusConnection connection;
+    private final GameRenderer renderer;
+    private final InputState input = new InputState();
+    private int sentInputs;
+    private volatile double renderAlpha = 1.0;
+
+    /**
+     * Constructeur de la classe VersusClient
+     * @param connection La connexion au serveur
+     */
+    public VersusClient(VersusConnection connection) {
+        this.connection = connection;
+        this.renderer = new GameRenderer(connection.getFrames(), GameWorld.BALL_WIDTH, GameWorld.BALL_HEIGHT);
+        setPreferredSize(new Dimension(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT));
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_LEFT:
+                        input.press(GameWorld.INPUT_LEFT);
+                        break;
+                    case KeyEvent.VK_RIGHT:
+                        input.press(GameWorld.INPUT_RIGHT);
+                        break;
+                    case KeyEvent.VK_SPACE:
+                        input.tap(GameWorld.INPUT_LAUNCH);
+                        break;
+                }
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_LEFT:
+                        input.release(GameWorld.INPUT_LEFT);
+                        break;
+                    case KeyEvent.VK_RIGHT:
+                        input.release(GameWorld.INPUT_RIGHT);
+                        break;
+                }
+            }
+        });
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                input.releaseAll();
+            }
+        });
+    }
+
+    /**
+     * Lit les états reçus et envoie les touches qui ont changé (appelé par la boucle de jeu)
+     */
+    @Override
+    public void tick() {
+        connection.poll();
+        if (!connection.isWelcomed()) {
+            return;
+        }
+        int inputs = input.sample();
+        // Un lancement est ponctuel : il est toujours envoyé
+        if (inputs != sentInputs || (inputs & GameWorld.INPUT_LAUNCH) != 0) {
+            connection.sendInputs(inputs);
+            sentInputs = inputs & ~GameWorld.INPUT_LAUNCH;
+        }
+    }
+
+    /**
+     * Demande l'affichage d'une image (appelé par la boucle de jeu)
+     * @param alpha Ignoré : l'interpolation suit l'arrivée des états du serveur
+     */
+    @Override
+    public void render(double alpha) {
+        long sinceState = System.nanoTime() - connection.getLastStateNanos();
+        renderAlpha = Math.min(1.0, (double) sinceState / GameLoop.TICK_NANOS);
+        repaint();
+    }
+
+    /**
+     * Dessine la partie, l'adversaire et le résultat
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (!connection.isWelcomed()) {
+            g.setColor(GameRenderer.BACKGROUND);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setColor(Color.WHITE);
+            g.drawString(connection.isClosed() ? "Connexion au serveur perdue"
+                    : "En attente du second joueur...", getWidth() / 2 - 90, getHeight() / 2);
+            return;
+        }
+        renderer.render(g, this, getWidth(), getHeight(), renderAlpha, false);
+
+        g.setColor(Color.WHITE);
+        g.drawString("Adversaire: " + connection.getOpponentScore()
+                + (connection.isOpponentFinished() ? " (terminé)" : "  vies " + connection.getOpponentLives()),
+                getWidth() - 170, 20);
+
+        int result = connection.getResult();
+        if (result >= 0) {
+            String text = result == VersusProtocol.RESULT_VICTORY ? "VICTOIRE"
+                    : result == VersusProtocol.RESULT_DEFEAT ? "DÉFAITE" : "ÉGALITÉ";
+            g.drawString(text + "  " + connection.getFinalScore() + " à " + connection.getFinalOpponentScore(),
+                    getWidth() / 2 - 70, getHeight() / 2);
+        } else if (connection.isFinished()) {
+            g.drawString("En attente de la fin de la partie adverse...", getWidth() / 2 - 130, getHeight() / 2);
+        } else if (connection.isClosed()) {
+            g.drawString("Connexion au serveur perdue", getWidth() / 2 - 90, getHeight() / 2);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage : java -cp bin VersusClient serveur [port]");
+            System.exit(2);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : VersusProtocol.DEFAULT_PORT;
+        VersusConnection connection = new VersusConnection(args[0], port);
+        System.out.println("Connecté à " + args[0] + ":" + port);
+
+        SwingUtilities.invokeLater(() -> {
+            VersusClient client = new VersusClient(connection);
+            JFrame frame = new JFrame("Brick Breaker Deluxe - Versus");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.getContentPane().add(client);
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+            client.requestFocusInWindow();
+            new GameLoop(client, MAX_FRAMES_PER_SECOND).start();
+        });
+    }
+}
@@ -0,0 +1,401 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Connexion d'un joueur au serveur du mode versus (VersusServer).
+ *
+ * La connexion reconstruit l'état de la partie à partir des écarts envoyés par
+ * le serveur et le publie dans un SnapshotBuffer : le rendu dessine donc une
+ * partie distante exactement comme une partie locale. La position précédente
+ * des balles, de la raquette et des power-ups est celle de l'état précédent
+ * reçu, ce qui permet d'interpoler entre deux états.
+ *
+ * poll() et sendInputs() ne bloquent pas et sont appelés par un seul thread
+ * (la boucle de jeu du client). L'adversaire et le résultat peuvent être lus
+ * depuis n'importe quel thread.
+ */
+public class VersusConnection implements Closeable {
+
+    private static final int RECEIVE_BUFFER = 2 * VersusProtocol.MAX_MESSAGE;
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(RECEIVE_BUFFER);
+    private final ByteBuffer out = ByteBuffer.allocate(64);
+    private final ByteBuffer message = ByteBuffer.allocate(8);
+
+    // État reconstruit (thread de poll) et instantanés publiés pour le rendu
+    private final FrameSnapshot state = new FrameSnapshot();
+    private final SnapshotBuffer frames = new SnapshotBuffer();
+    private long layout;
+
+    private volatile boolean welcomed;
+    private volatile int player = -1;
+    private volatile long seed;
+    private volatile long lastStateNanos;
+    private volatile boolean finished;
+    private volatile boolean closed;
+
+    // Adversaire
+    private volatile int opponentScore;
+    private volatile int opponentLives;
+    private volatile int opponentLevel;
+    private volatile boolean opponentFinished;
+
+    // Résultat de la partie (-1 : partie en cours)
+    private volatile int result = -1;
+    private volatile int finalScore;
+    private volatile int finalOpponentScore;
+
+    // Octets reçus depuis la connexion
+    private long received;
+
+    /**
+     * Se connecte au serveur
+     * @param host Adresse du serveur
+     * @param port Port du serveur
+     * @throws IOException Si la connexion échoue
+     */
+    public VersusConnection(String host, int port) throws IOException {
+        channel = SocketChannel.open();
+        try {
+            channel.connect(new InetSocketAddress(host, port));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        state.ballWidth = GameWorld.BALL_WIDTH;
+        state.ballHeight = GameWorld.BALL_HEIGHT;
+    }
+
+    /**
+     * Lit et applique les messages reçus du serveur, sans bloquer
+     * @return boolean true si un nouvel état a été publié
+     */
+    public boolean poll() {
+        if (closed) {
+            return false;
+        }
+        boolean published = false;
+        try {
+            int read;
+            while ((read = channel.read(in)) > 0) {
+                received += read;
+                if (!in.hasRemaining()) {
+                    break;
+                }
+            }
+            in.flip();
+            int length;
+            while ((length = VersusProtocol.nextMessage(in)) >= 0) {
+                int end = in.position() + length;
+                int type = in.get();
+                switch (type) {
+                    case VersusProtocol.MSG_WELCOME:
+                        player = in.get();
+                        seed = in.getLong();
+                        welcomed = true;
+                        break;
+                    case VersusProtocol.MSG_STATE:
+                        readState();
+                        published = true;
+                        break;
+                    case VersusProtocol.MSG_RESULT:
+                        int outcome = in.get();
+                        finalScore = (int) VersusProtocol.getVarint(in);
+                        finalOpponentScore = (int) VersusProtocol.getVarint(in);
+                        result = outcome;
+                        break;
+                }
+                in.position(end);
+            }
+            in.compact();
+            if (read < 0) {
+                closed = true;
+            }
+        } catch (IOException e) {
+            System.err.println("Connexion au serveur versus perdue: " + e.getMessage());
+            closed = true;
+        }
+        if (published) {
+            frames.publish(state);
+            lastStateNanos = System.nanoTime();
+        }
+        return published;
+    }
+
+    /**
+     * Applique un message STATE (écart avec l'état précédent) à l'état reconstruit
+     */
+    private void readState() {
+        FrameSnapshot s = state;
+        s.tick += VersusProtocol.getVarint(in);
+        int flags = in.get() & 0xFF;
+        s.ballLaunched = (flags & VersusProtocol.FLAG_LAUNCHED) != 0;
+        finished = (flags & VersusProtocol.FLAG_FINISHED) != 0;
+
+        if ((flags & VersusProtocol.FLAG_STATS) != 0) {
+            s.score = (int) VersusProtocol.getVarint(in);
+            s.lives = (int) VersusProtocol.getVarint(in);
+            s.level = (int) VersusProtocol.getVarint(in);
+        }
+        if ((flags & VersusProtocol.FLAG_OPPONENT) != 0) {
+            opponentScore = (int) VersusProtocol.getVarint(in);
+            opponentLives = (int) VersusProtocol.getVarint(in);
+            opponentLevel = (int) VersusProtocol.getVarint(in);
+            opponentFinished = in.get() != 0;
+        }
+
+        // Sans changement, la raquette est immobile depuis l'état précédent
+        s.paddlePrevX = s.paddleX;
+        s.paddlePrevY = s.paddleY;
+        if ((flags & VersusProtocol.FLAG_PADDLE) != 0) {
+            s.paddleX += VersusProtocol.getSigned(in);
+            s.paddleY += VersusProtocol.getSigned(in);
+            s.paddleWidth = (int) VersusProtocol.getVarint(in);
+            s.paddleHeight = (int) VersusProtocol.getVarint(in);
+        }
+
+        int previousBalls = s.ballCount;
+        for (int i = 0; i < previousBalls; i++) {
+            s.ballPrevX[i] = (int) s.ballX[i];
+            s.ballPrevY[i] = (int) s.ballY[i];
+        }
+        if ((flags & VersusProtocol.FLAG_BALLS) != 0) {
+            int count = (int) VersusProtocol.getVarint(in);
+            s.ensureBalls(count);
+            for (int i = 0; i < count; i++) {
+                boolean known = i < previousBalls;
+                int x = VersusProtocol.getSigned(in) + (known ? (int) s.ballX[i] : 0);
+                int y = VersusProtocol.getSigned(in) + (known ? (int) s.ballY[i] : 0);
+                s.ballX[i] = x;
+                s.ballY[i] = y;
+                if (!known) {
+                    // Nouvelle balle : pas de position précédente à interpoler
+                    s.ballPrevX[i] = x;
+                    s.ballPrevY[i] = y;
+                }
+            }
+            s.ballCount = count;
+        }
+
+        if ((flags & VersusProtocol.FLAG_POWER_UPS) != 0) {
+            int previousPowerUps = s.powerUpCount;
+            int count = (int) VersusProtocol.getVarint(in);
+            s.ensurePowerUps(count);
+            for (int i = 0; i < count; i++) {
+                int x = VersusProtocol.getSigned(in);
+                int y = VersusProtocol.getSigned(in);
+                int type = (int) VersusProtocol.getVarint(in);
+                // Le même power-up qu'à l'état précédent s'il est au même endroit et du même type
+                boolean same = i < previousPowerUps && s.powerUpX[i] == x && s.powerUpType[i] == type
+                        && s.powerUpY[i] <= y;
+                s.powerUpPrevY[i] = same ? s.powerUpY[i] : y;
+                s.powerUpX[i] = x;
+                s.powerUpY[i] = y;
+                s.powerUpType[i] = type;
+            }
+            s.powerUpCount = count;
+        } else {
+            for (int i = 0; i < s.powerUpCount; i++) {
+                s.powerUpPrevY[i] = s.powerUpY[i];
+            }
+        }
+
+        if ((flags & VersusProtocol.FLAG_BLOCKS_FULL) != 0) {
+            // Nouveau placement des blocs : le rendu redessine toute la couche
+            s.layout = ++layout;
+            s.scroll = VersusProtocol.getVarint(in) - 1;
+            int count = (int) VersusProtocol.getVarint(in);
+            s.ensureBlocks(count);
+            for (int i = 0; i < count; i++) {
+                s.blockX[i] = VersusProtocol.getSigned(in);
+                s.blockY[i] = VersusProtocol.getSigned(in);
+                s.blockWidth[i] = (int) VersusProtocol.getVarint(in);
+                s.blockHeight[i] = (int) VersusProtocol.getVarint(in);
+                s.blockType[i] = (int) VersusProtocol.getVarint(in);
+                s.blockHitPoints[i] = (int) VersusProtocol.getVarint(in);
+            }
+            s.blockCount = count;
+        } else {
+            int changed = (int) VersusProtocol.getVarint(in);
+            int index = -1;
+            for (int i = 0; i < changed; i++) {
+                index += (int) VersusProtocol.getVarint(in);
+                s.blockHitPoints[index] = (int) VersusProtocol.getVarint(in);
+            }
+        }
+    }
+
+    /**
+     * Envoie les entrées du joueur au serveur, sans bloquer
+     * @param inputs Les entrées (GameWorld.INPUT_*)
+     */
+    public void sendInputs(int inputs) {
+        if (closed) {
+            return;
+        }
+        message.clear();
+        message.put((byte) VersusProtocol.MSG_INPUT);
+        message.put((byte) inputs);
+        message.flip();
+        if (!VersusProtocol.putMessage(out, message)) {
+            // Le serveur ne lit plus : l'entrée est perdue, la suivante la remplacera
+            return;
+        }
+        try {
+            out.flip();
+            channel.write(out);
+            out.compact();
+        } catch (IOException e) {
+            System.err.println("Connexion au serveur versus perdue: " + e.getMessage());
+            closed = true;
+        }
+    }
+
+    /**
+     * Ferme la connexion
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Connexion déjà perdue
+        }
+    }
+
+    /**
+     * Retourne les instantanés à dessiner
+     * @return SnapshotBuffer Les instantanés publiés à chaque état reçu
+     */
+    public SnapshotBuffer getFrames() {
+        return frames;
+    }
+
+    /**
+     * Retourne l'état reconstruit (thread de poll uniquement)
+     * @return FrameSnapshot Le dernier état reçu
+     */
+    FrameSnapshot getState() {
+        return state;
+    }
+
+    /**
+     * Retourne la date de réception du dernier état
+     * @return long System.nanoTime() à la réception
+     */
+    public long getLastStateNanos() {
+        return lastStateNanos;
+    }
+
+    /**
+     * Vérifie si la partie a commencé (message de bienvenue reçu)
+     * @return boolean true si les deux joueurs sont connectés
+     */
+    public boolean isWelcomed() {
+        return welcomed;
+    }
+
+    /**
+     * Retourne le numéro du joueur
+     * @return int 0 ou 1, -1 avant le début de la partie
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Retourne la graine de la partie
+     * @return long La graine, commune aux deux joueurs
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Vérifie si la partie du joueur est terminée
+     * @return boolean true si le joueur a perdu ou fini tous les niveaux
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Vérifie si la connexion est fermée
+     * @return boolean true si le serveur a fermé la connexion ou si elle est perdue
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Retourne le score de l'adversaire
+     * @return int Le score
+     */
+    public int getOpponentScore() {
+        return opponentScore;
+    }
+
+    /**
+     * Retourne les vies de l'adversaire
+     * @return int Le nombre de vies
+     */
+    public int getOpponentLives() {
+        return opponentLives;
+    }
+
+    /**
+     * Retourne le niveau de l'adversaire
+     * @return int Le niveau
+     */
+    public int getOpponentLevel() {
+        return opponentLevel;
+    }
+
+    /**
+     * Vérifie si la partie de l'adversaire est terminée
+     * @return boolean true si l'adversaire a fini
+     */
+    public boolean isOpponentFinished() {
+        return opponentFinished;
+    }
+
+    /**
+     * Retourne le résultat de la partie
+     * @return int VersusProtocol.RESULT_*, ou -1 si la partie est en cours
+     */
+    public int getResult() {
+        return result;
+    }
+
+    /**
+     * Retourne le score final du joueur
+     * @return int Le score annoncé avec le résultat
+     */
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    /**
+     * Retourne le score final de l'adversaire
+     * @return int Le score annoncé avec le résultat
+     */
+    public int getFinalOpponentScore() {
+        return finalOpponentScore;
+    }
+
+    /**
+     * Retourne le nombre d'octets reçus depuis la connexion
+     * @return long Les octets reçus
+     */
+    public long getReceived() {
+        return received;
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Protocole du mode versus à deux joueurs (VersusServer, VersusConnection).
+ *
+ * Les messages circulent sur une connexion TCP, chacun précédé de sa longueur
+ * (varint) puis de son type (un octet). Les entiers sont des varints, comme
+ * dans les replays : la plupart des valeurs tiennent sur un octet. Les écarts
+ * (positions) sont codés en zigzag pour que les petits écarts négatifs restent
+ * courts.
+ *
+ * <pre>
+ * WELCOME (serveur)  octet joueur (0 ou 1), long graine, varint largeur et hauteur
+ *                    de l'aire de jeu
+ * STATE   (serveur)  varint écart de pas, octet FLAG_*, puis seulement les
+ *                    parties signalées par les FLAG_* (voir VersusServer.writeState)
+ * RESULT  (serveur)  octet RESULT_*, varint score, varint score de l'adversaire
+ * INPUT   (client)   octet entrées (GameWorld.INPUT_*)
+ * </pre>
+ *
+ * Un état ne contient que ce qui a changé depuis l'état précédent envoyé au
+ * même client : TCP livre tous les messages dans l'ordre, le client peut donc
+ * toujours appliquer un écart à l'état qu'il a déjà.
+ */
+public final class VersusProtocol {
+
+    public static final int DEFAULT_PORT = 4567;
+
+    // Types de messages
+    public static final int MSG_WELCOME = 1;
+    public static final int MSG_STATE = 2;
+    public static final int MSG_RESULT = 3;
+    public static final int MSG_INPUT = 4;
+
+    // Contenu d'un message STATE
+    public static final int FLAG_LAUNCHED = 1;
+    public static final int FLAG_FINISHED = 2;
+    public static final int FLAG_STATS = 4;
+    public static final int FLAG_OPPONENT = 8;
+    public static final int FLAG_PADDLE = 16;
+    public static final int FLAG_BALLS = 32;
+    public static final int FLAG_POWER_UPS = 64;
+    public static final int FLAG_BLOCKS_FULL = 128;
+
+    // Issue d'une partie, pour le joueur qui reçoit le message
+    public static final int RESULT_DEFEAT = 0;
+    public static final int RESULT_VICTORY = 1;
+    public static final int RESULT_DRAW = 2;
+
+    // Taille maximale d'un message (un état complet avec MAX_BALLS balles tient largement)
+    public static final int MAX_MESSAGE = 128 * 1024;
+
+    private VersusProtocol() {
+    }
+
+    /**
+     * Écrit un entier positif en varint (7 bits par octet)
+     * @param out Destination
+     * @param value La valeur (positive)
+     */
+    public static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Lit un varint
+     * @param in Source
+     * @return long La valeur
+     */
+    public static long getVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Écrit un entier signé en zigzag puis en varint
+     * @param out Destination
+     * @param value La valeur
+     */
+    public static void putSigned(ByteBuffer out, int value) {
+        putVarint(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Lit un entier signé écrit par putSigned
+     * @param in Source
+     * @return int La valeur
+     */
+    public static int getSigned(ByteBuffer in) {
+        int zigzag = (int) getVarint(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Ajoute un message à un tampon d'envoi
+     * @param out Tampon d'envoi
+     * @param payload Le message (type puis contenu), prêt à être lu
+     * @return boolean false si le tampon d'envoi est plein (le message n'est pas ajouté)
+     */
+    public static boolean putMessage(ByteBuffer out, ByteBuffer payload) {
+        if (out.remaining() < payload.remaining() + 5) {
+            return false;
+        }
+        putVarint(out, payload.remaining());
+        out.put(payload);
+        return true;
+    }
+
+    /**
+     * Lit la longueur du prochain message s'il est entièrement arrivé
+     * @param in Données reçues, prêtes à être lues
+     * @return int La longueur du message (la position est placée sur le message),
+     *         ou -1 si le message n'est pas complet (la position ne change pas)
+     * @throws IOException Si la longueur annoncée est invalide
+     */
+    public static int nextMessage(ByteBuffer in) throws IOException {
+        return nextMessage(in, MAX_MESSAGE);
+    }
+
+    /**
+     * Lit la longueur du prochain message s'il est entièrement arrivé, en
+     * refusant les messages qui ne tiendraient pas dans le tampon de réception
+     * @param in Données reçues, prêtes à être lues
+     * @param maxLength Longueur maximale d'un message
+     * @return int La longueur du message (la position est placée sur le message),
+     *         ou -1 si le message n'est pas complet (la position ne change pas)
+     * @throws IOException Si la longueur annoncée est invalide ou dépasse maxLength
+     */
+    public static int nextMessage(ByteBuffer in, int maxLength) throws IOException {
+        int start = in.position();
+        long length = 0;
+        int shift = 0;
+        while (true) {
+            if (!in.hasRemaining()) {
+                in.position(start);
+                return -1;
+            }
+            byte b = in.get();
+            length |= (long) (b & 0x7F) << shift;
+            shift += 7;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (shift > 28) {
+                throw new IOException("Longueur de message invalide");
+            }
+        }
+        if (length > maxLength) {
+            throw new IOException("Message trop long: " + length + " octets");
+        }
+        if (in.remaining() < length) {
+            in.position(start);
+            return -1;
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,841 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Serveur du mode versus : deux joueurs jouent la même partie (même graine,
+ * mêmes niveaux, mêmes power-ups), chacun avec sa balle et sa raquette, et le
+ * meilleur score l'emporte.
+ *
+ * Le serveur fait foi : il fait avancer les deux parties (un GameWorld par
+ * joueur) au rythme de la boucle de jeu, avec les entrées reçues des clients,
+ * et envoie à chaque pas à chaque client l'écart entre l'état courant de sa
+ * partie et le dernier état qu'il lui a envoyé (seulement les blocs touchés,
+ * les balles, la raquette, les power-ups et les scores qui ont changé).
+ *
+ * Un seul thread gère les connexions et la simulation : un Selector NIO
+ * attend les connexions et les entrées jusqu'à l'échéance du prochain pas.
+ * Toutes les 5 secondes, le serveur affiche le coût d'un pas et le débit
+ * envoyé à chaque client.
+ *
+ * Lancement : java -cp bin VersusServer [port] [--seed graine]
+ * Test complet en local, avec deux clients automatiques :
+ * java -cp bin VersusServer --loopback [secondes]
+ */
+public class VersusServer implements Runnable {
+
+    private static final int PLAYERS = 2;
+    private static final int RECEIVE_BUFFER = 4 * 1024;
+    // Un message plus long (longueur comprise) ne pourrait jamais arriver en
+    // entier dans le tampon de réception : le client est déconnecté
+    private static final int MAX_CLIENT_MESSAGE = RECEIVE_BUFFER - 2;
+    // Retard d'envoi toléré avant de considérer un client comme trop lent
+    private static final int SEND_BUFFER = 4 * VersusProtocol.MAX_MESSAGE;
+    private static final int MAX_CATCH_UP_TICKS = 10;
+    private static final long REPORT_NANOS = 5_000_000_000L;
+    // Temps laissé à un client pour recevoir le résultat avant la fermeture
+    private static final long CLOSE_NANOS = 2_000_000_000L;
+
+    /**
+     * Un joueur connecté et sa partie
+     */
+    static class Player {
+        final SocketChannel channel;
+        final int index;
+        final String address;
+        final ByteBuffer in = ByteBuffer.allocate(RECEIVE_BUFFER);
+        final ByteBuffer out = ByteBuffer.allocateDirect(SEND_BUFFER);
+
+        GameStats stats;
+        GameWorld world;
+
+        // Touches enfoncées, et entrées reçues depuis le dernier pas
+        int held;
+        int pressed;
+
+        // État de la partie à ce pas, et dernier état envoyé au client
+        final FrameSnapshot current = new FrameSnapshot();
+        final FrameSnapshot sent = new FrameSnapshot();
+        boolean sentAny;
+        int sentOpponentScore;
+        int sentOpponentLives;
+        int sentOpponentLevel;
+        boolean sentOpponentFinished;
+
+        // Octets échangés depuis le dernier rapport, et depuis la connexion
+        long windowSent;
+        long windowReceived;
+        long totalSent;
+        long totalReceived;
+
+        long closeDeadline;
+
+        Player(SocketChannel channel, int index) throws IOException {
+            this.channel = channel;
+            this.index = index;
+            this.address = String.valueOf(channel.getRemoteAddress());
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Long fixedSeed;
+    private volatile boolean running = true;
+
+    private final Player[] players = new Player[PLAYERS];
+    private int playerCount;
+    private boolean playing;
+    // Joueurs de la dernière partie lancée (pour le test local)
+    private final Player[] match = new Player[PLAYERS];
+    // Joueurs dont la connexion se ferme après l'envoi du résultat
+    private final List<Player> leaving = new ArrayList<>();
+
+    private final ByteBuffer payload = ByteBuffer.allocate(VersusProtocol.MAX_MESSAGE);
+
+    // Coût d'un pas : depuis le dernier rapport, et depuis le début de la partie
+    private final Histogram tickNanos = new Histogram();
+    private final Histogram matchTickNanos = new Histogram();
+    private long lastReport;
+    private long matchTicks;
+
+    /**
+     * Ouvre le serveur
+     * @param port Port TCP (0 pour un port libre choisi par le système)
+     * @param seed Graine de toutes les parties (null : une nouvelle graine par partie)
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public VersusServer(int port, Long seed) throws IOException {
+        this.fixedSeed = seed;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne le port d'écoute
+     * @return int Le port
+     * @throws IOException Si le serveur est fermé
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Arrête le serveur ; run() se termine après le tour en cours
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        lastReport = next;
+        try {
+            while (running) {
+                // Attendre les connexions et les entrées jusqu'au prochain pas
+                long wait = next - System.nanoTime();
+                if (wait >= 1_000_000) {
+                    selector.select(wait / 1_000_000);
+                } else {
+                    selector.selectNow();
+                }
+                handleSelected();
+
+                long now = System.nanoTime();
+                int steps = 0;
+                while (now - next >= 0 && steps < MAX_CATCH_UP_TICKS) {
+                    tick();
+                    next += GameLoop.TICK_NANOS;
+                    steps++;
+                }
+                // Trop de retard : on l'abandonne, comme GameLoop
+                if (now - next >= 0) {
+                    next = now + GameLoop.TICK_NANOS;
+                }
+                if (now - lastReport >= REPORT_NANOS) {
+                    report(now);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Erreur du serveur versus: " + e.getMessage());
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Traite les connexions et les données reçues
+     * @throws IOException En cas d'erreur du Selector
+     */
+    private void handleSelected() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.isReadable()) {
+                read((Player) key.attachment());
+            }
+        }
+    }
+
+    /**
+     * Accepte un joueur, et lance la partie quand les deux joueurs sont là
+     * @throws IOException En cas d'erreur du Selector
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        if (playing || playerCount == PLAYERS) {
+            System.out.println("Connexion refusée (partie en cours): " + channel.getRemoteAddress());
+            channel.close();
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Player player = new Player(channel, playerCount);
+        channel.register(selector, SelectionKey.OP_READ, player);
+        players[playerCount++] = player;
+        System.out.println("Joueur " + (player.index + 1) + " connecté: " + player.address);
+
+        if (playerCount == PLAYERS) {
+            startMatch();
+        }
+    }
+
+    /**
+     * Lit les entrées envoyées par un joueur
+     * @param player Le joueur
+     */
+    private void read(Player player) {
+        try {
+            int read = player.channel.read(player.in);
+            if (read < 0) {
+                disconnect(player, "déconnecté");
+                return;
+            }
+            player.windowReceived += read;
+            player.totalReceived += read;
+
+            ByteBuffer in = player.in;
+            in.flip();
+            int length;
+            while ((length = VersusProtocol.nextMessage(in, MAX_CLIENT_MESSAGE)) >= 0) {
+                int end = in.position() + length;
+                int type = in.get();
+                if (type == VersusProtocol.MSG_INPUT) {
+                    int inputs = in.get();
+                    // Les flèches restent enfoncées jusqu'au message suivant ;
+                    // un lancement compte pour le prochain pas
+                    player.held = inputs & (GameWorld.INPUT_LEFT | GameWorld.INPUT_RIGHT);
+                    player.pressed |= inputs;
+                }
+                in.position(end);
+            }
+            in.compact();
+        } catch (IOException e) {
+            disconnect(player, "erreur: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lance une partie entre les deux joueurs connectés
+     */
+    private void startMatch() {
+        long seed = fixedSeed != null ? fixedSeed : GameRandom.newSeed();
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = players[i];
+            player.stats = new GameStats();
+            player.world = new GameWorld(GameWorld.DEFAULT_WIDTH, GameWorld.DEFAULT_HEIGHT, player.stats);
+            player.world.newGame(seed);
+            player.sentAny = false;
+            match[i] = player;
+
+            payload.clear();
+            payload.put((byte) VersusProtocol.MSG_WELCOME);
+            payload.put((byte) i);
+            payload.putLong(seed);
+            VersusProtocol.putVarint(payload, GameWorld.DEFAULT_WIDTH);
+            VersusProtocol.putVarint(payload, GameWorld.DEFAULT_HEIGHT);
+            payload.flip();
+            VersusProtocol.putMessage(player.out, payload);
+        }
+        playing = true;
+        matchTicks = 0;
+        tickNanos.reset();
+        matchTickNanos.reset();
+        System.out.println("Partie lancée, graine " + seed);
+    }
+
+    /**
+     * Avance les deux parties d'un pas et envoie les écarts aux clients
+     */
+    private void tick() {
+        if (playing) {
+            long start = System.nanoTime();
+            for (int i = 0; i < PLAYERS; i++) {
+                Player player = players[i];
+                int inputs = player.held | player.pressed;
+                player.pressed = 0;
+                player.world.step(inputs);
+                player.current.capture(player.world);
+            }
+            for (int i = 0; i < PLAYERS && playing; i++) {
+                writeState(players[i], players[1 - i]);
+            }
+            for (int i = 0; i < PLAYERS && playing; i++) {
+                flush(players[i]);
+            }
+            long elapsed = System.nanoTime() - start;
+            tickNanos.record(elapsed);
+            matchTickNanos.record(elapsed);
+            matchTicks++;
+
+            if (playing && players[0].world.isFinished() && players[1].world.isFinished()) {
+                endMatch();
+            }
+        } else {
+            // En attente du second joueur : envoyer ce qui reste (messages de bienvenue)
+            for (int i = 0; i < playerCount; i++) {
+                flush(players[i]);
+            }
+        }
+        flushLeaving();
+    }
+
+    /**
+     * Écrit l'écart entre l'état courant de la partie d'un joueur et le dernier
+     * état qui lui a été envoyé
+     * @param player Le joueur
+     * @param opponent Son adversaire
+     */
+    private void writeState(Player player, Player opponent) {
+        FrameSnapshot current = player.current;
+        FrameSnapshot sent = player.sent;
+        boolean first = !player.sentAny;
+        ByteBuffer out = payload;
+        out.clear();
+        out.put((byte) VersusProtocol.MSG_STATE);
+        VersusProtocol.putVarint(out, current.tick - (first ? 0 : sent.tick));
+
+        // Parties de l'état qui ont changé
+        int flags = 0;
+        if (current.ballLaunched) {
+            flags |= VersusProtocol.FLAG_LAUNCHED;
+        }
+        if (player.world.isFinished()) {
+            flags |= VersusProtocol.FLAG_FINISHED;
+        }
+        if (first || current.score != sent.score || current.lives != sent.lives || current.level != sent.level) {
+            flags |= VersusProtocol.FLAG_STATS;
+        }
+        GameStats opponentStats = opponent.stats;
+        boolean opponentFinished = opponent.world.isFinished();
+        if (first || opponentStats.getScore() != player.sentOpponentScore
+                || opponentStats.getLives() != player.sentOpponentLives
+                || opponentStats.getCurrentLevel() != player.sentOpponentLevel
+                || opponentFinished != player.sentOpponentFinished) {
+            flags |= VersusProtocol.FLAG_OPPONENT;
+        }
+        if (first || current.paddleX != sent.paddleX || current.paddleY != sent.paddleY
+                || current.paddleWidth != sent.paddleWidth || current.paddleHeight != sent.paddleHeight) {
+            flags |= VersusProtocol.FLAG_PADDLE;
+        }
+        if (first || ballsChanged(current, sent)) {
+            flags |= VersusProtocol.FLAG_BALLS;
+        }
+        if (first || powerUpsChanged(current, sent)) {
+            flags |= VersusProtocol.FLAG_POWER_UPS;
+        }
+        boolean blocksFull = first || current.layout != sent.layout || current.scroll != sent.scroll
+                || current.blockCount != sent.blockCount;
+        if (blocksFull) {
+            flags |= VersusProtocol.FLAG_BLOCKS_FULL;
+        }
+        out.put((byte) flags);
+
+        if ((flags & VersusProtocol.FLAG_STATS) != 0) {
+            VersusProtocol.putVarint(out, current.score);
+            VersusProtocol.putVarint(out, current.lives);
+            VersusProtocol.putVarint(out, current.level);
+        }
+        if ((flags & VersusProtocol.FLAG_OPPONENT) != 0) {
+            VersusProtocol.putVarint(out, opponentStats.getScore());
+            VersusProtocol.putVarint(out, opponentStats.getLives());
+            VersusProtocol.putVarint(out, opponentStats.getCurrentLevel());
+            out.put((byte) (opponentFinished ? 1 : 0));
+            player.sentOpponentScore = opponentStats.getScore();
+            player.sentOpponentLives = opponentStats.getLives();
+            player.sentOpponentLevel = opponentStats.getCurrentLevel();
+            player.sentOpponentFinished = opponentFinished;
+        }
+        if ((flags & VersusProtocol.FLAG_PADDLE) != 0) {
+            VersusProtocol.putSigned(out, current.paddleX - (first ? 0 : sent.paddleX));
+            VersusProtocol.putSigned(out, current.paddleY - (first ? 0 : sent.paddleY));
+            VersusProtocol.putVarint(out, current.paddleWidth);
+            VersusProtocol.putVarint(out, current.paddleHeight);
+        }
+        if ((flags & VersusProtocol.FLAG_BALLS) != 0) {
+            // Position arrondie, en écart avec la position envoyée au pas précédent
+            VersusProtocol.putVarint(out, current.ballCount);
+            for (int i = 0; i < current.ballCount; i++) {
+                boolean known = !first && i < sent.ballCount;
+                VersusProtocol.putSigned(out, round(current.ballX[i]) - (known ? round(sent.ballX[i]) : 0));
+                VersusProtocol.putSigned(out, round(current.ballY[i]) - (known ? round(sent.ballY[i]) : 0));
+            }
+        }
+        if ((flags & VersusProtocol.FLAG_POWER_UPS) != 0) {
+            VersusProtocol.putVarint(out, current.powerUpCount);
+            for (int i = 0; i < current.powerUpCount; i++) {
+                VersusProtocol.putSigned(out, current.powerUpX[i]);
+                VersusProtocol.putSigned(out, current.powerUpY[i]);
+                VersusProtocol.putVarint(out, current.powerUpType[i]);
+            }
+        }
+        if (blocksFull) {
+            // Nouveau niveau (ou champ sans fin qui descend) : tous les blocs
+            VersusProtocol.putVarint(out, current.scroll + 1);
+            VersusProtocol.putVarint(out, current.blockCount);
+            for (int i = 0; i < current.blockCount; i++) {
+                VersusProtocol.putSigned(out, current.blockX[i]);
+                VersusProtocol.putSigned(out, current.blockY[i]);
+                VersusProtocol.putVarint(out, current.blockWidth[i]);
+                VersusProtocol.putVarint(out, current.blockHeight[i]);
+                VersusProtocol.putVarint(out, current.blockType[i]);
+                VersusProtocol.putVarint(out, current.blockHitPoints[i]);
+            }
+        } else {
+            // Sinon, seulement les blocs touchés : écart d'indice et points de vie
+            int changed = 0;
+            for (int i = 0; i < current.blockCount; i++) {
+                if (current.blockHitPoints[i] != sent.blockHitPoints[i]) {
+                    changed++;
+                }
+            }
+            VersusProtocol.putVarint(out, changed);
+            int previous = -1;
+            for (int i = 0; i < current.blockCount && changed > 0; i++) {
+                if (current.blockHitPoints[i] != sent.blockHitPoints[i]) {
+                    VersusProtocol.putVarint(out, i - previous);
+                    VersusProtocol.putVarint(out, current.blockHitPoints[i]);
+                    previous = i;
+                    changed--;
+                }
+            }
+        }
+
+        out.flip();
+        if (!VersusProtocol.putMessage(player.out, out)) {
+            disconnect(player, "trop lent, retard d'envoi trop important");
+            return;
+        }
+        sent.copyFrom(current);
+        player.sentAny = true;
+    }
+
+    /**
+     * Vérifie si les balles ont bougé depuis le dernier état envoyé
+     * @param current État courant
+     * @param sent Dernier état envoyé
+     * @return boolean true si une position arrondie ou le nombre de balles a changé
+     */
+    private static boolean ballsChanged(FrameSnapshot current, FrameSnapshot sent) {
+        if (current.ballCount != sent.ballCount) {
+            return true;
+        }
+        for (int i = 0; i < current.ballCount; i++) {
+            if (round(current.ballX[i]) != round(sent.ballX[i]) || round(current.ballY[i]) != round(sent.ballY[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie si les power-ups ont changé depuis le dernier état envoyé
+     * @param current État courant
+     * @param sent Dernier état envoyé
+     * @return boolean true si un power-up est apparu, a disparu ou a bougé
+     */
+    private static boolean powerUpsChanged(FrameSnapshot current, FrameSnapshot sent) {
+        if (current.powerUpCount != sent.powerUpCount) {
+            return true;
+        }
+        for (int i = 0; i < current.powerUpCount; i++) {
+            if (current.powerUpX[i] != sent.powerUpX[i] || current.powerUpY[i] != sent.powerUpY[i]
+                    || current.powerUpType[i] != sent.powerUpType[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Arrondit une position de balle comme le client la reconstruit
+     * @param value La position
+     * @return int La position arrondie
+     */
+    static int round(double value) {
+        return (int) Math.round(value);
+    }
+
+    /**
+     * Envoie les données en attente d'un joueur, sans bloquer
+     * @param player Le joueur
+     */
+    private void flush(Player player) {
+        ByteBuffer out = player.out;
+        if (out.position() == 0) {
+            return;
+        }
+        try {
+            out.flip();
+            int written = player.channel.write(out);
+            out.compact();
+            player.windowSent += written;
+            player.totalSent += written;
+        } catch (IOException e) {
+            out.clear();
+            disconnect(player, "erreur: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Termine la partie quand les deux joueurs ont fini : le meilleur score gagne
+     */
+    private void endMatch() {
+        int first = players[0].stats.getScore();
+        int second = players[1].stats.getScore();
+        System.out.println("Partie terminée: " + first + " à " + second + " en " + matchTicks + " pas");
+        report(System.nanoTime());
+        sendResult(players[0], first > second ? VersusProtocol.RESULT_VICTORY
+                : first < second ? VersusProtocol.RESULT_DEFEAT : VersusProtocol.RESULT_DRAW, first, second);
+        sendResult(players[1], second > first ? VersusProtocol.RESULT_VICTORY
+                : second < first ? VersusProtocol.RESULT_DEFEAT : VersusProtocol.RESULT_DRAW, second, first);
+        clearPlayers();
+    }
+
+    /**
+     * Envoie le résultat à un joueur, puis ferme sa connexion une fois le message parti
+     * @param player Le joueur
+     * @param result RESULT_VICTORY, RESULT_DEFEAT ou RESULT_DRAW
+     * @param score Son score
+     * @param opponentScore Le score de son adversaire
+     */
+    private void sendResult(Player player, int result, int score, int opponentScore) {
+        payload.clear();
+        payload.put((byte) VersusProtocol.MSG_RESULT);
+        payload.put((byte) result);
+        VersusProtocol.putVarint(payload, score);
+        VersusProtocol.putVarint(payload, opponentScore);
+        payload.flip();
+        VersusProtocol.putMessage(player.out, payload);
+        player.closeDeadline = System.nanoTime() + CLOSE_NANOS;
+        leaving.add(player);
+    }
+
+    /**
+     * Envoie la fin des données des joueurs qui partent et ferme leur connexion
+     */
+    private void flushLeaving() {
+        for (int i = leaving.size() - 1; i >= 0; i--) {
+            Player player = leaving.get(i);
+            flush(player);
+            if (player.out.position() == 0 || System.nanoTime() - player.closeDeadline > 0) {
+                close(player);
+                leaving.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Retire un joueur dont la connexion est perdue. Pendant une partie, son
+     * adversaire gagne par forfait.
+     * @param player Le joueur
+     * @param reason La raison, pour le journal
+     */
+    private void disconnect(Player player, String reason) {
+        close(player);
+        if (leaving.remove(player)) {
+            return;
+        }
+        System.out.println("Joueur " + (player.index + 1) + " " + reason);
+        if (playing) {
+            Player opponent = players[1 - player.index];
+            sendResult(opponent, VersusProtocol.RESULT_VICTORY, opponent.stats.getScore(), player.stats.getScore());
+            clearPlayers();
+        } else {
+            // Avant la partie : l'autre joueur (s'il y en a un) redevient le premier
+            int kept = 0;
+            for (int i = 0; i < playerCount; i++) {
+                if (players[i] != player) {
+                    players[kept++] = players[i];
+                }
+            }
+            for (int i = kept; i < playerCount; i++) {
+                players[i] = null;
+            }
+            playerCount = kept;
+        }
+    }
+
+    /**
+     * Oublie les joueurs de la partie terminée pour en accepter de nouveaux
+     */
+    private void clearPlayers() {
+        playing = false;
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = null;
+        }
+        playerCount = 0;
+    }
+
+    /**
+     * Ferme la connexion d'un joueur
+     * @param player Le joueur
+     */
+    private void close(Player player) {
+        try {
+            player.channel.close();
+        } catch (IOException e) {
+            // Connexion déjà perdue
+        }
+    }
+
+    /**
+     * Affiche le coût d'un pas et le débit de chaque client depuis le rapport précédent
+     * @param now Date du rapport (System.nanoTime)
+     */
+    private void report(long now) {
+        double seconds = (now - lastReport) / 1e9;
+        lastReport = now;
+        if (!playing || seconds <= 0) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(String.format(Locale.FRANCE,
+                "Pas: méd %d µs, 99%% %d µs, max %d µs",
+                tickNanos.getPercentile(0.5) / 1000, tickNanos.getPercentile(0.99) / 1000,
+                tickNanos.getMax() / 1000));
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = players[i];
+            line.append(String.format(Locale.FRANCE, " | joueur %d: %.1f Ko/s envoyés, %.2f Ko/s reçus",
+                    i + 1, player.windowSent / seconds / 1024, player.windowReceived / seconds / 1024));
+            player.windowSent = 0;
+            player.windowReceived = 0;
+        }
+        System.out.println(line);
+        tickNanos.reset();
+    }
+
+    /**
+     * Ferme toutes les connexions et le serveur
+     */
+    private void shutdown() {
+        for (int i = 0; i < playerCount; i++) {
+            flush(players[i]);
+            close(players[i]);
+        }
+        for (Player player : leaving) {
+            flush(player);
+            close(player);
+        }
+        leaving.clear();
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture du serveur: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Joue une partie entre deux clients automatiques sur la boucle locale,
+     * puis affiche le coût d'un pas, le débit par client, et vérifie que l'état
+     * reconstruit par chaque client est identique à celui du serveur
+     * @param seconds Durée maximale de la partie
+     * @return boolean true si les états reconstruits sont identiques
+     * @throws IOException Si le serveur ou les clients ne peuvent pas se connecter
+     * @throws InterruptedException Si le thread est interrompu
+     */
+    static boolean loopback(int seconds) throws IOException, InterruptedException {
+        VersusServer versus = new VersusServer(0, 42L);
+        Thread serverThread = new Thread(versus, "versus-server");
+        serverThread.start();
+
+        VersusConnection[] clients = {
+            new VersusConnection("localhost", versus.getPort()),
+            new VersusConnection("localhost", versus.getPort())
+        };
+        int[] sentInputs = new int[PLAYERS];
+
+        // Les clients jouent au rythme de la boucle de jeu, chacun avec son décalage
+        long start = System.nanoTime();
+        long next = start;
+        while (System.nanoTime() - start < seconds * 1_000_000_000L
+                && (clients[0].getResult() < 0 || clients[1].getResult() < 0)) {
+            for (int i = 0; i < PLAYERS; i++) {
+                VersusConnection client = clients[i];
+                client.poll();
+                int inputs = autopilot(client.getState(), i == 0 ? -30 : 30);
+                if (client.isWelcomed() && inputs != sentInputs[i]) {
+                    client.sendInputs(inputs);
+                    sentInputs[i] = inputs;
+                }
+            }
+            next += GameLoop.TICK_NANOS;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Arrêter le serveur, puis laisser les clients recevoir les derniers états
+        versus.stop();
+        serverThread.join();
+        for (VersusConnection client : clients) {
+            long deadline = System.nanoTime() + 2_000_000_000L;
+            while (!client.isClosed() && System.nanoTime() - deadline < 0) {
+                client.poll();
+                LockSupport.parkNanos(GameLoop.TICK_NANOS);
+            }
+            client.close();
+        }
+
+        double duration = elapsed / 1e9;
+        Histogram ticks = versus.matchTickNanos;
+        System.out.println(String.format(Locale.FRANCE,
+                "Pas du serveur: %d en %.1f s, méd %d µs, 99%% %d µs, max %d µs",
+                versus.matchTicks, duration, ticks.getPercentile(0.5) / 1000,
+                ticks.getPercentile(0.99) / 1000, ticks.getMax() / 1000));
+        boolean consistent = true;
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = versus.match[i];
+            System.out.println(String.format(Locale.FRANCE,
+                    "Joueur %d: score %d, %.1f Ko/s envoyés (%.1f octets/pas), %.2f Ko/s reçus",
+                    i + 1, player.stats.getScore(), player.totalSent / duration / 1024,
+                    (double) player.totalSent / Math.max(1, versus.matchTicks),
+                    player.totalReceived / duration / 1024));
+            String difference = difference(player.sent, clients[i].getState());
+            if (difference != null) {
+                System.out.println("Joueur " + (i + 1) + ": état du client DIFFÉRENT du serveur (" + difference + ")");
+                consistent = false;
+            }
+        }
+        if (consistent) {
+            System.out.println("États reconstruits par les clients identiques à ceux du serveur");
+        }
+        return consistent;
+    }
+
+    /**
+     * Entrées d'un joueur automatique qui suit la première balle
+     * @param state État reçu du serveur
+     * @param offset Décalage du point de frappe sur la raquette
+     * @return int Les entrées (GameWorld.INPUT_*)
+     */
+    static int autopilot(FrameSnapshot state, int offset) {
+        if (!state.ballLaunched) {
+            return GameWorld.INPUT_LAUNCH;
+        }
+        if (state.ballCount == 0) {
+            return 0;
+        }
+        int target = (int) state.ballX[0] + state.ballWidth / 2 + offset;
+        int center = state.paddleX + state.paddleWidth / 2;
+        if (target > center + 10) {
+            return GameWorld.INPUT_RIGHT;
+        }
+        if (target < center - 10) {
+            return GameWorld.INPUT_LEFT;
+        }
+        return 0;
+    }
+
+    /**
+     * Compare l'état du serveur à celui reconstruit par un client
+     * @param server Dernier état envoyé par le serveur
+     * @param client État reconstruit par le client
+     * @return String La première différence trouvée, ou null si les états sont identiques
+     */
+    private static String difference(FrameSnapshot server, FrameSnapshot client) {
+        if (server.tick != client.tick) {
+            return "pas " + server.tick + " / " + client.tick;
+        }
+        if (server.score != client.score || server.lives != client.lives || server.level != client.level) {
+            return "score, vies ou niveau";
+        }
+        if (server.paddleX != client.paddleX || server.paddleY != client.paddleY
+                || server.paddleWidth != client.paddleWidth) {
+            return "raquette";
+        }
+        if (server.ballCount != client.ballCount) {
+            return "nombre de balles";
+        }
+        for (int i = 0; i < server.ballCount; i++) {
+            if (round(server.ballX[i]) != round(client.ballX[i]) || round(server.ballY[i]) != round(client.ballY[i])) {
+                return "balle " + i;
+            }
+        }
+        if (server.powerUpCount != client.powerUpCount) {
+            return "power-ups";
+        }
+        if (server.blockCount != client.blockCount) {
+            return "nombre de blocs";
+        }
+        for (int i = 0; i < server.blockCount; i++) {
+            if (server.blockHitPoints[i] != client.blockHitPoints[i]) {
+                return "bloc " + i;
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = VersusProtocol.DEFAULT_PORT;
+        Long seed = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--loopback")) {
+                int seconds = 20;
+                if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                    seconds = Integer.parseInt(args[++i]);
+                }
+                System.exit(loopback(seconds) ? 0 : 1);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].matches("\\d+")) {
+                port = Integer.parseInt(args[i]);
+            } else {
+                System.err.println("Usage : java -cp bin VersusServer [port] [--seed graine] | --loopback [secondes]");
+                System.exit(2);
+            }
+        }
+
+        VersusServer versus = new VersusServer(port, seed);
+        System.out.println("Serveur versus en attente de deux joueurs sur le port " + versus.getPort());
+        versus.run();
+    }
+}